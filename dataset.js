@@ -26,39 +26,45 @@ db.medico.insertMany([
     _id: ObjectId("66a2a9aaa8620e3c1c543711"),
     nombre: "Dr. Javier Méndez",
     especialidad: "Cardiología",
-    horariosDisponibles: [
-      {
-        fecha: ISODate("2024-08-10T00:00:00Z"),
-        horaInicio: "09:00",
-        horaFin: "13:00",
-        reservado: false
-      },
-      {
-        fecha: ISODate("2024-08-11T00:00:00Z"),
-        horaInicio: "14:00",
-        horaFin: "18:00",
-        reservado: false
-      }
-    ],
     _class: "VitalApp.model.documents.Medico"
   },
   {
     _id: ObjectId("66a2a9aaa8620e3c1c543712"),
     nombre: "Dra. Laura Jiménez",
     especialidad: "Pediatría",
-    horariosDisponibles: [
-      {
-        fecha: ISODate("2024-08-10T00:00:00Z"),
-        horaInicio: "08:00",
-        horaFin: "12:00",
-        reservado: false
-      }
-    ],
     _class: "VitalApp.model.documents.Medico"
   }
 ]);
 
-// 4. Insertar Citas Médicas
+// Horarios de los médicos (colección propia, las horas se guardan sobre 1970-01-01 en UTC)
+db.horario.insertMany([
+  {
+    idMedico: ObjectId("66a2a9aaa8620e3c1c543711"),
+    fecha: ISODate("2024-08-10T00:00:00Z"),
+    horaInicio: ISODate("1970-01-01T09:00:00Z"),
+    horaFin: ISODate("1970-01-01T13:00:00Z"),
+    reservado: false,
+    _class: "VitalApp.model.documents.Horario"
+  },
+  {
+    idMedico: ObjectId("66a2a9aaa8620e3c1c543711"),
+    fecha: ISODate("2024-08-11T00:00:00Z"),
+    horaInicio: ISODate("1970-01-01T14:00:00Z"),
+    horaFin: ISODate("1970-01-01T18:00:00Z"),
+    reservado: false,
+    _class: "VitalApp.model.documents.Horario"
+  },
+  {
+    idMedico: ObjectId("66a2a9aaa8620e3c1c543712"),
+    fecha: ISODate("2024-08-10T00:00:00Z"),
+    horaInicio: ISODate("1970-01-01T08:00:00Z"),
+    horaFin: ISODate("1970-01-01T12:00:00Z"),
+    reservado: false,
+    _class: "VitalApp.model.documents.Horario"
+  }
+]);
+
+// 4. Insertar Citas Médicas (mismo formato de horas que la colección horario)
 db.citaMedica.insertMany([
   {
     _id: ObjectId("66a2a9aaa8620e3c1c543721"),
@@ -66,8 +72,8 @@ db.citaMedica.insertMany([
     idMedico: ObjectId("66a2a9aaa8620e3c1c543711"), // Dr. Javier Méndez
     horario: {
       fecha: ISODate("2024-08-10T00:00:00Z"),
-      horaInicio: "09:00",
-      horaFin: "10:00",
+      horaInicio: ISODate("1970-01-01T09:00:00Z"),
+      horaFin: ISODate("1970-01-01T10:00:00Z"),
       reservado: true
     },
     estado: "PENDIENTE",
@@ -79,8 +85,8 @@ db.citaMedica.insertMany([
     idMedico: ObjectId("66a2a9aaa8620e3c1c543712"), // Dra. Laura Jiménez
     horario: {
       fecha: ISODate("2024-08-10T00:00:00Z"),
-      horaInicio: "08:00",
-      horaFin: "09:00",
+      horaInicio: ISODate("1970-01-01T08:00:00Z"),
+      horaFin: ISODate("1970-01-01T09:00:00Z"),
       reservado: true
     },
     estado: "VISTA",
@@ -0,0 +1,169 @@
+package VitalApp.carga;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Cliente HTTP mínimo de la API REST de VitalApp: arma las peticiones de la prueba de carga y
+ * crea los médicos, pacientes y horarios que esta necesita.
+ */
+public class ClienteVitalApp {
+
+    private static final DateTimeFormatter FORMATO_FECHA = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+    private static final String PREFIJO_ID = "con ID: ";
+
+    /** Mensajes de negocio que significan que la reserva compitió por el horario y perdió, no un fallo. */
+    private static final List<String> MENSAJES_CONFLICTO = List.of(
+            "El horario ya está reservado",
+            "El paciente ya tiene una cita agendada en ese horario",
+            "Horario no disponible para el médico seleccionado"
+    );
+
+    private final HttpClient http;
+    private final URI base;
+    private final Duration tiempoEspera;
+    private final ConfiguracionCarga.Lecturas lecturas;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public ClienteVitalApp(HttpClient http, URI base, Duration tiempoEspera, ConfiguracionCarga.Lecturas lecturas) {
+        this.http = http;
+        this.base = base;
+        this.tiempoEspera = tiempoEspera;
+        this.lecturas = lecturas;
+    }
+
+    // ==================== PETICIONES DE LA CARGA ====================
+
+    public HttpRequest agendar(String idPaciente, String idMedico, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        ObjectNode cuerpo = mapper.createObjectNode()
+                .put("idPaciente", idPaciente)
+                .put("idMedico", idMedico);
+        cuerpo.putObject("horario")
+                .put("fecha", fecha.toString())
+                .put("horaInicio", horaInicio.toString())
+                .put("horaFin", horaFin.toString())
+                .put("reservado", false);
+        return post("/api/citas/agendar", cuerpo);
+    }
+
+    public HttpRequest horariosDisponibles(String idMedico) {
+        return lectura("/medicos/" + idMedico + "/horarios/disponibles");
+    }
+
+    public HttpRequest historial(String idPaciente) {
+        return lectura("/pacientes/" + idPaciente + "/historial");
+    }
+
+    public Resultado clasificar(Operacion operacion, HttpResponse<String> respuesta) {
+        if (respuesta.statusCode() / 100 == 2) {
+            return Resultado.EXITO;
+        }
+        if (operacion == Operacion.AGENDAR && esConflicto(respuesta.body())) {
+            return Resultado.CONFLICTO;
+        }
+        return Resultado.ERROR;
+    }
+
+    // ==================== PREPARACIÓN ====================
+
+    public String crearMedico(String nombre, String especialidad) throws IOException, InterruptedException {
+        ObjectNode cuerpo = mapper.createObjectNode()
+                .put("nombre", nombre)
+                .put("especialidad", especialidad);
+        cuerpo.putArray("horariosDisponibles");
+        return idCreado(enviar(post("/api/medicos", cuerpo)));
+    }
+
+    public String crearPaciente(String nombre) throws IOException, InterruptedException {
+        return idCreado(enviar(post("/api/pacientes", mapper.createObjectNode().put("nombre", nombre))));
+    }
+
+    /** Genera la agenda del médico con la plantilla semanal: todos los días, de {@code desde} a {@code hasta}. */
+    public void generarHorarios(String idMedico, LocalTime horaInicio, LocalTime horaFin, int duracionMinutos,
+                                LocalDate desde, LocalDate hasta) throws IOException, InterruptedException {
+        ObjectNode cuerpo = mapper.createObjectNode()
+                .put("horaInicio", horaInicio.toString())
+                .put("horaFin", horaFin.toString())
+                .put("duracionMinutos", duracionMinutos)
+                .put("desde", desde.format(FORMATO_FECHA))
+                .put("hasta", hasta.format(FORMATO_FECHA));
+        for (DayOfWeek dia : DayOfWeek.values()) {
+            cuerpo.withArray("dias").add(dia.name());
+        }
+        verificar(enviar(post("/api/medicos/" + idMedico + "/horarios/plantilla", cuerpo)));
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private HttpRequest get(String ruta) {
+        return get(ruta, "application/json");
+    }
+
+    private HttpRequest get(String ruta, String aceptar) {
+        return HttpRequest.newBuilder(base.resolve(ruta))
+                .timeout(tiempoEspera)
+                .header("Accept", aceptar)
+                .GET()
+                .build();
+    }
+
+    // La respuesta se lee completa en ambos casos, así la latencia incluye el último elemento del stream
+    private HttpRequest lectura(String ruta) {
+        return lecturas == ConfiguracionCarga.Lecturas.REACTIVO
+                ? get("/api/reactivo" + ruta, "application/x-ndjson")
+                : get("/api" + ruta);
+    }
+
+    private HttpRequest post(String ruta, JsonNode cuerpo) {
+        return HttpRequest.newBuilder(base.resolve(ruta))
+                .timeout(tiempoEspera)
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(cuerpo.toString()))
+                .build();
+    }
+
+    private HttpResponse<String> enviar(HttpRequest peticion) throws IOException, InterruptedException {
+        return http.send(peticion, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> verificar(HttpResponse<String> respuesta) {
+        if (respuesta.statusCode() / 100 != 2) {
+            throw new IllegalStateException("Respuesta " + respuesta.statusCode() + " de "
+                    + respuesta.request().uri() + ": " + respuesta.body());
+        }
+        return respuesta;
+    }
+
+    /** Los endpoints de creación responden "... creado exitosamente con ID: <id>". */
+    private String idCreado(HttpResponse<String> respuesta) throws IOException {
+        String mensaje = mapper.readTree(verificar(respuesta).body()).path("respuesta").asText();
+        int posicion = mensaje.lastIndexOf(PREFIJO_ID);
+        if (posicion < 0) {
+            throw new IllegalStateException("No se encontró el ID en la respuesta: " + mensaje);
+        }
+        return mensaje.substring(posicion + PREFIJO_ID.length()).trim();
+    }
+
+    private boolean esConflicto(String cuerpo) {
+        try {
+            String mensaje = mapper.readTree(cuerpo).path("respuesta").asText("");
+            return MENSAJES_CONFLICTO.stream().anyMatch(mensaje::contains);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+}
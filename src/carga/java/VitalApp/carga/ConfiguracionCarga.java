@@ -0,0 +1,108 @@
+package VitalApp.carga;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Parámetros de una prueba de carga, leídos de argumentos {@code --clave=valor}.
+ * Los valores por defecto están pensados para una corrida corta contra la aplicación local.
+ */
+public record ConfiguracionCarga(
+        URI url,
+        Modelo modelo,
+        int usuarios,
+        double tasa,
+        Llegadas llegadas,
+        int maximoPendientes,
+        Duration duracion,
+        Duration calentamiento,
+        Duration pausa,
+        Map<Operacion, Integer> mezcla,
+        Lecturas lecturas,
+        int medicos,
+        int pacientes,
+        int diasAgenda,
+        long semilla,
+        Duration tiempoEspera,
+        String etiqueta,
+        Path salida
+) {
+
+    /** Cerrado: un número fijo de usuarios que esperan cada respuesta. Abierto: las peticiones llegan a una tasa fija. */
+    public enum Modelo { CERRADO, ABIERTO }
+
+    public enum Llegadas { CONSTANTE, POISSON }
+
+    /** Endpoints de DISPONIBLES e HISTORIAL: los MVC (JSON) o sus variantes reactivas en /api/reactivo (NDJSON). */
+    public enum Lecturas { MVC, REACTIVO }
+
+    public static ConfiguracionCarga desde(String[] args) {
+        Map<String, String> valores = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (se espera --clave=valor): " + arg);
+            }
+            int separador = arg.indexOf('=');
+            valores.put(arg.substring(2, separador), arg.substring(separador + 1));
+        }
+
+        ConfiguracionCarga configuracion = new ConfiguracionCarga(
+                URI.create(valores.getOrDefault("url", "http://localhost:8080")),
+                Modelo.valueOf(valores.getOrDefault("modelo", "cerrado").toUpperCase()),
+                Integer.parseInt(valores.getOrDefault("usuarios", "16")),
+                Double.parseDouble(valores.getOrDefault("tasa", "200")),
+                Llegadas.valueOf(valores.getOrDefault("llegadas", "poisson").toUpperCase()),
+                Integer.parseInt(valores.getOrDefault("maximo-pendientes", "1000")),
+                Duration.ofSeconds(Long.parseLong(valores.getOrDefault("duracion", "60"))),
+                Duration.ofSeconds(Long.parseLong(valores.getOrDefault("calentamiento", "10"))),
+                Duration.ofMillis(Long.parseLong(valores.getOrDefault("pausa-ms", "0"))),
+                mezcla(valores.getOrDefault("mezcla", "agendar:20,disponibles:50,historial:30")),
+                Lecturas.valueOf(valores.getOrDefault("lecturas", "mvc").toUpperCase()),
+                Integer.parseInt(valores.getOrDefault("medicos", "20")),
+                Integer.parseInt(valores.getOrDefault("pacientes", "1000")),
+                Integer.parseInt(valores.getOrDefault("dias-agenda", "14")),
+                Long.parseLong(valores.getOrDefault("semilla", "42")),
+                Duration.ofSeconds(Long.parseLong(valores.getOrDefault("tiempo-espera", "10"))),
+                valores.getOrDefault("etiqueta", "local"),
+                valores.containsKey("salida") ? Path.of(valores.get("salida")) : null
+        );
+        configuracion.validar();
+        return configuracion;
+    }
+
+    private void validar() {
+        if (usuarios <= 0 || tasa <= 0 || maximoPendientes <= 0) {
+            throw new IllegalArgumentException("Los usuarios, la tasa y el máximo de pendientes deben ser positivos");
+        }
+        if (medicos <= 0 || pacientes <= 0 || diasAgenda <= 0) {
+            throw new IllegalArgumentException("Los médicos, los pacientes y los días de agenda deben ser positivos");
+        }
+        if (duracion.isZero() || duracion.isNegative() || calentamiento.isNegative()) {
+            throw new IllegalArgumentException("La duración debe ser positiva y el calentamiento no negativo");
+        }
+    }
+
+    /** Mezcla de operaciones con pesos, p. ej. {@code agendar:20,disponibles:50,historial:30}. */
+    private static Map<Operacion, Integer> mezcla(String definicion) {
+        Map<Operacion, Integer> pesos = new EnumMap<>(Operacion.class);
+        for (String parte : definicion.split(",")) {
+            String[] clavePeso = parte.trim().split(":");
+            if (clavePeso.length != 2) {
+                throw new IllegalArgumentException("Mezcla de operaciones inválida: " + definicion);
+            }
+            int peso = Integer.parseInt(clavePeso[1].trim());
+            if (peso < 0) {
+                throw new IllegalArgumentException("Los pesos de la mezcla no pueden ser negativos");
+            }
+            pesos.merge(Operacion.valueOf(clavePeso[0].trim().toUpperCase()), peso, Integer::sum);
+        }
+        if (pesos.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("La mezcla debe tener al menos un peso positivo");
+        }
+        return pesos;
+    }
+}
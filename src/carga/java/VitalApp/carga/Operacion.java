@@ -0,0 +1,14 @@
+package VitalApp.carga;
+
+/** Operaciones que ejecuta la prueba de carga, cada una contra un endpoint real. */
+public enum Operacion {
+
+    /** POST /api/citas/agendar sobre un horario elegido al azar de la agenda generada. */
+    AGENDAR,
+
+    /** GET /api/medicos/{id}/horarios/disponibles */
+    DISPONIBLES,
+
+    /** GET /api/pacientes/{id}/historial */
+    HISTORIAL
+}
@@ -0,0 +1,256 @@
+package VitalApp.carga;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Prueba de carga de la API REST: reserva citas, consulta horarios disponibles y consulta el historial
+ * de pacientes con una mezcla configurable, y reporta percentiles de latencia y tasas de conflicto y
+ * error por operación. Se ejecuta contra una instancia ya levantada (con Mongo o con el perfil memoria):
+ * <pre>
+ * gradle bootRun --args='--spring.profiles.active=memoria'
+ * gradle pruebaCarga -PcargaArgs="--modelo=abierto --tasa=300 --duracion=60"
+ * </pre>
+ *
+ * Modelo cerrado: {@code usuarios} hilos que envían una petición, esperan la respuesta y repiten.
+ * Modelo abierto: las peticiones se programan a {@code tasa} por segundo sin esperar respuestas, y la
+ * latencia se mide desde el instante programado; así una pausa del servidor cuenta para todas las
+ * peticiones que debieron salir durante ella (sin omisión coordinada).
+ *
+ * {@code --lecturas=reactivo} envía DISPONIBLES e HISTORIAL a sus variantes reactivas (solo con Mongo),
+ * para comparar ambas a igual carga.
+ */
+public class PruebaCarga {
+
+    private static final LocalTime INICIO_JORNADA = LocalTime.of(8, 0);
+    private static final LocalTime FIN_JORNADA = LocalTime.of(18, 0);
+    private static final int MINUTOS_POR_HORARIO = 30;
+    private static final int HORARIOS_POR_DIA = 20;
+
+    private static final String[] ESPECIALIDADES = {
+            "Medicina General", "Cardiología", "Pediatría", "Dermatología", "Neurología"
+    };
+
+    private final ConfiguracionCarga configuracion;
+    private final HttpClient http;
+    private final ClienteVitalApp cliente;
+    private final Operacion[] operaciones;
+    private final int[] pesosAcumulados;
+
+    private List<String> medicos;
+    private List<String> pacientes;
+    private LocalDate primerDia;
+
+    public PruebaCarga(ConfiguracionCarga configuracion) {
+        this.configuracion = configuracion;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(configuracion.tiempoEspera())
+                .build();
+        this.cliente = new ClienteVitalApp(http, configuracion.url(), configuracion.tiempoEspera(), configuracion.lecturas());
+
+        this.operaciones = configuracion.mezcla().keySet().toArray(Operacion[]::new);
+        this.pesosAcumulados = new int[operaciones.length];
+        int acumulado = 0;
+        for (int i = 0; i < operaciones.length; i++) {
+            acumulado += configuracion.mezcla().get(operaciones[i]);
+            pesosAcumulados[i] = acumulado;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        ConfiguracionCarga configuracion = ConfiguracionCarga.desde(args);
+        new PruebaCarga(configuracion).ejecutar();
+    }
+
+    public void ejecutar() throws Exception {
+        preparar();
+
+        long inicio = System.nanoTime();
+        long inicioMedicion = inicio + configuracion.calentamiento().toNanos();
+        long fin = inicioMedicion + configuracion.duracion().toNanos();
+        RegistroResultados registro = new RegistroResultados(inicioMedicion);
+
+        System.out.printf("Carga %s contra %s durante %d s (+%d s de calentamiento)%n",
+                configuracion.modelo().name().toLowerCase(), configuracion.url(),
+                configuracion.duracion().toSeconds(), configuracion.calentamiento().toSeconds());
+
+        if (configuracion.modelo() == ConfiguracionCarga.Modelo.CERRADO) {
+            cargaCerrada(registro, fin);
+        } else {
+            cargaAbierta(registro, fin);
+        }
+
+        double segundos = configuracion.duracion().toNanos() / 1e9;
+        System.out.print(registro.reporte(segundos));
+        guardar(registro.resumen(segundos));
+    }
+
+    // ==================== PREPARACIÓN ====================
+
+    /**
+     * Crea los médicos y pacientes de la prueba con nombres propios de esta corrida y genera la agenda
+     * de cada médico: {@code diasAgenda} días desde mañana, de 08:00 a 18:00 cada 30 minutos.
+     */
+    private void preparar() throws IOException, InterruptedException {
+        String corrida = Long.toString(System.currentTimeMillis(), 36);
+        primerDia = LocalDate.now().plusDays(1);
+        LocalDate ultimoDia = primerDia.plusDays(configuracion.diasAgenda() - 1L);
+
+        medicos = new ArrayList<>(configuracion.medicos());
+        for (int i = 0; i < configuracion.medicos(); i++) {
+            String id = cliente.crearMedico("Médico Carga " + corrida + "-" + i, ESPECIALIDADES[i % ESPECIALIDADES.length]);
+            cliente.generarHorarios(id, INICIO_JORNADA, FIN_JORNADA, MINUTOS_POR_HORARIO, primerDia, ultimoDia);
+            medicos.add(id);
+        }
+
+        pacientes = new ArrayList<>(configuracion.pacientes());
+        for (int i = 0; i < configuracion.pacientes(); i++) {
+            pacientes.add(cliente.crearPaciente("Paciente Carga " + corrida + "-" + i));
+        }
+
+        System.out.printf("Preparados %d médicos con %d horarios cada uno y %d pacientes%n",
+                medicos.size(), configuracion.diasAgenda() * HORARIOS_POR_DIA, pacientes.size());
+    }
+
+    // ==================== MODELOS DE CARGA ====================
+
+    private void cargaCerrada(RegistroResultados registro, long fin) throws InterruptedException {
+        SplittableRandom raiz = new SplittableRandom(configuracion.semilla());
+        ExecutorService usuarios = Executors.newFixedThreadPool(configuracion.usuarios());
+
+        for (int i = 0; i < configuracion.usuarios(); i++) {
+            SplittableRandom aleatorio = raiz.split();
+            usuarios.execute(() -> {
+                while (System.nanoTime() < fin) {
+                    Operacion operacion = elegirOperacion(aleatorio);
+                    HttpRequest peticion = peticion(operacion, aleatorio);
+                    long envio = System.nanoTime();
+                    try {
+                        HttpResponse<String> respuesta = http.send(peticion, HttpResponse.BodyHandlers.ofString());
+                        registro.registrar(operacion, cliente.clasificar(operacion, respuesta), envio, System.nanoTime());
+                    } catch (IOException e) {
+                        registro.registrar(operacion, Resultado.ERROR, envio, System.nanoTime());
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    if (!configuracion.pausa().isZero()) {
+                        LockSupport.parkNanos(configuracion.pausa().toNanos());
+                    }
+                }
+            });
+        }
+
+        usuarios.shutdown();
+        usuarios.awaitTermination(fin - System.nanoTime() + configuracion.tiempoEspera().toNanos() * 2, TimeUnit.NANOSECONDS);
+        usuarios.shutdownNow();
+    }
+
+    private void cargaAbierta(RegistroResultados registro, long fin) throws InterruptedException {
+        SplittableRandom aleatorio = new SplittableRandom(configuracion.semilla());
+        Semaphore pendientes = new Semaphore(configuracion.maximoPendientes());
+        double intervalo = 1e9 / configuracion.tasa();
+        long programada = System.nanoTime();
+
+        while (programada < fin) {
+            esperarHasta(programada);
+
+            Operacion operacion = elegirOperacion(aleatorio);
+            HttpRequest peticion = peticion(operacion, aleatorio);
+            long envio = programada;
+
+            if (pendientes.tryAcquire()) {
+                http.sendAsync(peticion, HttpResponse.BodyHandlers.ofString())
+                        .whenComplete((respuesta, error) -> {
+                            pendientes.release();
+                            Resultado resultado = error == null ? cliente.clasificar(operacion, respuesta) : Resultado.ERROR;
+                            registro.registrar(operacion, resultado, envio, System.nanoTime());
+                        });
+            } else {
+                registro.descartar(operacion, envio);
+            }
+
+            programada += configuracion.llegadas() == ConfiguracionCarga.Llegadas.POISSON
+                    ? (long) (-Math.log(1 - aleatorio.nextDouble()) * intervalo)
+                    : (long) intervalo;
+        }
+
+        // Espera a que terminen las peticiones en curso antes de reportar
+        pendientes.tryAcquire(configuracion.maximoPendientes(), configuracion.tiempoEspera().toNanos() * 2, TimeUnit.NANOSECONDS);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private Operacion elegirOperacion(SplittableRandom aleatorio) {
+        int valor = aleatorio.nextInt(pesosAcumulados[pesosAcumulados.length - 1]);
+        for (int i = 0; i < pesosAcumulados.length; i++) {
+            if (valor < pesosAcumulados[i]) {
+                return operaciones[i];
+            }
+        }
+        return operaciones[operaciones.length - 1];
+    }
+
+    /** Las reservas eligen un horario al azar de la agenda: a medida que se llena, aumentan los conflictos. */
+    private HttpRequest peticion(Operacion operacion, SplittableRandom aleatorio) {
+        String idMedico = medicos.get(aleatorio.nextInt(medicos.size()));
+        String idPaciente = pacientes.get(aleatorio.nextInt(pacientes.size()));
+
+        return switch (operacion) {
+            case AGENDAR -> {
+                LocalDate fecha = primerDia.plusDays(aleatorio.nextInt(configuracion.diasAgenda()));
+                LocalTime horaInicio = INICIO_JORNADA.plusMinutes((long) aleatorio.nextInt(HORARIOS_POR_DIA) * MINUTOS_POR_HORARIO);
+                yield cliente.agendar(idPaciente, idMedico, fecha, horaInicio, horaInicio.plusMinutes(MINUTOS_POR_HORARIO));
+            }
+            case DISPONIBLES -> cliente.horariosDisponibles(idMedico);
+            case HISTORIAL -> cliente.historial(idPaciente);
+        };
+    }
+
+    private static void esperarHasta(long instante) {
+        long faltante;
+        while ((faltante = instante - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(faltante);
+        }
+    }
+
+    private void guardar(Map<String, Object> operacionesResumen) throws IOException {
+        if (configuracion.salida() == null) {
+            return;
+        }
+
+        Map<String, Object> resultado = new LinkedHashMap<>();
+        resultado.put("etiqueta", configuracion.etiqueta());
+        resultado.put("url", configuracion.url().toString());
+        resultado.put("modelo", configuracion.modelo().name());
+        resultado.put("usuarios", configuracion.modelo() == ConfiguracionCarga.Modelo.CERRADO ? configuracion.usuarios() : null);
+        resultado.put("tasa", configuracion.modelo() == ConfiguracionCarga.Modelo.ABIERTO ? configuracion.tasa() : null);
+        resultado.put("duracionSegundos", configuracion.duracion().toSeconds());
+        resultado.put("mezcla", configuracion.mezcla());
+        resultado.put("lecturas", configuracion.lecturas().name());
+        resultado.put("operaciones", operacionesResumen);
+
+        Files.createDirectories(configuracion.salida().toAbsolutePath().getParent());
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(configuracion.salida().toFile(), resultado);
+        System.out.println("Resultados guardados en " + configuracion.salida());
+    }
+}
@@ -0,0 +1,135 @@
+package VitalApp.carga;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencias (HdrHistogram, en microsegundos) y desenlaces por operación. Las peticiones que empiezan
+ * antes de {@code inicioMedicion} son calentamiento y no se registran.
+ */
+public class RegistroResultados {
+
+    private final long inicioMedicion;
+    private final Map<Operacion, Metricas> porOperacion = new EnumMap<>(Operacion.class);
+
+    public RegistroResultados(long inicioMedicion) {
+        this.inicioMedicion = inicioMedicion;
+        for (Operacion operacion : Operacion.values()) {
+            porOperacion.put(operacion, new Metricas());
+        }
+    }
+
+    /** Registra una respuesta; {@code inicio} es el instante previsto de envío, no el real (ver PruebaCarga). */
+    public void registrar(Operacion operacion, Resultado resultado, long inicio, long fin) {
+        if (inicio < inicioMedicion) {
+            return;
+        }
+        Metricas metricas = porOperacion.get(operacion);
+        metricas.latencias.recordValue(Math.max(0, TimeUnit.NANOSECONDS.toMicros(fin - inicio)));
+        metricas.resultados.get(resultado).increment();
+    }
+
+    /** Petición que el modelo abierto no llegó a enviar porque ya había demasiadas en curso. */
+    public void descartar(Operacion operacion, long inicio) {
+        if (inicio >= inicioMedicion) {
+            porOperacion.get(operacion).descartadas.increment();
+        }
+    }
+
+    public String reporte(double segundos) {
+        StringBuilder texto = new StringBuilder(String.format("%-12s %10s %8s %9s %8s %10s %8s %8s %8s %8s %8s %9s%n",
+                "operación", "peticiones", "éxito", "conflicto", "error", "descartada",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "máx ms", "req/s"));
+
+        Metricas total = new Metricas();
+        porOperacion.forEach((operacion, metricas) -> {
+            fila(texto, operacion.name(), metricas, segundos);
+            total.acumular(metricas);
+        });
+        fila(texto, "TOTAL", total, segundos);
+        return texto.toString();
+    }
+
+    public Map<String, Object> resumen(double segundos) {
+        Map<String, Object> resumen = new LinkedHashMap<>();
+        Metricas total = new Metricas();
+        porOperacion.forEach((operacion, metricas) -> {
+            resumen.put(operacion.name(), metricas.resumen(segundos));
+            total.acumular(metricas);
+        });
+        resumen.put("TOTAL", total.resumen(segundos));
+        return resumen;
+    }
+
+    private static void fila(StringBuilder texto, String nombre, Metricas metricas, double segundos) {
+        Histogram latencias = metricas.latencias;
+        texto.append(String.format("%-12s %10d %8d %9d %8d %10d %8.2f %8.2f %8.2f %8.2f %8.2f %9.1f%n",
+                nombre,
+                latencias.getTotalCount(),
+                metricas.contar(Resultado.EXITO),
+                metricas.contar(Resultado.CONFLICTO),
+                metricas.contar(Resultado.ERROR),
+                metricas.descartadas.sum(),
+                milisegundos(latencias.getValueAtPercentile(50)),
+                milisegundos(latencias.getValueAtPercentile(90)),
+                milisegundos(latencias.getValueAtPercentile(99)),
+                milisegundos(latencias.getValueAtPercentile(99.9)),
+                milisegundos(latencias.getMaxValue()),
+                latencias.getTotalCount() / segundos));
+    }
+
+    private static double milisegundos(long microsegundos) {
+        return microsegundos / 1000.0;
+    }
+
+    private static final class Metricas {
+
+        private final Histogram latencias = new ConcurrentHistogram(3);
+        private final Map<Resultado, LongAdder> resultados = new EnumMap<>(Resultado.class);
+        private final LongAdder descartadas = new LongAdder();
+
+        private Metricas() {
+            for (Resultado resultado : Resultado.values()) {
+                resultados.put(resultado, new LongAdder());
+            }
+        }
+
+        long contar(Resultado resultado) {
+            return resultados.get(resultado).sum();
+        }
+
+        void acumular(Metricas otra) {
+            latencias.add(otra.latencias);
+            otra.resultados.forEach((resultado, cuenta) -> resultados.get(resultado).add(cuenta.sum()));
+            descartadas.add(otra.descartadas.sum());
+        }
+
+        Map<String, Object> resumen(double segundos) {
+            long peticiones = latencias.getTotalCount();
+            Map<String, Object> resumen = new LinkedHashMap<>();
+            resumen.put("peticiones", peticiones);
+            resumen.put("exitos", contar(Resultado.EXITO));
+            resumen.put("conflictos", contar(Resultado.CONFLICTO));
+            resumen.put("errores", contar(Resultado.ERROR));
+            resumen.put("descartadas", descartadas.sum());
+            resumen.put("tasaConflictos", peticiones == 0 ? 0.0 : (double) contar(Resultado.CONFLICTO) / peticiones);
+            resumen.put("tasaErrores", peticiones == 0 ? 0.0 : (double) contar(Resultado.ERROR) / peticiones);
+            resumen.put("peticionesPorSegundo", peticiones / segundos);
+
+            Map<String, Double> percentiles = new LinkedHashMap<>();
+            for (double percentil : new double[]{50, 90, 99, 99.9}) {
+                percentiles.put("p" + (percentil % 1 == 0 ? String.valueOf((int) percentil) : String.valueOf(percentil)),
+                        milisegundos(latencias.getValueAtPercentile(percentil)));
+            }
+            percentiles.put("max", milisegundos(latencias.getMaxValue()));
+            resumen.put("latenciaMs", percentiles);
+            return resumen;
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package VitalApp.carga;
+
+/** Cómo terminó una petición: los conflictos de reserva son respuestas de negocio esperadas, no errores. */
+public enum Resultado {
+    EXITO,
+    CONFLICTO,
+    ERROR
+}
@@ -0,0 +1,109 @@
+package VitalApp.benchmark;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.Horario;
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.FiltroCitas;
+import VitalApp.repository.HorarioRepository;
+import VitalApp.repository.MedicoRepository;
+import VitalApp.repository.PosicionCita;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+/**
+ * Sustitutos en memoria de los repositorios y servicios para los benchmarks: responden solo los métodos
+ * que recorren los caminos medidos, con datos ya cargados, y fallan en cualquier otro método.
+ */
+final class RepositoriosEnMemoria {
+
+    private static final Comparator<CitaMedica> RECIENTES_PRIMERO = Comparator
+            .comparing((CitaMedica c) -> c.getHorario().getFecha())
+            .thenComparing(c -> c.getHorario().getHoraInicio())
+            .thenComparing(CitaMedica::getId)
+            .reversed();
+
+    private RepositoriosEnMemoria() {
+    }
+
+    static CitaMedicaRepository citas(List<CitaMedica> citas) {
+        List<CitaMedica> recientes = citas.stream().sorted(RECIENTES_PRIMERO).toList();
+
+        return sustituto(CitaMedicaRepository.class, (metodo, args) -> switch (metodo) {
+            case "buscarCitas" -> {
+                FiltroCitas filtro = (FiltroCitas) args[0];
+                yield citas.stream().filter(coincide(filtro)).toList();
+            }
+            case "buscarPaginaRecientes" -> {
+                PosicionCita despuesDe = (PosicionCita) args[1];
+                int limite = (int) args[2];
+                yield recientes.stream()
+                        .filter(c -> despuesDe == null || RECIENTES_PRIMERO.compare(c, posicion(despuesDe)) > 0)
+                        .limit(limite)
+                        .toList();
+            }
+            default -> null;
+        });
+    }
+
+    static HorarioRepository horarios(List<Horario> horarios) {
+        return sustituto(HorarioRepository.class, (metodo, args) -> switch (metodo) {
+            case "findByIdMedicoAndReservadoFalseAndFechaGreaterThanEqualOrderByFechaAscHoraInicioAsc" -> {
+                LocalDate desde = (LocalDate) args[1];
+                yield horarios.stream()
+                        .filter(h -> !h.isReservado() && !h.getFecha().isBefore(desde))
+                        .toList();
+            }
+            default -> null;
+        });
+    }
+
+    static MedicoRepository medicos() {
+        return sustituto(MedicoRepository.class, (metodo, args) -> switch (metodo) {
+            case "existsById" -> true;
+            case "findById" -> Optional.empty();
+            default -> null;
+        });
+    }
+
+    /** Sustituto de una dependencia que el camino medido no usa: cualquier llamada falla. */
+    static <T> T sinUso(Class<T> tipo) {
+        return sustituto(tipo, (metodo, args) -> null);
+    }
+
+    private static Predicate<CitaMedica> coincide(FiltroCitas filtro) {
+        return c -> (filtro.estado() == null || c.getEstado() == filtro.estado())
+                && (filtro.idMedico() == null || filtro.idMedico().equals(c.getIdMedico()))
+                && (filtro.idCliente() == null || filtro.idCliente().equals(c.getIdCliente()))
+                && (filtro.desde() == null || !c.getHorario().getFecha().isBefore(filtro.desde()))
+                && (filtro.hasta() == null || !c.getHorario().getFecha().isAfter(filtro.hasta()));
+    }
+
+    private static CitaMedica posicion(PosicionCita posicion) {
+        CitaMedica cita = new CitaMedica();
+        cita.setId(posicion.id());
+        cita.setHorario(new HorarioMedico(posicion.fecha(), posicion.horaInicio(), null, true));
+        return cita;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T sustituto(Class<T> tipo, Respuesta respuesta) {
+        return (T) Proxy.newProxyInstance(tipo.getClassLoader(), new Class<?>[]{tipo}, (proxy, metodo, args) -> {
+            Object resultado = respuesta.responder(metodo.getName(), args);
+            if (resultado == null) {
+                throw new UnsupportedOperationException(tipo.getSimpleName() + "." + metodo.getName());
+            }
+            return resultado;
+        });
+    }
+
+    @FunctionalInterface
+    private interface Respuesta {
+        Object responder(String metodo, Object[] args);
+    }
+}
@@ -0,0 +1,121 @@
+package VitalApp.benchmark;
+
+import VitalApp.dto.Autentication.MensajeDTO;
+import VitalApp.dto.Autentication.PaginaDTO;
+import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
+import VitalApp.dto.medico.ItemHorarioDTO;
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.Horario;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.model.vo.ResultadoMedico;
+import VitalApp.repository.HorarioRepository;
+import VitalApp.service.implement.CitaMedicaServiceImpl;
+import VitalApp.service.implement.MedicoServiceImpl;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.bson.types.ObjectId;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Caminos de lectura de CitaMedicaServiceImpl y MedicoServiceImpl sobre repositorios en memoria:
+ * conversión a DTO, paginación de citas, horarios disponibles y serialización JSON de la respuesta.
+ * Aísla el trabajo que hace la JVM; el coste de Mongo queda fuera.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ServiciosBenchmark {
+
+    @Param({"100", "10000"})
+    public int cantidad;
+
+    private CitaMedicaServiceImpl citaService;
+    private MedicoServiceImpl medicoService;
+    private ObjectWriter escritor;
+    private String idMedico;
+    private MensajeDTO<List<ItemCitaMedicaDTO>> respuestaCitas;
+
+    @Setup
+    public void preparar() {
+        Random random = new Random(42);
+        ObjectId medico = new ObjectId();
+        idMedico = medico.toHexString();
+        LocalDate hoy = LocalDate.now();
+        EstadoCita[] estados = EstadoCita.values();
+
+        List<CitaMedica> citas = new ArrayList<>(cantidad);
+        List<Horario> horarios = new ArrayList<>(cantidad);
+        for (int i = 0; i < cantidad; i++) {
+            LocalDate fecha = hoy.plusDays(random.nextInt(120) - 60);
+            LocalTime inicio = LocalTime.of(7 + random.nextInt(11), 20 * random.nextInt(3));
+            EstadoCita estado = estados[random.nextInt(estados.length)];
+
+            citas.add(CitaMedica.builder()
+                    .id(new ObjectId().toHexString())
+                    .idCliente(new ObjectId())
+                    .idMedico(medico)
+                    .horario(new HorarioMedico(fecha, inicio, inicio.plusMinutes(20), true))
+                    .estado(estado)
+                    .resultado(estado == EstadoCita.VISTA
+                            ? ResultadoMedico.builder()
+                                    .descripcion("Control de rutina")
+                                    .diagnostico("Sin hallazgos")
+                                    .recomendaciones("Seguimiento en seis meses")
+                                    .fechaRegistro(LocalDateTime.now())
+                                    .build()
+                            : null)
+                    .build());
+            horarios.add(Horario.builder()
+                    .id(new ObjectId().toHexString())
+                    .idMedico(medico)
+                    .fecha(fecha)
+                    .horaInicio(inicio)
+                    .horaFin(inicio.plusMinutes(20))
+                    .reservado(random.nextBoolean())
+                    .build());
+        }
+
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        escritor = objectMapper.writer();
+
+        HorarioRepository horarioRepo = RepositoriosEnMemoria.horarios(horarios);
+        citaService = ServiciosEnMemoria.citas(citas, horarioRepo, objectMapper);
+        medicoService = ServiciosEnMemoria.medicos(horarioRepo);
+
+        respuestaCitas = new MensajeDTO<>(false, citaService.listarCitasPorMedico(idMedico, null, null, null));
+    }
+
+    @Benchmark
+    public List<ItemCitaMedicaDTO> listarCitasPorMedico() {
+        // Dominado por convertToItemDTO sobre todas las citas del médico
+        return citaService.listarCitasPorMedico(idMedico, null, null, null);
+    }
+
+    @Benchmark
+    public PaginaDTO<ItemCitaMedicaDTO> listarTodasLasCitasPrimeraPagina() {
+        return citaService.listarTodasLasCitas(null, null, 50);
+    }
+
+    @Benchmark
+    public List<ItemHorarioDTO> listarHorariosDisponibles() {
+        return medicoService.listarHorariosDisponibles(idMedico);
+    }
+
+    @Benchmark
+    public byte[] serializarMensajeCitas() throws Exception {
+        return escritor.writeValueAsBytes(respuestaCitas);
+    }
+}
@@ -0,0 +1,46 @@
+package VitalApp.benchmark;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.HorarioRepository;
+import VitalApp.service.implement.CitaMedicaServiceImpl;
+import VitalApp.service.implement.IndiceHorarios;
+import VitalApp.service.implement.MedicoServiceImpl;
+import VitalApp.service.implement.MetricasCitas;
+import VitalApp.service.service.ContadorCitasService;
+import VitalApp.service.service.PacienteService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Servicios armados sobre RepositoriosEnMemoria para los benchmarks. Las dependencias que los caminos
+ * medidos no tocan son sustitutos que fallan si se llaman, así que un cambio en lo que usan esos caminos
+ * se nota al ejecutar el benchmark en lugar de medir otra cosa.
+ */
+final class ServiciosEnMemoria {
+
+    private ServiciosEnMemoria() {
+    }
+
+    static CitaMedicaServiceImpl citas(List<CitaMedica> citas, HorarioRepository horarioRepo, ObjectMapper objectMapper) {
+        return new CitaMedicaServiceImpl(
+                RepositoriosEnMemoria.citas(citas),
+                RepositoriosEnMemoria.medicos(),
+                RepositoriosEnMemoria.sinUso(PacienteService.class),
+                horarioRepo,
+                RepositoriosEnMemoria.sinUso(ContadorCitasService.class),
+                objectMapper,
+                new MetricasCitas(new SimpleMeterRegistry()));
+    }
+
+    static MedicoServiceImpl medicos(HorarioRepository horarioRepo) {
+        return new MedicoServiceImpl(
+                RepositoriosEnMemoria.medicos(),
+                RepositoriosEnMemoria.sinUso(CitaMedicaRepository.class),
+                horarioRepo,
+                new IndiceHorarios(horarioRepo, 1_000, Duration.ofMinutes(10)));
+    }
+}
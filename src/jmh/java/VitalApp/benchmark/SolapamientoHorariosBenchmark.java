@@ -0,0 +1,86 @@
+package VitalApp.benchmark;
+
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.utils.IndiceIntervalos;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validación de solapamiento al agregar un horario: recorrido de los horarios del día (lo que hacía
+ * validarSolapamientoHorarios sobre el resultado de findByIdMedicoAndFecha antes del índice) frente al
+ * IndiceIntervalos del día. El parámetro es el tamaño de ese único día, que es lo que recorre cada consulta;
+ * para que quepan 100 000 horarios en 24 horas se reparten en pasos de nanosegundos, cada uno ocupado en su
+ * primera mitad. Solo mide el trabajo en la JVM: la consulta del día a Mongo, que el índice ya no hace, queda
+ * fuera. La mitad de las consultas se solapan.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolapamientoHorariosBenchmark {
+
+    private static final long NANOS_POR_DIA = 86_400_000_000_000L;
+    private static final int CONSULTAS = 1024;
+
+    @Param({"100", "10000", "100000"})
+    public int horariosPorDia;
+
+    private List<HorarioMedico> horariosDelDia;
+    private IndiceIntervalos indiceDelDia;
+    private HorarioMedico[] consultas;
+    private int siguiente;
+
+    @Setup
+    public void preparar() {
+        LocalDate fecha = LocalDate.of(2030, 1, 1);
+        long paso = NANOS_POR_DIA / horariosPorDia;
+        horariosDelDia = new ArrayList<>(horariosPorDia);
+        indiceDelDia = new IndiceIntervalos();
+
+        for (int i = 0; i < horariosPorDia; i++) {
+            LocalTime inicio = LocalTime.ofNanoOfDay(i * paso);
+            LocalTime fin = inicio.plusNanos(paso / 2);
+            horariosDelDia.add(new HorarioMedico(fecha, inicio, fin, false));
+            indiceDelDia.agregar(inicio, fin);
+        }
+
+        Random random = new Random(42);
+        consultas = new HorarioMedico[CONSULTAS];
+        for (int i = 0; i < CONSULTAS; i++) {
+            // Pares: pisan un horario existente; impares: caen en la mitad libre del paso
+            long base = random.nextInt(horariosPorDia) * paso;
+            LocalTime inicio = LocalTime.ofNanoOfDay(base + (i % 2 == 0 ? paso / 4 : paso * 5 / 8));
+            consultas[i] = new HorarioMedico(fecha, inicio, inicio.plusNanos(paso / 8), false);
+        }
+    }
+
+    @Benchmark
+    public boolean recorridoDelDia() {
+        HorarioMedico nuevo = siguienteConsulta();
+        return horariosDelDia.stream().anyMatch(h -> horariosSeSolapan(h, nuevo));
+    }
+
+    @Benchmark
+    public boolean indiceDelDia() {
+        HorarioMedico nuevo = siguienteConsulta();
+        return indiceDelDia.seSolapa(nuevo.getHoraInicio(), nuevo.getHoraFin());
+    }
+
+    private HorarioMedico siguienteConsulta() {
+        return consultas[siguiente++ & (CONSULTAS - 1)];
+    }
+
+    // Misma regla que IndiceIntervalos.seSolapa: intervalos semiabiertos [inicio, fin)
+    private static boolean horariosSeSolapan(HorarioMedico h1, HorarioMedico h2) {
+        return h1.getHoraInicio().isBefore(h2.getHoraFin())
+                && h2.getHoraInicio().isBefore(h1.getHoraFin());
+    }
+}
@@ -0,0 +1,19 @@
+package VitalApp.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caché local (Caffeine) de los datos de referencia que cambian poco: médicos, pacientes y
+ * especialidades. Tamaño, TTL y estadísticas se configuran en spring.cache.caffeine.spec.
+ * Los horarios y las citas nunca se guardan en caché: las reservas siempre consultan Mongo.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String MEDICOS = "medicos";
+    public static final String LISTA_MEDICOS = "listaMedicos";
+    public static final String ESPECIALIDADES = "especialidades";
+    public static final String PACIENTES = "pacientes";
+}
@@ -0,0 +1,459 @@
+package VitalApp.config;
+
+import VitalApp.dto.citaMedica.ReconciliacionContadoresDTO;
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.documents.Horario;
+import VitalApp.model.documents.Medico;
+import VitalApp.model.documents.Paciente;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.model.vo.ResultadoMedico;
+import VitalApp.service.service.ContadorCitasService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Genera un conjunto de datos sintético y reproducible para pruebas de rendimiento: pacientes,
+ * médicos con su historial de horarios y citas con una mezcla de estados configurable.
+ * Se ejecuta con el perfil {@code dataset} (ver application-dataset.properties):
+ * <pre>gradle bootRun --args='--spring.profiles.active=dataset --vitalapp.dataset.citas=1000000'</pre>
+ *
+ * Cada lote se genera con su propio {@code SplittableRandom} derivado de la semilla y del número de
+ * lote, y los ids se calculan a partir de la posición del documento, así que el resultado es el mismo
+ * sin importar cuántos hilos se usen ni en qué orden terminen. Los lotes se insertan con bulk
+ * no ordenado en paralelo.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("dataset")
+@Order(Integer.MAX_VALUE)
+public class GeneradorDataset implements ApplicationRunner {
+
+    private static final LocalTime INICIO_JORNADA = LocalTime.of(7, 0);
+    private static final int MINUTOS_POR_HORARIO = 30;
+    private static final int HORARIOS_POR_DIA = 24;
+
+    private static final byte TIPO_PACIENTE = 1;
+    private static final byte TIPO_MEDICO = 2;
+    private static final byte TIPO_CITA = 3;
+    private static final byte TIPO_HORARIO = 4;
+
+    private static final String[] NOMBRES = {
+            "María", "Carlos", "Ana", "Javier", "Laura", "Andrés", "Camila", "Felipe", "Valentina", "Santiago",
+            "Daniela", "Mateo", "Isabella", "Sebastián", "Juliana", "Alejandro", "Sofía", "Nicolás", "Paula", "Diego"
+    };
+    private static final String[] APELLIDOS = {
+            "González", "Rodríguez", "Gómez", "López", "Martínez", "Díaz", "Pérez", "Sánchez", "Ramírez", "Torres",
+            "Ruiz", "Mendoza", "Jiménez", "Castro", "Vargas", "Rojas", "Moreno", "Ortiz", "Herrera", "Méndez"
+    };
+    private static final String[] ESPECIALIDADES = {
+            "Medicina General", "Cardiología", "Pediatría", "Dermatología", "Ginecología",
+            "Neurología", "Ortopedia", "Oftalmología", "Psiquiatría", "Endocrinología"
+    };
+    private static final String[] DIAGNOSTICOS = {
+            "Hipertensión arterial controlada", "Infección respiratoria aguda", "Dermatitis de contacto",
+            "Migraña sin aura", "Lumbalgia mecánica", "Control de niño sano", "Diabetes mellitus tipo 2",
+            "Gastritis crónica", "Ansiedad generalizada", "Esguince de tobillo grado I"
+    };
+    private static final String[] PALABRAS = {
+            "paciente", "refiere", "dolor", "desde", "hace", "días", "sin", "fiebre", "con", "antecedentes",
+            "de", "tratamiento", "previo", "examen", "físico", "normal", "se", "indica", "control", "en",
+            "semanas", "presión", "arterial", "estable", "evolución", "favorable", "reposo", "hidratación",
+            "medicamento", "cada", "horas", "valoración", "por", "especialista", "laboratorio", "resultados"
+    };
+
+    private final MongoTemplate mongoTemplate;
+    private final ContadorCitasService contadorService;
+
+    @Value("${vitalapp.dataset.semilla:42}")
+    private long semilla;
+
+    @Value("${vitalapp.dataset.pacientes:100000}")
+    private int pacientes;
+
+    @Value("${vitalapp.dataset.medicos:500}")
+    private int medicos;
+
+    @Value("${vitalapp.dataset.citas:1000000}")
+    private int citas;
+
+    @Value("${vitalapp.dataset.fecha-inicio:2025-01-01}")
+    private LocalDate fechaInicio;
+
+    @Value("${vitalapp.dataset.dias:365}")
+    private int dias;
+
+    @Value("${vitalapp.dataset.horarios-libres:0.25}")
+    private double proporcionLibres;
+
+    @Value("${vitalapp.dataset.mezcla-estados:PENDIENTE:40,VISTA:45,CANCELADA:12,ERROR:3}")
+    private String mezclaEstados;
+
+    @Value("${vitalapp.dataset.resultado.tamano-minimo:200}")
+    private int tamanoMinimoResultado;
+
+    @Value("${vitalapp.dataset.resultado.tamano-maximo:4000}")
+    private int tamanoMaximoResultado;
+
+    @Value("${vitalapp.dataset.hilos:4}")
+    private int hilos;
+
+    @Value("${vitalapp.dataset.tamano-lote:5000}")
+    private int tamanoLote;
+
+    @Value("${vitalapp.dataset.limpiar:false}")
+    private boolean limpiar;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        validarParametros();
+        MezclaEstados mezcla = MezclaEstados.de(mezclaEstados);
+        DistribucionHorarios distribucion = new DistribucionHorarios();
+
+        prepararColecciones();
+
+        long inicio = System.nanoTime();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        try {
+            insertar(ejecutor, "pacientes", pacientes, TIPO_PACIENTE, this::lotePacientes);
+            insertar(ejecutor, "médicos", medicos, TIPO_MEDICO, this::loteMedicos);
+            insertar(ejecutor, "citas", citas, TIPO_CITA,
+                    (aleatorio, desde, hasta) -> loteCitas(aleatorio, desde, hasta, mezcla, distribucion));
+            insertar(ejecutor, "horarios libres", distribucion.totalLibres(), TIPO_HORARIO,
+                    (aleatorio, desde, hasta) -> loteHorariosLibres(desde, hasta, distribucion));
+        } finally {
+            ejecutor.shutdownNow();
+        }
+
+        ReconciliacionContadoresDTO contadores = contadorService.reconciliarContadores();
+        log.info("Dataset generado en {} s (semilla {}): {} pacientes, {} médicos, {} citas, {} contadores",
+                (System.nanoTime() - inicio) / 1_000_000_000, semilla, pacientes, medicos, citas,
+                contadores.contadoresRevisados());
+    }
+
+    // ==================== GENERACIÓN POR LOTES ====================
+
+    private List<Object> lotePacientes(SplittableRandom aleatorio, int desde, int hasta) {
+        List<Object> lote = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            lote.add(Paciente.builder()
+                    .id(idDe(TIPO_PACIENTE, i).toHexString())
+                    .nombre(nombreCompleto(aleatorio, i))
+                    .build());
+        }
+        return lote;
+    }
+
+    private List<Object> loteMedicos(SplittableRandom aleatorio, int desde, int hasta) {
+        List<Object> lote = new ArrayList<>(hasta - desde);
+        for (int i = desde; i < hasta; i++) {
+            String titulo = aleatorio.nextBoolean() ? "Dr. " : "Dra. ";
+            lote.add(Medico.builder()
+                    .id(idDe(TIPO_MEDICO, i).toHexString())
+                    .nombre(titulo + nombreCompleto(aleatorio, i))
+                    .especialidad(ESPECIALIDADES[aleatorio.nextInt(ESPECIALIDADES.length)])
+                    .build());
+        }
+        return lote;
+    }
+
+    /** Cada cita se inserta junto con el horario que ocupa; las canceladas dejan el horario libre. */
+    private List<Object> loteCitas(SplittableRandom aleatorio, int desde, int hasta,
+                                   MezclaEstados mezcla, DistribucionHorarios distribucion) {
+        List<Object> lote = new ArrayList<>(2 * (hasta - desde));
+        for (int i = desde; i < hasta; i++) {
+            int medico = i % medicos;
+            int posicion = distribucion.posicion(medico, i / medicos);
+            EstadoCita estado = mezcla.elegir(aleatorio);
+            HorarioMedico horario = horarioEn(posicion, estado == EstadoCita.PENDIENTE || estado == EstadoCita.VISTA);
+
+            ObjectId idMedico = idDe(TIPO_MEDICO, medico);
+            String idCita = idDe(TIPO_CITA, i).toHexString();
+
+            lote.add(CitaMedica.builder()
+                    .id(idCita)
+                    .idCliente(idDe(TIPO_PACIENTE, aleatorio.nextInt(pacientes)))
+                    .idMedico(idMedico)
+                    .horario(horario)
+                    .estado(estado)
+                    .resultado(estado == EstadoCita.VISTA ? resultado(aleatorio, idCita, horario) : null)
+                    .build());
+            lote.add(horarioDe(idDe(TIPO_HORARIO, i), idMedico, horario));
+        }
+        return lote;
+    }
+
+    private List<Object> loteHorariosLibres(int desde, int hasta, DistribucionHorarios distribucion) {
+        List<Object> lote = new ArrayList<>(hasta - desde);
+        for (int j = desde; j < hasta; j++) {
+            int medico = j % medicos;
+            int posicion = distribucion.posicion(medico, distribucion.citasPorMedico() + j / medicos);
+            lote.add(horarioDe(idDe(TIPO_HORARIO, citas + j), idDe(TIPO_MEDICO, medico), horarioEn(posicion, false)));
+        }
+        return lote;
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void insertar(ExecutorService ejecutor, String descripcion, int total, byte tipo,
+                          GeneradorLote generador) throws Exception {
+        AtomicLong insertados = new AtomicLong();
+        long avance = Math.max(tamanoLote, total / 10);
+        List<Callable<Void>> tareas = new ArrayList<>();
+
+        for (int desde = 0, numero = 0; desde < total; desde += tamanoLote, numero++) {
+            int inicio = desde;
+            int fin = Math.min(total, desde + tamanoLote);
+            SplittableRandom aleatorio = new SplittableRandom(semilla ^ ((long) tipo << 56) ^ (numero * 0x9E3779B97F4A7C15L));
+
+            tareas.add(() -> {
+                insertarPorColeccion(generador.generar(aleatorio, inicio, fin));
+
+                long acumulado = insertados.addAndGet(fin - inicio);
+                if (acumulado / avance != (acumulado - (fin - inicio)) / avance) {
+                    log.info("Dataset: {} {}/{}", descripcion, acumulado, total);
+                }
+                return null;
+            });
+        }
+
+        for (Future<Void> resultado : ejecutor.invokeAll(tareas)) {
+            resultado.get();
+        }
+    }
+
+    /** Los lotes de citas mezclan citas y horarios: se agrupan por clase para enviar un bulk por colección. */
+    private void insertarPorColeccion(List<Object> lote) {
+        Map<Class<?>, List<Object>> porClase = new LinkedHashMap<>();
+        for (Object documento : lote) {
+            porClase.computeIfAbsent(documento.getClass(), clase -> new ArrayList<>()).add(documento);
+        }
+        porClase.forEach((clase, documentos) -> mongoTemplate
+                .bulkOps(BulkOperations.BulkMode.UNORDERED, clase)
+                .insert(documentos)
+                .execute());
+    }
+
+    private void prepararColecciones() {
+        List<Class<?>> colecciones = List.of(CitaMedica.class, Horario.class, Medico.class, Paciente.class, ContadorCitas.class);
+
+        if (limpiar) {
+            // remove en lugar de drop: así se conservan los índices que crea VerificadorIndices al arrancar
+            colecciones.forEach(clase -> mongoTemplate.remove(new Query(), clase));
+            return;
+        }
+
+        for (Class<?> clase : colecciones) {
+            if (mongoTemplate.estimatedCount(clase) > 0) {
+                throw new IllegalStateException("La colección " + mongoTemplate.getCollectionName(clase)
+                        + " no está vacía; use vitalapp.dataset.limpiar=true para regenerar el dataset");
+            }
+        }
+    }
+
+    private void validarParametros() {
+        if (pacientes <= 0 || medicos <= 0 || citas < 0) {
+            throw new IllegalArgumentException("Las cantidades de pacientes y médicos deben ser positivas y las citas no negativas");
+        }
+        if (dias <= 0 || hilos <= 0 || tamanoLote <= 0) {
+            throw new IllegalArgumentException("Los días, los hilos y el tamaño de lote deben ser positivos");
+        }
+        if (proporcionLibres < 0) {
+            throw new IllegalArgumentException("La proporción de horarios libres no puede ser negativa");
+        }
+        if (tamanoMinimoResultado < 0 || tamanoMaximoResultado < tamanoMinimoResultado) {
+            throw new IllegalArgumentException("El rango de tamaño del resultado médico no es válido");
+        }
+    }
+
+    /**
+     * Id determinista: el timestamp fijo de la fecha de inicio, un byte con el tipo de documento y la
+     * posición en los 7 bytes restantes. Los ids quedan ordenados en el mismo orden de generación.
+     */
+    private ObjectId idDe(byte tipo, long posicion) {
+        ByteBuffer bytes = ByteBuffer.allocate(12);
+        bytes.putInt((int) fechaInicio.atStartOfDay().toEpochSecond(ZoneOffset.UTC));
+        bytes.put(tipo);
+        for (int desplazamiento = 48; desplazamiento >= 0; desplazamiento -= 8) {
+            bytes.put((byte) (posicion >>> desplazamiento));
+        }
+        return new ObjectId(bytes.array());
+    }
+
+    private HorarioMedico horarioEn(int posicion, boolean reservado) {
+        LocalTime horaInicio = INICIO_JORNADA.plusMinutes((long) (posicion % HORARIOS_POR_DIA) * MINUTOS_POR_HORARIO);
+        return new HorarioMedico(
+                fechaInicio.plusDays(posicion / HORARIOS_POR_DIA),
+                horaInicio,
+                horaInicio.plusMinutes(MINUTOS_POR_HORARIO),
+                reservado
+        );
+    }
+
+    private Horario horarioDe(ObjectId id, ObjectId idMedico, HorarioMedico horario) {
+        return Horario.builder()
+                .id(id.toHexString())
+                .idMedico(idMedico)
+                .fecha(horario.getFecha())
+                .horaInicio(horario.getHoraInicio())
+                .horaFin(horario.getHoraFin())
+                .reservado(horario.isReservado())
+                .build();
+    }
+
+    private ResultadoMedico resultado(SplittableRandom aleatorio, String idCita, HorarioMedico horario) {
+        int tamano = tamanoMinimoResultado == tamanoMaximoResultado
+                ? tamanoMinimoResultado
+                : aleatorio.nextInt(tamanoMinimoResultado, tamanoMaximoResultado + 1);
+
+        return ResultadoMedico.builder()
+                .idCitaMedica(idCita)
+                .descripcion(texto(aleatorio, tamano))
+                .diagnostico(DIAGNOSTICOS[aleatorio.nextInt(DIAGNOSTICOS.length)])
+                .recomendaciones(texto(aleatorio, Math.max(1, tamano / 4)))
+                .fechaRegistro(horario.getFecha().atTime(horario.getHoraFin()))
+                .build();
+    }
+
+    private String texto(SplittableRandom aleatorio, int tamano) {
+        StringBuilder texto = new StringBuilder(tamano + 16);
+        while (texto.length() < tamano) {
+            if (!texto.isEmpty()) {
+                texto.append(' ');
+            }
+            texto.append(PALABRAS[aleatorio.nextInt(PALABRAS.length)]);
+        }
+        texto.setLength(tamano);
+        return texto.toString();
+    }
+
+    /** Las 8000 combinaciones se repiten con muchos pacientes: la posición las hace únicas (índice nombreNormalizado). */
+    private String nombreCompleto(SplittableRandom aleatorio, int posicion) {
+        return NOMBRES[aleatorio.nextInt(NOMBRES.length)] + " "
+                + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)] + " "
+                + APELLIDOS[aleatorio.nextInt(APELLIDOS.length)] + " "
+                + (posicion + 1);
+    }
+
+    private static long mcd(long a, long b) {
+        return b == 0 ? a : mcd(b, a % b);
+    }
+
+    @FunctionalInterface
+    private interface GeneradorLote {
+        List<Object> generar(SplittableRandom aleatorio, int desde, int hasta);
+    }
+
+    /**
+     * Reparte las citas y los horarios libres de cada médico sobre su calendario sin repetir
+     * (médico, fecha, horaInicio): la k-ésima posición es {@code (k * paso + desfase) mod capacidad}
+     * con un paso coprimo con la capacidad, así que las citas quedan dispersas a lo largo de todo el
+     * rango de días en lugar de concentrarse en los primeros.
+     */
+    private final class DistribucionHorarios {
+
+        private final int capacidad = dias * HORARIOS_POR_DIA;
+        private final int citasPorMedico = (citas + medicos - 1) / medicos;
+        private final int libresPorMedico = (int) Math.round(citasPorMedico * proporcionLibres);
+        private final long paso;
+        private final int[] desfases = new int[medicos];
+
+        private DistribucionHorarios() {
+            if ((long) citasPorMedico + libresPorMedico > capacidad) {
+                throw new IllegalArgumentException("Cada médico necesita " + (citasPorMedico + libresPorMedico)
+                        + " horarios pero solo caben " + capacidad + " en " + dias + " días; aumente los días o los médicos");
+            }
+            long candidato = Math.max(1, (long) (capacidad * 0.618));
+            while (mcd(candidato, capacidad) != 1) {
+                candidato++;
+            }
+            this.paso = candidato;
+
+            SplittableRandom aleatorio = new SplittableRandom(semilla);
+            for (int medico = 0; medico < medicos; medico++) {
+                desfases[medico] = aleatorio.nextInt(capacidad);
+            }
+        }
+
+        int posicion(int medico, int k) {
+            return (int) ((k * paso + desfases[medico]) % capacidad);
+        }
+
+        int citasPorMedico() {
+            return citasPorMedico;
+        }
+
+        int totalLibres() {
+            return libresPorMedico * medicos;
+        }
+    }
+
+    /** Mezcla de estados con pesos, p. ej. {@code PENDIENTE:40,VISTA:45,CANCELADA:12,ERROR:3}. */
+    private record MezclaEstados(EstadoCita[] estados, int[] acumulados) {
+
+        static MezclaEstados de(String definicion) {
+            Map<EstadoCita, Integer> pesos = new EnumMap<>(EstadoCita.class);
+            for (String parte : definicion.split(",")) {
+                String[] clavePeso = parte.trim().split(":");
+                if (clavePeso.length != 2) {
+                    throw new IllegalArgumentException("Mezcla de estados inválida: " + definicion);
+                }
+                int peso = Integer.parseInt(clavePeso[1].trim());
+                if (peso < 0) {
+                    throw new IllegalArgumentException("Los pesos de la mezcla de estados no pueden ser negativos");
+                }
+                pesos.merge(EstadoCita.valueOf(clavePeso[0].trim().toUpperCase()), peso, Integer::sum);
+            }
+
+            EstadoCita[] estados = pesos.keySet().toArray(EstadoCita[]::new);
+            int[] acumulados = new int[estados.length];
+            int total = 0;
+            for (int i = 0; i < estados.length; i++) {
+                total += pesos.get(estados[i]);
+                acumulados[i] = total;
+            }
+            if (total == 0) {
+                throw new IllegalArgumentException("La mezcla de estados debe tener al menos un peso positivo");
+            }
+            return new MezclaEstados(estados, acumulados);
+        }
+
+        EstadoCita elegir(SplittableRandom aleatorio) {
+            int valor = aleatorio.nextInt(acumulados[acumulados.length - 1]);
+            for (int i = 0; i < acumulados.length; i++) {
+                if (valor < acumulados[i]) {
+                    return estados[i];
+                }
+            }
+            return estados[estados.length - 1];
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package VitalApp.config;
+
+import VitalApp.utils.PlanConsulta;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.Document;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Ejecuta {@code explain} una vez por cada forma de consulta nueva que observa {@link MonitorComandosMongo}
+ * y avisa en el logger {@code VitalApp.mongo.planes} cuando el plan recorre la colección completa o examina
+ * demasiados documentos por cada uno que devuelve. Se activa con {@code vitalapp.mongodb.planes.verificar=true};
+ * los explain corren en un hilo aparte, nunca en el del driver, y si la cola se llena la forma se descarta
+ * para volver a intentarlo la próxima vez que aparezca.
+ */
+@Slf4j(topic = "VitalApp.mongo.planes")
+public class GuardiaPlanesConsulta {
+
+    private static final Set<String> COMANDOS_EXPLICABLES = Set.of(
+            "find", "aggregate", "count", "distinct", "update", "delete", "findAndModify");
+    // Campos de sesión y de transporte que explain no acepta dentro del comando explicado
+    private static final List<String> CAMPOS_SESION = List.of(
+            "$db", "lsid", "$clusterTime", "txnNumber", "autocommit", "startTransaction",
+            "$readPreference", "readConcern", "writeConcern", "ordered");
+
+    private final ObjectProvider<MongoTemplate> mongoTemplate;
+    private final double proporcionMaxima;
+    private final int maximoFormas;
+
+    private final Set<String> vistas = ConcurrentHashMap.newKeySet();
+    private final Map<String, ResultadoPlan> resultados = new ConcurrentHashMap<>();
+    private final AtomicInteger pendientes = new AtomicInteger();
+    private final ThreadPoolExecutor ejecutor;
+
+    public GuardiaPlanesConsulta(ObjectProvider<MongoTemplate> mongoTemplate, double proporcionMaxima, int maximoFormas) {
+        this.mongoTemplate = mongoTemplate;
+        this.proporcionMaxima = proporcionMaxima;
+        this.maximoFormas = maximoFormas;
+        this.ejecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(100),
+                tarea -> {
+                    Thread hilo = new Thread(tarea, "guardia-planes");
+                    hilo.setDaemon(true);
+                    return hilo;
+                },
+                (tarea, ejecutorLleno) -> ((Explicacion) tarea).descartar());
+    }
+
+    /** Se llama desde el hilo del driver: solo copia el comando y encola el explain. */
+    public void observar(String comando, String coleccion, String forma, String baseDatos, BsonDocument documento) {
+        if (!COMANDOS_EXPLICABLES.contains(comando) || vistas.size() >= maximoFormas) {
+            return;
+        }
+        String clave = coleccion + " " + comando + " " + forma;
+        if (!vistas.add(clave)) {
+            return;
+        }
+
+        BsonDocument copia = documento.clone();
+        CAMPOS_SESION.forEach(copia::remove);
+        pendientes.incrementAndGet();
+        ejecutor.execute(new Explicacion(clave, coleccion, comando, forma, baseDatos, copia));
+    }
+
+    public Collection<ResultadoPlan> resultados() {
+        return List.copyOf(resultados.values());
+    }
+
+    /** Espera a que terminen los explain encolados; devuelve false si se agotó el tiempo. */
+    public boolean esperar(Duration tiempo) throws InterruptedException {
+        long limite = System.nanoTime() + tiempo.toNanos();
+        while (pendientes.get() > 0) {
+            if (System.nanoTime() > limite) {
+                return false;
+            }
+            Thread.sleep(10);
+        }
+        return true;
+    }
+
+    /** Olvida las formas vistas para que vuelvan a explicarse (p. ej. entre pruebas). */
+    public void reiniciar() {
+        vistas.clear();
+        resultados.clear();
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void explicar(Explicacion explicacion) {
+        try {
+            Document salida = mongoTemplate.getObject().getMongoDatabaseFactory().getMongoDatabase(explicacion.baseDatos)
+                    .runCommand(new BsonDocument("explain", explicacion.documento)
+                            .append("verbosity", new BsonString("executionStats")));
+            ResultadoPlan resultado = new ResultadoPlan(explicacion.coleccion, explicacion.comando, explicacion.forma,
+                    PlanConsulta.de(salida));
+            resultados.put(explicacion.clave, resultado);
+            reportar(resultado);
+        } catch (RuntimeException e) {
+            // Una forma que no se puede explicar no debe afectar a la aplicación; se permite reintentarla
+            vistas.remove(explicacion.clave);
+            log.debug("No se pudo obtener el plan de {} sobre {}: {}", explicacion.comando, explicacion.coleccion, e.getMessage());
+        }
+    }
+
+    private void reportar(ResultadoPlan resultado) {
+        PlanConsulta plan = resultado.plan();
+        if (plan.recorreColeccion()) {
+            log.warn("plan_sin_indice coleccion={} comando={} docsExaminados={} docsDevueltos={} forma={}",
+                    resultado.coleccion(), resultado.comando(), plan.docsExaminados(), plan.docsDevueltos(), resultado.forma());
+        } else if (plan.proporcionExaminados() > proporcionMaxima) {
+            log.warn("plan_poco_selectivo coleccion={} comando={} indices={} docsExaminados={} docsDevueltos={} forma={}",
+                    resultado.coleccion(), resultado.comando(), plan.indices(), plan.docsExaminados(), plan.docsDevueltos(),
+                    resultado.forma());
+        } else {
+            log.debug("plan_consulta coleccion={} comando={} indices={} docsExaminados={} docsDevueltos={} forma={}",
+                    resultado.coleccion(), resultado.comando(), plan.indices(), plan.docsExaminados(), plan.docsDevueltos(),
+                    resultado.forma());
+        }
+    }
+
+    public record ResultadoPlan(String coleccion, String comando, String forma, PlanConsulta plan) {}
+
+    private final class Explicacion implements Runnable {
+
+        private final String clave;
+        private final String coleccion;
+        private final String comando;
+        private final String forma;
+        private final String baseDatos;
+        private final BsonDocument documento;
+
+        private Explicacion(String clave, String coleccion, String comando, String forma, String baseDatos, BsonDocument documento) {
+            this.clave = clave;
+            this.coleccion = coleccion;
+            this.comando = comando;
+            this.forma = forma;
+            this.baseDatos = baseDatos;
+            this.documento = documento;
+        }
+
+        @Override
+        public void run() {
+            try {
+                explicar(this);
+            } finally {
+                pendientes.decrementAndGet();
+            }
+        }
+
+        void descartar() {
+            vistas.remove(clave);
+            pendientes.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package VitalApp.config;
+
+import VitalApp.model.documents.Medico;
+import VitalApp.model.documents.Paciente;
+import VitalApp.utils.BusquedaTexto;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Calcula los campos derivados del nombre (términos de búsqueda, nombre normalizado y su longitud, ver
+ * {@link BusquedaTexto}) de los pacientes y médicos guardados antes de que existieran. Es idempotente:
+ * solo toca los documentos sin el campo, así que puede ejecutarse en cada arranque; las escrituras
+ * nuevas los reciben del callback de {@link MongoConfig}.
+ *
+ * La ejecuta {@link VerificadorIndices} antes de que arranque el servidor web, así que ninguna petición
+ * compara su nombre contra documentos que todavía no tienen el normalizado.
+ *
+ * Si dos documentos anteriores normalizan al mismo nombre, el índice único rechaza el segundo: ese
+ * documento queda sin nombre normalizado (fuera del índice parcial) y se reporta en cada arranque
+ * hasta que se renombre o se elimine a mano.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!memoria")
+public class MigracionCamposDerivados {
+
+    private static final int TAMANO_LOTE = 1000;
+    private static final int CODIGO_CLAVE_DUPLICADA = 11000;
+
+    private final MongoTemplate mongoTemplate;
+
+    public void ejecutar() {
+        migrar(Paciente.class, "nombre", "terminosNombre", BusquedaTexto::terminos);
+        migrar(Medico.class, "nombre", "terminosNombre", BusquedaTexto::terminos);
+        migrar(Medico.class, "especialidad", "terminosEspecialidad", BusquedaTexto::terminos);
+        migrar(Paciente.class, "nombre", "nombreNormalizado", BusquedaTexto::normalizarNombre);
+        migrar(Medico.class, "nombre", "nombreNormalizado", BusquedaTexto::normalizarNombre);
+        migrar(Paciente.class, "nombre", "longitudNombre", BusquedaTexto::longitud);
+        migrar(Medico.class, "nombre", "longitudNombre", BusquedaTexto::longitud);
+    }
+
+    private void migrar(Class<?> clase, String origen, String destino, Function<String, Object> calculo) {
+        String coleccion = mongoTemplate.getCollectionName(clase);
+        Query pendientes = Query.query(Criteria.where(destino).exists(false));
+        pendientes.fields().include(origen);
+
+        long migrados = 0;
+        List<Object> duplicados = new ArrayList<>();
+        List<Object> lote = new ArrayList<>(TAMANO_LOTE);
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, clase);
+        try (Stream<Document> documentos = mongoTemplate.stream(pendientes, Document.class, coleccion)) {
+            for (Document documento : (Iterable<Document>) documentos::iterator) {
+                Object valor = calculo.apply(documento.getString(origen));
+                if (valor == null) {
+                    // Sin valor el campo no se escribe, como en el callback de guardado
+                    continue;
+                }
+                lote.add(documento.get("_id"));
+                bulk.updateOne(Query.query(Criteria.where("_id").is(documento.get("_id"))),
+                        new Update().set(destino, valor));
+
+                if (lote.size() == TAMANO_LOTE) {
+                    migrados += ejecutar(bulk, lote, duplicados);
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, clase);
+                }
+            }
+        }
+        if (!lote.isEmpty()) {
+            migrados += ejecutar(bulk, lote, duplicados);
+        }
+
+        if (migrados > 0) {
+            log.info("Campo {} calculado para {} documento(s) de {}", destino, migrados, coleccion);
+        }
+        if (!duplicados.isEmpty()) {
+            log.warn("{} documento(s) de {} repiten el {} de otro y quedaron sin él: {}",
+                    duplicados.size(), coleccion, destino, duplicados);
+        }
+    }
+
+    /** Ejecuta el lote y devuelve cuántos se actualizaron; los rechazados por clave duplicada se acumulan. */
+    private long ejecutar(BulkOperations bulk, List<Object> lote, List<Object> duplicados) {
+        try {
+            bulk.execute();
+            return lote.size();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != CODIGO_CLAVE_DUPLICADA) {
+                    throw e;
+                }
+                duplicados.add(lote.get(error.getIndex()));
+            }
+            return lote.size() - e.getErrors().size();
+        } finally {
+            lote.clear();
+        }
+    }
+}
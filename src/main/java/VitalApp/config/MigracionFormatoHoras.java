@@ -0,0 +1,172 @@
+package VitalApp.config;
+
+import VitalApp.model.documents.CitaMedica;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.BasicQuery;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Reescribe el horario embebido de las citas guardadas antes de usar los codecs java.time del driver
+ * (ver {@link MongoConfig#mongoCustomConversions()}). Hay dos formatos anteriores:
+ * <ul>
+ *     <li>Texto {@code "HH:mm"}, como el que sembraba {@code dataset.js}.</li>
+ *     <li>Fechas escritas por los conversores de Spring Data: la hora sobre el día en que se guardó y la fecha
+ *     a medianoche, ambas en la zona horaria del servidor.</li>
+ * </ul>
+ * El formato actual guarda la fecha a medianoche UTC y las horas sobre 1970-01-01 UTC; sin migrar, esas citas
+ * no coinciden con ninguna consulta por rango de horas (solapes del paciente, próximas citas, contadores,
+ * paginación). Es idempotente: solo toca los documentos con algún campo en formato anterior.
+ * <p>
+ * El filtro no puede usar índices y recorre toda la colección, así que al terminar se anota en
+ * {@link RegistroMigraciones} y los arranques siguientes no la repiten. Se anota aunque queden citas sin
+ * interpretar: se listan en el log y otro recorrido tampoco las entendería.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!memoria")
+public class MigracionFormatoHoras implements ApplicationRunner {
+
+    private static final String MIGRACION = "formatoHorasCitas";
+    private static final int TAMANO_LOTE = 1000;
+    private static final long MILIS_DIA = 86_400_000L;
+    private static final List<String> CAMPOS_HORA = List.of("horaInicio", "horaFin");
+
+    private final MongoTemplate mongoTemplate;
+    private final RegistroMigraciones registroMigraciones;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (registroMigraciones.completada(MIGRACION)) {
+            return;
+        }
+        Query pendientes = new BasicQuery(filtroFormatoAnterior("horario"));
+        pendientes.fields().include("horario");
+
+        long migradas = 0;
+        List<Object> invalidas = new ArrayList<>();
+        int enLote = 0;
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CitaMedica.class);
+        try (Stream<Document> citas = mongoTemplate.stream(pendientes, Document.class, mongoTemplate.getCollectionName(CitaMedica.class))) {
+            for (Document cita : (Iterable<Document>) citas::iterator) {
+                Update update = reescribir(cita.get("horario", Document.class));
+                if (update == null) {
+                    invalidas.add(cita.get("_id"));
+                    continue;
+                }
+                bulk.updateOne(Query.query(Criteria.where("_id").is(cita.get("_id"))), update);
+                if (++enLote == TAMANO_LOTE) {
+                    bulk.execute();
+                    migradas += enLote;
+                    enLote = 0;
+                    bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CitaMedica.class);
+                }
+            }
+        }
+        if (enLote > 0) {
+            bulk.execute();
+            migradas += enLote;
+        }
+
+        if (migradas > 0) {
+            log.info("Horario de {} cita(s) reescrito al formato de los codecs java.time del driver", migradas);
+        }
+        if (!invalidas.isEmpty()) {
+            log.warn("{} cita(s) tienen horas que no se pudieron interpretar y quedaron sin migrar: {}", invalidas.size(), invalidas);
+        }
+        registroMigraciones.registrar(MIGRACION);
+    }
+
+    /**
+     * Lee una hora en cualquiera de los formatos que ha tenido la base: texto, fecha de los conversores de
+     * Spring Data (zona del servidor) o fecha sobre 1970-01-01 UTC. Devuelve {@code null} si no la reconoce.
+     */
+    static LocalTime leerHora(Object valor) {
+        if (valor instanceof String texto) {
+            try {
+                return LocalTime.parse(texto.trim());
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        if (valor instanceof Date fecha) {
+            long milis = fecha.getTime();
+            return milis >= 0 && milis < MILIS_DIA
+                    ? LocalTime.ofNanoOfDay(milis * 1_000_000L)
+                    : fecha.toInstant().atZone(ZoneId.systemDefault()).toLocalTime();
+        }
+        return null;
+    }
+
+    /** Como {@link #leerHora(Object)} para fechas: una fecha fuera de la medianoche UTC se escribió en la zona del servidor. */
+    static LocalDate leerFecha(Object valor) {
+        if (valor instanceof Date fecha) {
+            long milis = fecha.getTime();
+            return Math.floorMod(milis, MILIS_DIA) == 0
+                    ? LocalDate.ofEpochDay(Math.floorDiv(milis, MILIS_DIA))
+                    : fecha.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        if (valor instanceof String texto) {
+            try {
+                return LocalDate.parse(texto.trim());
+            } catch (DateTimeParseException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /** Update con los tres campos en el formato actual, o {@code null} si alguno no se puede interpretar. */
+    private static Update reescribir(Document horario) {
+        LocalDate fecha = leerFecha(horario.get("fecha"));
+        LocalTime horaInicio = leerHora(horario.get("horaInicio"));
+        LocalTime horaFin = leerHora(horario.get("horaFin"));
+        if (fecha == null || horaInicio == null || horaFin == null) {
+            return null;
+        }
+        return new Update()
+                .set("horario.fecha", fecha)
+                .set("horario.horaInicio", horaInicio)
+                .set("horario.horaFin", horaFin);
+    }
+
+    /**
+     * Documentos cuyo subdocumento {@code campo} tiene alguna hora en texto o fuera de 1970-01-01 UTC,
+     * o una fecha que no cae a medianoche UTC.
+     */
+    private static Document filtroFormatoAnterior(String campo) {
+        List<Document> condiciones = new ArrayList<>();
+        for (String hora : CAMPOS_HORA) {
+            String ruta = campo + "." + hora;
+            condiciones.add(new Document(ruta, new Document("$type", "string")));
+            condiciones.add(new Document(ruta, new Document("$lt", new Date(0))));
+            condiciones.add(new Document(ruta, new Document("$gte", new Date(MILIS_DIA))));
+        }
+        String fecha = "$" + campo + ".fecha";
+        condiciones.add(new Document(campo + ".fecha", new Document("$type", "string")));
+        condiciones.add(new Document("$expr", new Document("$and", List.of(
+                new Document("$eq", List.of(new Document("$type", fecha), "date")),
+                new Document("$ne", List.of(new Document("$mod", List.of(new Document("$toLong", fecha), MILIS_DIA)), 0))
+        ))));
+        return new Document("$or", condiciones);
+    }
+}
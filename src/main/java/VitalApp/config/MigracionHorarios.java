@@ -0,0 +1,90 @@
+package VitalApp.config;
+
+import VitalApp.model.documents.Horario;
+import VitalApp.model.documents.Medico;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Mueve los horarios embebidos en {@code medico.horariosDisponibles} a la colección {@code horario}.
+ * Es idempotente: los horarios ya migrados no se sobrescriben y el arreglo se elimina del médico
+ * solo después de copiarlo. Buscar el arreglo recorre toda la colección, así que al terminar se anota
+ * en {@link RegistroMigraciones} y no se repite en los arranques siguientes.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!memoria")
+public class MigracionHorarios implements ApplicationRunner {
+
+    private static final String MIGRACION = "horariosEmbebidos";
+    private static final String CAMPO_LEGADO = "horariosDisponibles";
+
+    private final MongoTemplate mongoTemplate;
+    private final RegistroMigraciones registroMigraciones;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (registroMigraciones.completada(MIGRACION)) {
+            return;
+        }
+        Query pendientes = Query.query(Criteria.where(CAMPO_LEGADO).exists(true));
+        pendientes.fields().include(CAMPO_LEGADO);
+
+        long medicosMigrados = 0;
+        try (Stream<Document> medicos = mongoTemplate.stream(pendientes, Document.class, mongoTemplate.getCollectionName(Medico.class))) {
+            for (Document medico : (Iterable<Document>) medicos::iterator) {
+                migrarMedico(medico);
+                medicosMigrados++;
+            }
+        }
+
+        if (medicosMigrados > 0) {
+            log.info("Horarios embebidos migrados a la colección horario para {} médico(s)", medicosMigrados);
+        }
+        registroMigraciones.registrar(MIGRACION);
+    }
+
+    private void migrarMedico(Document medico) {
+        ObjectId idMedico = medico.getObjectId("_id");
+        List<Document> horarios = medico.getList(CAMPO_LEGADO, Document.class);
+
+        if (horarios != null && !horarios.isEmpty()) {
+            BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Horario.class);
+
+            for (Document documento : horarios) {
+                // Los horarios embebidos pueden ser anteriores a los codecs java.time del driver
+                Query clave = Query.query(Criteria.where("idMedico").is(idMedico)
+                        .and("fecha").is(MigracionFormatoHoras.leerFecha(documento.get("fecha")))
+                        .and("horaInicio").is(MigracionFormatoHoras.leerHora(documento.get("horaInicio"))));
+
+                Update update = new Update()
+                        .setOnInsert("horaFin", MigracionFormatoHoras.leerHora(documento.get("horaFin")))
+                        .setOnInsert("reservado", documento.getBoolean("reservado", false));
+
+                bulk.upsert(clave, update);
+            }
+            bulk.execute();
+        }
+
+        mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(idMedico)),
+                new Update().unset(CAMPO_LEGADO),
+                mongoTemplate.getCollectionName(Medico.class)
+        );
+    }
+}
@@ -0,0 +1,100 @@
+package VitalApp.config;
+
+import VitalApp.model.documents.Medico;
+import VitalApp.model.documents.Paciente;
+import VitalApp.utils.BusquedaTexto;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.MongoTransactionManager;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.event.BeforeConvertCallback;
+
+import java.time.Duration;
+
+@Configuration
+@Profile("!memoria")
+public class MongoConfig {
+
+    /**
+     * Usa los codecs java.time del driver (UTC) en lugar de los conversores de Spring Data.
+     * Los conversores por defecto guardan un LocalTime con la fecha del día en que se escribe,
+     * lo que impide comparar horas dentro de las consultas (p. ej. la reserva atómica de horarios).
+     */
+    @Bean
+    public MongoCustomConversions mongoCustomConversions() {
+        return MongoCustomConversions.create(
+                MongoCustomConversions.MongoConverterConfigurationAdapter::useNativeDriverJavaTimeCodecs
+        );
+    }
+
+    /**
+     * Recalcula el nombre normalizado, los términos de búsqueda y la longitud del nombre de pacientes y médicos en cada escritura
+     * (save, insert y operaciones bulk), así ningún camino de escritura puede dejarlos desfasados
+     * respecto al nombre ni saltarse el índice único.
+     * <p>
+     * El nombre normalizado (sin tildes ni mayúsculas) es la clave del índice único {@code nombreNormalizado}:
+     * la escritura misma rechaza un nombre repetido. El índice es parcial ({@code $exists}), así que un
+     * documento sin nombre no guarda el campo y queda fuera, en vez de ocupar la clave vacía.
+     */
+    @Bean
+    public BeforeConvertCallback<Object> terminosBusqueda() {
+        return (entidad, coleccion) -> {
+            if (entidad instanceof Paciente paciente) {
+                paciente.setNombreNormalizado(BusquedaTexto.normalizarNombre(paciente.getNombre()));
+                paciente.setTerminosNombre(BusquedaTexto.terminos(paciente.getNombre()));
+                paciente.setLongitudNombre(BusquedaTexto.longitud(paciente.getNombre()));
+            } else if (entidad instanceof Medico medico) {
+                medico.setNombreNormalizado(BusquedaTexto.normalizarNombre(medico.getNombre()));
+                medico.setTerminosNombre(BusquedaTexto.terminos(medico.getNombre()));
+                medico.setLongitudNombre(BusquedaTexto.longitud(medico.getNombre()));
+                medico.setTerminosEspecialidad(BusquedaTexto.terminos(medico.getEspecialidad()));
+            }
+            return entidad;
+        };
+    }
+
+    /**
+     * Las transacciones requieren un replica set, por eso se activan solo con
+     * {@code vitalapp.mongodb.transacciones=true}. Sin este bean los {@code @Transactional}
+     * no aplican y cada actualización de contadores sigue siendo atómica por sí sola.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "vitalapp.mongodb.transacciones", havingValue = "true")
+    public MongoTransactionManager transactionManager(MongoDatabaseFactory databaseFactory) {
+        return new MongoTransactionManager(databaseFactory);
+    }
+
+    /**
+     * Latencia por colección y comando y log de consultas lentas (ver {@link MonitorComandosMongo}).
+     * Un umbral negativo desactiva el log de consultas lentas, no las métricas.
+     */
+    @Bean
+    public MongoClientSettingsBuilderCustomizer monitorComandosMongo(
+            MeterRegistry registry,
+            @Value("${vitalapp.mongodb.consultas-lentas.umbral:100ms}") Duration umbralLento,
+            ObjectProvider<GuardiaPlanesConsulta> guardiaPlanes) {
+        MonitorComandosMongo monitor = new MonitorComandosMongo(registry, umbralLento, guardiaPlanes.getIfAvailable());
+        return builder -> builder.addCommandListener(monitor);
+    }
+
+    /**
+     * Explain de cada forma de consulta nueva para detectar recorridos de colección (ver {@link GuardiaPlanesConsulta}).
+     * Ejecuta cada consulta una vez más, así que en producción conviene activarlo solo mientras se diagnostica.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "vitalapp.mongodb.planes.verificar", havingValue = "true")
+    public GuardiaPlanesConsulta guardiaPlanesConsulta(
+            ObjectProvider<MongoTemplate> mongoTemplate,
+            @Value("${vitalapp.mongodb.planes.proporcion-maxima:100}") double proporcionMaxima,
+            @Value("${vitalapp.mongodb.planes.maximo-formas:1000}") int maximoFormas) {
+        return new GuardiaPlanesConsulta(mongoTemplate, proporcionMaxima, maximoFormas);
+    }
+}
@@ -0,0 +1,214 @@
+package VitalApp.config;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide cada comando que el driver envía a Mongo: latencia por colección y comando
+ * ({@code vitalapp.mongo.comandos}) y documentos devueltos ({@code vitalapp.mongo.documentos}).
+ * Los comandos que superan el umbral se registran en el logger {@code VitalApp.mongo.lento} con la
+ * forma de la consulta: los mismos campos y operadores, con los valores reemplazados por "?", para
+ * agrupar consultas iguales sin exponer datos de pacientes. Sustituye al log DEBUG de MongoTemplate.
+ */
+@Slf4j(topic = "VitalApp.mongo.lento")
+public class MonitorComandosMongo implements CommandListener {
+
+    // Partes del comando que determinan el plan; el resto (documentos insertados, opciones) no se registra
+    private static final Set<String> CAMPOS_FORMA = Set.of(
+            "filter", "query", "q", "sort", "projection", "pipeline", "key", "deletes", "updates", "hint", "limit");
+    // Campos que describen el plan por sí mismos (orden, proyección, etapas sin valores): se registran tal cual
+    private static final Set<String> CAMPOS_LITERALES = Set.of(
+            "sort", "projection", "hint", "limit", "key",
+            "$sort", "$project", "$limit", "$skip", "$count", "$unwind");
+    // Etapas con expresiones de agregación: se enmascaran como los filtros, salvo las rutas de campo ("$campo"),
+    // que no son datos (un texto literal que empiece por $ exige $literal), y los nombres de colección y campo
+    private static final Set<String> ETAPAS_EXPRESION = Set.of("$group", "$lookup");
+    private static final Set<String> CAMPOS_NOMBRE = Set.of("from", "localField", "foreignField", "as");
+    private static final Set<String> COMANDOS_SIN_COLECCION = Set.of(
+            "hello", "isMaster", "ping", "buildInfo", "endSessions", "saslStart", "saslContinue", "killCursors", "explain");
+
+    private final MeterRegistry registry;
+    private final Duration umbralLento;
+    private final GuardiaPlanesConsulta guardiaPlanes;
+    private final Map<Integer, Inicio> enCurso = new ConcurrentHashMap<>();
+
+    /** {@code guardiaPlanes} es opcional: sin ella no se ejecuta ningún explain. */
+    public MonitorComandosMongo(MeterRegistry registry, Duration umbralLento, GuardiaPlanesConsulta guardiaPlanes) {
+        this.registry = registry;
+        this.umbralLento = umbralLento;
+        this.guardiaPlanes = guardiaPlanes;
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event) {
+        String comando = event.getCommandName();
+        if (COMANDOS_SIN_COLECCION.contains(comando)) {
+            return;
+        }
+
+        // El documento del comando solo es válido durante el evento: la forma (ya enmascarada y copiada) se
+        // extrae ahora, pero solo se serializa a JSON si el comando resulta lento o la guardia de planes la pide
+        BsonDocument documento = event.getCommand();
+        String coleccion = coleccion(comando, documento);
+        BsonDocument forma = umbralLento.isNegative() && guardiaPlanes == null ? null : forma(documento);
+        enCurso.put(event.getRequestId(), new Inicio(coleccion, forma));
+
+        if (guardiaPlanes != null) {
+            guardiaPlanes.observar(comando, coleccion, forma.toJson(), event.getDatabaseName(), documento);
+        }
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        Inicio inicio = enCurso.remove(event.getRequestId());
+        if (inicio == null) {
+            return;
+        }
+
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        long documentos = documentosDevueltos(event.getResponse());
+        registrar(event.getCommandName(), inicio, event.getDatabaseName(), nanos, "exito");
+
+        DistributionSummary.builder("vitalapp.mongo.documentos")
+                .description("Documentos devueltos por comando de Mongo")
+                .tags("coleccion", inicio.coleccion(), "comando", event.getCommandName())
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(documentos);
+
+        if (esLento(nanos)) {
+            log.warn("consulta_lenta comando={} coleccion={} baseDatos={} duracionMs={} documentos={} forma={}",
+                    event.getCommandName(), inicio.coleccion(), event.getDatabaseName(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos), documentos, inicio.forma().toJson());
+        }
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        Inicio inicio = enCurso.remove(event.getRequestId());
+        if (inicio == null) {
+            return;
+        }
+
+        long nanos = event.getElapsedTime(TimeUnit.NANOSECONDS);
+        registrar(event.getCommandName(), inicio, event.getDatabaseName(), nanos, "error");
+
+        if (esLento(nanos)) {
+            log.warn("consulta_lenta comando={} coleccion={} baseDatos={} duracionMs={} error=\"{}\" forma={}",
+                    event.getCommandName(), inicio.coleccion(), event.getDatabaseName(),
+                    TimeUnit.NANOSECONDS.toMillis(nanos), event.getThrowable().getMessage(), inicio.forma().toJson());
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private void registrar(String comando, Inicio inicio, String baseDatos, long nanos, String resultado) {
+        Timer.builder("vitalapp.mongo.comandos")
+                .description("Latencia de los comandos enviados a Mongo")
+                .tags("coleccion", inicio.coleccion(), "comando", comando, "baseDatos", baseDatos, "resultado", resultado)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean esLento(long nanos) {
+        return !umbralLento.isNegative() && nanos >= umbralLento.toNanos();
+    }
+
+    /** find, aggregate, count, update... llevan la colección como valor del nombre del comando; getMore en "collection". */
+    private static String coleccion(String comando, BsonDocument documento) {
+        BsonValue valor = "getMore".equals(comando) ? documento.get("collection") : documento.get(comando);
+        return valor != null && valor.isString() ? valor.asString().getValue() : "-";
+    }
+
+    private static long documentosDevueltos(BsonDocument respuesta) {
+        BsonDocument cursor = respuesta.getDocument("cursor", null);
+        if (cursor != null) {
+            BsonArray lote = cursor.containsKey("firstBatch")
+                    ? cursor.getArray("firstBatch")
+                    : cursor.getArray("nextBatch", new BsonArray());
+            return lote.size();
+        }
+        // count, delete y update informan el número de documentos en "n"; findAndModify devuelve "value"
+        BsonValue n = respuesta.get("n");
+        if (n != null && n.isNumber()) {
+            return n.asNumber().longValue();
+        }
+        BsonValue valor = respuesta.get("value");
+        return valor != null && valor.isDocument() ? 1 : 0;
+    }
+
+    static BsonDocument forma(BsonDocument comando) {
+        BsonDocument forma = new BsonDocument();
+        for (Map.Entry<String, BsonValue> campo : comando.entrySet()) {
+            if (CAMPOS_FORMA.contains(campo.getKey())) {
+                forma.put(campo.getKey(), formaDe(campo.getKey(), campo.getValue(), false));
+            }
+        }
+        return forma;
+    }
+
+    private static BsonValue formaDe(String clave, BsonValue valor, boolean expresion) {
+        if (CAMPOS_LITERALES.contains(clave)) {
+            return copiar(valor);
+        }
+        boolean enExpresion = expresion || ETAPAS_EXPRESION.contains(clave);
+        if (valor.isDocument()) {
+            BsonDocument forma = new BsonDocument();
+            valor.asDocument().forEach((interna, interno) -> forma.put(interna, formaDe(interna, interno, enExpresion)));
+            return forma;
+        }
+        if (valor.isArray()) {
+            // Pipelines y lotes de update/delete conservan su estructura; las listas de valores ($in) se resumen
+            BsonArray arreglo = valor.asArray();
+            BsonArray forma = new BsonArray();
+            if (!arreglo.isEmpty() && arreglo.get(0).isDocument()) {
+                arreglo.forEach(elemento -> forma.add(formaDe(clave, elemento, enExpresion)));
+            } else {
+                forma.add(new BsonString("?"));
+            }
+            return forma;
+        }
+        if (enExpresion && valor.isString()
+                && (CAMPOS_NOMBRE.contains(clave) || valor.asString().getValue().startsWith("$"))) {
+            return new BsonString(valor.asString().getValue());
+        }
+        if (valor.isRegularExpression()) {
+            return new BsonString("/?/");
+        }
+        return new BsonString("?");
+    }
+
+    /** Copia independiente del buffer del evento, para serializarla después de que termine. */
+    private static BsonValue copiar(BsonValue valor) {
+        if (valor.isDocument()) {
+            BsonDocument copia = new BsonDocument();
+            valor.asDocument().forEach((clave, interno) -> copia.put(clave, copiar(interno)));
+            return copia;
+        }
+        if (valor.isArray()) {
+            BsonArray copia = new BsonArray();
+            valor.asArray().forEach(elemento -> copia.add(copiar(elemento)));
+            return copia;
+        }
+        return valor;
+    }
+
+    private record Inicio(String coleccion, BsonDocument forma) {}
+}
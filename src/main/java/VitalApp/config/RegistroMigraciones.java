@@ -0,0 +1,34 @@
+package VitalApp.config;
+
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.Date;
+
+/**
+ * Migraciones de datos ya terminadas, un documento por migración en la colección {@code migraciones}.
+ * Las migraciones que tienen que recorrer una colección entera para encontrar documentos pendientes
+ * lo consultan para no repetir ese recorrido en cada arranque. Borrar el documento vuelve a ejecutarla.
+ */
+@Component
+@RequiredArgsConstructor
+@Profile("!memoria")
+public class RegistroMigraciones {
+
+    private static final String COLECCION = "migraciones";
+
+    private final MongoTemplate mongoTemplate;
+
+    public boolean completada(String migracion) {
+        return mongoTemplate.exists(Query.query(Criteria.where("_id").is(migracion)), COLECCION);
+    }
+
+    public void registrar(String migracion) {
+        mongoTemplate.save(new Document("_id", migracion).append("completada", new Date()), COLECCION);
+    }
+}
@@ -0,0 +1,62 @@
+package VitalApp.config;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Ejecutor propio para las respuestas asíncronas de Spring MVC, en lugar del applicationTaskExecutor. Los
+ * endpoints NDJSON ({@code /api/reactivo/**}) escriben ahí cada línea, y cada escritura ocupa un hilo mientras
+ * el cliente lee. Un ThreadPoolTaskExecutor solo crece por encima de los hilos mínimos cuando la cola se llena,
+ * así que el pool no tiene cola (SynchronousQueue): cada stream que no encuentra un hilo libre crea uno, hasta
+ * {@code vitalapp.streaming.hilos-maximos}. Pasado ese límite la tarea se rechaza y ese stream termina con error
+ * en lugar de esperar sin límite. Con hilos virtuales es un ejecutor sin pool con el mismo límite de concurrencia.
+ *
+ * No se publica como bean: un Executor en el contexto reemplazaría al applicationTaskExecutor de @Async.
+ */
+@Configuration
+public class StreamingConfig implements WebMvcConfigurer, DisposableBean {
+
+    private final AsyncTaskExecutor ejecutor;
+
+    public StreamingConfig(Environment environment,
+                           @Value("${vitalapp.streaming.hilos-minimos:8}") int hilosMinimos,
+                           @Value("${vitalapp.streaming.hilos-maximos:200}") int hilosMaximos) {
+        if (Threading.VIRTUAL.isActive(environment)) {
+            SimpleAsyncTaskExecutor virtual = new SimpleAsyncTaskExecutor("streaming-");
+            virtual.setVirtualThreads(true);
+            virtual.setConcurrencyLimit(hilosMaximos);
+            ejecutor = virtual;
+        } else {
+            ThreadPoolTaskExecutor pool = new ThreadPoolTaskExecutor();
+            pool.setThreadNamePrefix("streaming-");
+            pool.setCorePoolSize(hilosMinimos);
+            pool.setMaxPoolSize(hilosMaximos);
+            pool.setQueueCapacity(0);
+            pool.setAllowCoreThreadTimeOut(true);
+            pool.initialize();
+            ejecutor = pool;
+        }
+    }
+
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(ejecutor);
+    }
+
+    @Override
+    public void destroy() {
+        if (ejecutor instanceof ThreadPoolTaskExecutor pool) {
+            pool.shutdown();
+        } else if (ejecutor instanceof SimpleAsyncTaskExecutor virtual) {
+            virtual.close();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package VitalApp.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Tareas periódicas (reconciliación de contadores, métricas de horarios). El perfil {@code dataset} no las
+ * programa: los hilos del programador no son daemon y el generador no terminaría al acabar de escribir.
+ */
+@Configuration
+@EnableScheduling
+@Profile("!dataset")
+public class TareasConfig {
+}
@@ -0,0 +1,219 @@
+package VitalApp.config;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Compara al arrancar el catálogo de índices declarado en los documentos ({@code @Indexed} y
+ * {@code @CompoundIndex}) con los índices que existen en Mongo, y reporta los que faltan, los que
+ * difieren en sus opciones, los que no están declarados y los que no se han usado desde que arrancó
+ * el servidor ({@code $indexStats}). Reemplaza a {@code auto-index-creation}, que intentaba crearlos
+ * todos en cada arranque.
+ *
+ * Se ejecuta al terminar de crear los beans, antes de que arranque el servidor web, así que ninguna
+ * petición llega antes de que se creen los índices únicos. Esos índices sostienen reglas de la aplicación
+ * (horarios sin duplicar, nombres únicos sin verificación previa), así que los que faltan se crean siempre,
+ * bloqueando el arranque, y si alguno no se puede construir (p. ej. por documentos duplicados) la aplicación
+ * no arranca. Los demás se crean según {@code vitalapp.mongodb.indices.creacion}: {@code segundo-plano}
+ * (por defecto, sin bloquear el arranque), {@code bloqueante} o {@code no}. Con
+ * {@code vitalapp.mongodb.indices.verificar=false} no se hace nada de esto y los índices únicos deben
+ * gestionarse por fuera. Los índices sobrantes o sin uso nunca se eliminan automáticamente.
+ *
+ * Después de los índices únicos, y también sin verificar, ejecuta {@link MigracionCamposDerivados}: con el
+ * índice de nombres ya construido, un documento anterior con un nombre repetido queda fuera del índice en
+ * lugar de impedir su construcción.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@Profile("!memoria")
+public class VerificadorIndices implements SmartInitializingSingleton {
+
+    private static final String INDICE_ID = "_id_";
+
+    private final MongoTemplate mongoTemplate;
+    private final MongoMappingContext mappingContext;
+    private final MigracionCamposDerivados migracionCamposDerivados;
+
+    @Value("${vitalapp.mongodb.indices.verificar:true}")
+    private boolean verificar;
+
+    @Value("${vitalapp.mongodb.indices.creacion:segundo-plano}")
+    private String creacion;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (verificar) {
+            verificarIndices();
+        }
+        migracionCamposDerivados.ejecutar();
+    }
+
+    private void verificarIndices() {
+        ModoCreacion modo = ModoCreacion.de(creacion);
+        Map<String, List<IndexDefinition>> faltantes = new LinkedHashMap<>();
+
+        for (MongoPersistentEntity<?> entidad : mappingContext.getPersistentEntities()) {
+            if (!entidad.isAnnotationPresent(org.springframework.data.mongodb.core.mapping.Document.class)) {
+                continue;
+            }
+            List<IndexDefinition> pendientes = verificarColeccion(entidad);
+            if (!pendientes.isEmpty()) {
+                faltantes.put(entidad.getCollection(), pendientes);
+            }
+        }
+
+        // Un índice único construido en segundo plano falla si entretanto se escribe un duplicado, y con él
+        // se pierde la unicidad: se crean antes de aceptar peticiones y su fallo detiene el arranque
+        Map<String, List<IndexDefinition>> unicos = new LinkedHashMap<>();
+        Map<String, List<IndexDefinition>> otros = new LinkedHashMap<>();
+        faltantes.forEach((coleccion, indices) -> indices.forEach(indice ->
+                (esUnico(indice.getIndexOptions()) ? unicos : otros)
+                        .computeIfAbsent(coleccion, c -> new ArrayList<>()).add(indice)));
+
+        crearUnicos(unicos);
+
+        if (otros.isEmpty() || modo == ModoCreacion.NO) {
+            return;
+        }
+
+        if (modo == ModoCreacion.BLOQUEANTE) {
+            crear(otros);
+        } else {
+            CompletableFuture.runAsync(() -> crear(otros))
+                    .exceptionally(error -> {
+                        log.error("Falló la creación de índices en segundo plano", error);
+                        return null;
+                    });
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /** Reporta las diferencias de una colección y devuelve los índices declarados que no existen. */
+    private List<IndexDefinition> verificarColeccion(MongoPersistentEntity<?> entidad) {
+        String coleccion = entidad.getCollection();
+
+        Map<String, IndexDefinition> declarados = new LinkedHashMap<>();
+        new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(entidad.getType())
+                .forEach(indice -> declarados.put(claves(indice.getIndexKeys()), indice));
+
+        Map<String, Document> existentes = new HashMap<>();
+        if (mongoTemplate.collectionExists(coleccion)) {
+            for (Document indice : mongoTemplate.getCollection(coleccion).listIndexes()) {
+                existentes.put(claves(indice.get("key", Document.class)), indice);
+            }
+        }
+
+        List<IndexDefinition> faltantes = new ArrayList<>();
+        declarados.forEach((clave, declarado) -> {
+            Document existente = existentes.remove(clave);
+            if (existente == null) {
+                log.warn("Índice faltante en {}: {} {}", coleccion, declarado.getIndexOptions().get("name"), clave);
+                faltantes.add(declarado);
+            } else if (esUnico(declarado.getIndexOptions()) != esUnico(existente)) {
+                log.warn("Índice {} en {} difiere del declarado: unique={} en Mongo, unique={} declarado. Debe recrearse a mano",
+                        existente.getString("name"), coleccion, esUnico(existente), esUnico(declarado.getIndexOptions()));
+            }
+        });
+
+        existentes.values().stream()
+                .map(indice -> indice.getString("name"))
+                .filter(nombre -> !INDICE_ID.equals(nombre))
+                .forEach(nombre -> log.warn("Índice no declarado en {}: {}", coleccion, nombre));
+
+        if (!existentes.isEmpty() || declarados.size() > faltantes.size()) {
+            reportarSinUso(coleccion);
+        }
+        return faltantes;
+    }
+
+    /** $indexStats cuenta los accesos desde el último reinicio del servidor: un cero reciente no es concluyente. */
+    private void reportarSinUso(String coleccion) {
+        try {
+            for (Document estadistica : mongoTemplate.getCollection(coleccion)
+                    .aggregate(List.of(new Document("$indexStats", new Document())))) {
+                String nombre = estadistica.getString("name");
+                Document accesos = estadistica.get("accesses", Document.class);
+                Number operaciones = accesos != null ? accesos.get("ops", Number.class) : null;
+                if (!INDICE_ID.equals(nombre) && operaciones != null && operaciones.longValue() == 0) {
+                    log.info("Índice sin uso en {}: {} (sin accesos desde {})", coleccion, nombre, accesos.get("since"));
+                }
+            }
+        } catch (RuntimeException e) {
+            // $indexStats requiere permisos de clusterMonitor; sin ellos solo se omite este reporte
+            log.debug("No se pudo consultar $indexStats de {}: {}", coleccion, e.getMessage());
+        }
+    }
+
+    private void crearUnicos(Map<String, List<IndexDefinition>> unicos) {
+        try {
+            crear(unicos);
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("No se pudo crear un índice único; revise si hay documentos duplicados. "
+                    + "La aplicación no arranca sin él porque depende de esa unicidad", e);
+        }
+    }
+
+    private void crear(Map<String, List<IndexDefinition>> faltantes) {
+        faltantes.forEach((coleccion, indices) -> indices.forEach(indice -> {
+            long inicio = System.nanoTime();
+            mongoTemplate.indexOps(coleccion).ensureIndex(enSegundoPlano(indice));
+            log.info("Índice {} creado en {} en {} ms", indice.getIndexOptions().get("name"), coleccion,
+                    (System.nanoTime() - inicio) / 1_000_000);
+        }));
+    }
+
+    /** Los servidores anteriores a 4.2 bloquean la colección sin esta opción; los posteriores la ignoran. */
+    private static IndexDefinition enSegundoPlano(IndexDefinition indice) {
+        Document opciones = new Document(indice.getIndexOptions()).append("background", true);
+        return new IndexDefinition() {
+            @Override
+            public Document getIndexKeys() {
+                return indice.getIndexKeys();
+            }
+
+            @Override
+            public Document getIndexOptions() {
+                return opciones;
+            }
+        };
+    }
+
+    /** Clave canónica de un índice: campos en orden con su dirección (o tipo, p. ej. "text"). */
+    private static String claves(Document claves) {
+        StringBuilder texto = new StringBuilder();
+        claves.forEach((campo, valor) -> texto.append(campo).append(':')
+                .append(valor instanceof Number numero ? String.valueOf(numero.intValue()) : valor).append(','));
+        return texto.toString();
+    }
+
+    private static boolean esUnico(Document opciones) {
+        return Boolean.TRUE.equals(opciones.get("unique"));
+    }
+
+    private enum ModoCreacion {
+        SEGUNDO_PLANO, BLOQUEANTE, NO;
+
+        static ModoCreacion de(String valor) {
+            return valueOf(valor.trim().toUpperCase().replace('-', '_'));
+        }
+    }
+}
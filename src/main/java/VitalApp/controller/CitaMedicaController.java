@@ -1,25 +1,34 @@
 package VitalApp.controller;
 
 import VitalApp.dto.Autentication.MensajeDTO;
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.citaMedica.CrearCitaMedicaDTO;
 import VitalApp.dto.citaMedica.CrearResultadoMedicoDTO;
+import VitalApp.dto.citaMedica.FiltroCitasDTO;
 import VitalApp.dto.citaMedica.InformacionResultadoMedicoDTO;
 import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
+import VitalApp.dto.citaMedica.ReconciliacionContadoresDTO;
 import VitalApp.model.enums.EstadoCita;
 import VitalApp.service.service.CitaMedicaService;
+import VitalApp.service.service.ContadorCitasService;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequiredArgsConstructor
@@ -29,6 +38,7 @@ import java.util.stream.Collectors;
 public class CitaMedicaController {
 
     private final CitaMedicaService citaMedicaService;
+    private final ContadorCitasService contadorCitasService;
 
     @PostMapping("/agendar")
     public ResponseEntity<MensajeDTO<String>> agendarCita(@Valid @RequestBody CrearCitaMedicaDTO dto) throws Exception {
@@ -54,16 +64,10 @@ public class CitaMedicaController {
     @GetMapping("/paciente/{idPaciente}")
     public ResponseEntity<MensajeDTO<List<ItemCitaMedicaDTO>>> listarPorPaciente(
             @PathVariable @NotBlank(message = "El ID del paciente es obligatorio") String idPaciente,
-            @RequestParam(required = false) EstadoCita estado) {
-        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorPaciente(idPaciente);
-
-        // Filtrar por estado si se proporciona
-        if (estado != null) {
-            citas = citas.stream()
-                    .filter(c -> c.estado() == estado)
-                    .collect(Collectors.toList());
-        }
-
+            @RequestParam(required = false) EstadoCita estado,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate hasta) {
+        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorPaciente(idPaciente, estado, desde, hasta);
         return ResponseEntity.ok(new MensajeDTO<>(false, citas));
     }
 
@@ -71,39 +75,43 @@ public class CitaMedicaController {
     public ResponseEntity<MensajeDTO<List<ItemCitaMedicaDTO>>> listarPorMedico(
             @PathVariable @NotBlank(message = "El ID del médico es obligatorio") String idMedico,
             @RequestParam(required = false) EstadoCita estado,
-            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate fecha) {
-        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorMedico(idMedico);
-
-        // Filtrar por estado si se proporciona
-        if (estado != null) {
-            citas = citas.stream()
-                    .filter(c -> c.estado() == estado)
-                    .collect(Collectors.toList());
-        }
-
-        // Filtrar por fecha si se proporciona
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate fecha,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate hasta) {
+        // Una fecha concreta equivale al rango de un solo día
         if (fecha != null) {
-            citas = citas.stream()
-                    .filter(c -> c.horario().getFecha().equals(fecha))
-                    .collect(Collectors.toList());
+            desde = fecha;
+            hasta = fecha;
         }
 
+        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorMedico(idMedico, estado, desde, hasta);
         return ResponseEntity.ok(new MensajeDTO<>(false, citas));
     }
 
     @GetMapping
-    public ResponseEntity<MensajeDTO<List<ItemCitaMedicaDTO>>> listarTodasLasCitas(
-            @RequestParam(required = false) EstadoCita estado) {
-        // Necesitarás agregar este método en el servicio
-        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarTodasLasCitas();
-
-        if (estado != null) {
-            citas = citas.stream()
-                    .filter(c -> c.estado() == estado)
-                    .collect(Collectors.toList());
-        }
+    public ResponseEntity<MensajeDTO<PaginaDTO<ItemCitaMedicaDTO>>> listarTodasLasCitas(
+            @RequestParam(required = false) EstadoCita estado,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false, defaultValue = "50") @Min(1) @Max(500) int size) {
+        PaginaDTO<ItemCitaMedicaDTO> pagina = citaMedicaService.listarTodasLasCitas(estado, cursor, size);
+        return ResponseEntity.ok(new MensajeDTO<>(false, pagina));
+    }
 
-        return ResponseEntity.ok(new MensajeDTO<>(false, citas));
+    @GetMapping(value = "/exportar", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public void exportarCitas(
+            @RequestParam(required = false) EstadoCita estado,
+            @RequestParam(required = false) String idMedico,
+            @RequestParam(required = false) String idPaciente,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate hasta,
+            HttpServletResponse response) throws IOException {
+
+        // El filtro se valida antes de escribir la primera línea de la respuesta
+        FiltroCitasDTO filtro = new FiltroCitasDTO(estado, idMedico, idPaciente, desde, hasta);
+
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        citaMedicaService.exportarCitas(filtro, response.getOutputStream());
     }
 
     @PostMapping("/{idCita}/resultado")
@@ -137,4 +145,10 @@ public class CitaMedicaController {
         Map<String, Long> estadisticas = citaMedicaService.obtenerEstadisticas();
         return ResponseEntity.ok(new MensajeDTO<>(false, estadisticas));
     }
+
+    @PostMapping("/estadisticas/reconciliar")
+    public ResponseEntity<MensajeDTO<ReconciliacionContadoresDTO>> reconciliarEstadisticas() {
+        ReconciliacionContadoresDTO reporte = contadorCitasService.reconciliarContadores();
+        return ResponseEntity.ok(new MensajeDTO<>(false, reporte));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,55 @@
+package VitalApp.controller;
+
+import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
+import VitalApp.dto.medico.ItemHorarioDTO;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.service.service.ConsultasReactivasService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+/**
+ * Lecturas en streaming (una línea JSON por elemento) sobre los repositorios reactivos, junto a los
+ * endpoints MVC equivalentes. Spring MVC se suscribe al Flux y libera el hilo de la petición mientras
+ * Mongo responde; cada línea se escribe en cuanto llega, sin armar la lista completa en memoria.
+ * Las escrituras corren en el ejecutor de {@link VitalApp.config.StreamingConfig}, no en los hilos de Tomcat.
+ */
+@RestController
+@RequestMapping("/api/reactivo")
+@RequiredArgsConstructor
+@Validated
+@Profile("!memoria")
+@CrossOrigin(origins = "http://localhost:3000")
+public class ConsultasReactivasController {
+
+    private final ConsultasReactivasService consultasReactivasService;
+
+    @GetMapping(value = "/citas", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ItemCitaMedicaDTO> listarCitas(
+            @RequestParam(required = false) EstadoCita estado,
+            @RequestParam(required = false, defaultValue = "500") @Min(1) @Max(5000) int limite) {
+        return consultasReactivasService.listarCitasRecientes(estado, limite);
+    }
+
+    @GetMapping(value = "/medicos/{idMedico}/horarios/disponibles", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ItemHorarioDTO> listarHorariosDisponibles(
+            @PathVariable @NotBlank(message = "El ID del médico es obligatorio") String idMedico,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate fecha) {
+        return consultasReactivasService.listarHorariosDisponibles(idMedico, fecha);
+    }
+
+    @GetMapping(value = "/pacientes/{id}/historial", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ItemCitaMedicaDTO> listarHistorialPaciente(
+            @PathVariable @NotBlank(message = "El ID del paciente es obligatorio") String id) {
+        return consultasReactivasService.listarHistorialPaciente(id);
+    }
+}
@@ -1,9 +1,12 @@
 package VitalApp.controller;
 
 import VitalApp.dto.Autentication.MensajeDTO;
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.medico.*;
 import VitalApp.service.service.MedicoService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
@@ -57,9 +60,12 @@ public class MedicoController {
     }
 
     @GetMapping
-    public ResponseEntity<MensajeDTO<List<ItemMedicoDTO>>> listarMedicos() {
-        List<ItemMedicoDTO> lista = medicoService.listarMedicos();
-        return ResponseEntity.ok(new MensajeDTO<>(false, lista));
+    public ResponseEntity<MensajeDTO<PaginaDTO<ItemMedicoDTO>>> listarMedicos(
+            @RequestParam(required = false, defaultValue = "0") @Min(0) int page,
+            @RequestParam(required = false, defaultValue = "50") @Min(1) @Max(500) int size,
+            @RequestParam(required = false) String cursor) {
+        PaginaDTO<ItemMedicoDTO> pagina = medicoService.listarMedicos(page, size, cursor);
+        return ResponseEntity.ok(new MensajeDTO<>(false, pagina));
     }
 
     @GetMapping("/{id}")
@@ -71,8 +77,17 @@ public class MedicoController {
 
     @GetMapping("/buscar")
     public ResponseEntity<MensajeDTO<List<ItemMedicoDTO>>> buscarPorEspecialidad(
-            @RequestParam @NotBlank(message = "La especialidad es obligatoria") String especialidad) {
-        List<ItemMedicoDTO> lista = medicoService.buscarMedicosPorEspecialidad(especialidad);
+            @RequestParam @NotBlank(message = "La especialidad es obligatoria") String especialidad,
+            @RequestParam(required = false, defaultValue = "20") @Min(1) @Max(100) int limite) {
+        List<ItemMedicoDTO> lista = medicoService.buscarMedicosPorEspecialidad(especialidad, limite);
+        return ResponseEntity.ok(new MensajeDTO<>(false, lista));
+    }
+
+    @GetMapping("/buscar/nombre")
+    public ResponseEntity<MensajeDTO<List<ItemMedicoDTO>>> buscarPorNombre(
+            @RequestParam @NotBlank(message = "El nombre es obligatorio") String nombre,
+            @RequestParam(required = false, defaultValue = "20") @Min(1) @Max(100) int limite) {
+        List<ItemMedicoDTO> lista = medicoService.buscarMedicosPorNombre(nombre, limite);
         return ResponseEntity.ok(new MensajeDTO<>(false, lista));
     }
 
@@ -88,7 +103,7 @@ public class MedicoController {
     }
 
     @PostMapping("/{idMedico}/horarios/batch")
-    public ResponseEntity<MensajeDTO<String>> agregarMultiplesHorarios(
+    public ResponseEntity<MensajeDTO<ResultadoLoteHorariosDTO>> agregarMultiplesHorarios(
             @PathVariable @NotBlank(message = "El ID del médico es obligatorio") String idMedico,
             @Valid @RequestBody List<CrearHorarioDTO> horarios) {
 
@@ -96,18 +111,17 @@ public class MedicoController {
             throw new IllegalArgumentException("Debe proporcionar al menos un horario");
         }
 
-        int agregados = 0;
-        for (CrearHorarioDTO dto : horarios) {
-            try {
-                medicoService.agregarHorario(idMedico, dto);
-                agregados++;
-            } catch (Exception e) {
-                // Continuar con los demás horarios
-            }
-        }
+        ResultadoLoteHorariosDTO resultado = medicoService.agregarHorarios(idMedico, horarios);
+        HttpStatus estado = resultado.aceptados() > 0 ? HttpStatus.CREATED : HttpStatus.OK;
+        return ResponseEntity.status(estado).body(new MensajeDTO<>(false, resultado));
+    }
 
-        return ResponseEntity.status(HttpStatus.CREATED)
-                .body(new MensajeDTO<>(false, agregados + " horario(s) agregado(s) exitosamente"));
+    @PostMapping("/{idMedico}/horarios/plantilla")
+    public ResponseEntity<MensajeDTO<ResultadoPlantillaHorariosDTO>> generarHorarios(
+            @PathVariable @NotBlank(message = "El ID del médico es obligatorio") String idMedico,
+            @Valid @RequestBody CrearPlantillaHorariosDTO plantilla) {
+        ResultadoPlantillaHorariosDTO resultado = medicoService.generarHorarios(idMedico, plantilla);
+        return ResponseEntity.status(HttpStatus.CREATED).body(new MensajeDTO<>(false, resultado));
     }
 
     @GetMapping("/{idMedico}/horarios")
@@ -173,12 +187,7 @@ public class MedicoController {
 
     @GetMapping("/especialidades")
     public ResponseEntity<MensajeDTO<List<String>>> listarEspecialidades() {
-        List<String> especialidades = medicoService.listarMedicos().stream()
-                .map(ItemMedicoDTO::especialidad)
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
-
+        List<String> especialidades = medicoService.listarEspecialidades();
         return ResponseEntity.ok(new MensajeDTO<>(false, especialidades));
     }
 }
\ No newline at end of file
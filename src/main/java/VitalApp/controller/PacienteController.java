@@ -1,6 +1,7 @@
 package VitalApp.controller;
 
 import VitalApp.dto.Autentication.MensajeDTO;
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.citaMedica.InformacionResultadoMedicoDTO;
 import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
 import VitalApp.dto.paciente.CrearPacienteDTO;
@@ -10,15 +11,17 @@ import VitalApp.model.enums.EstadoCita;
 import VitalApp.service.service.CitaMedicaService;
 import VitalApp.service.service.PacienteService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.time.LocalDate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -63,23 +66,14 @@ public class PacienteController {
     }
 
     @GetMapping
-    public ResponseEntity<MensajeDTO<List<ItemPacienteDTO>>> listarPacientes(
-            @RequestParam(required = false, defaultValue = "0") int page,
-            @RequestParam(required = false, defaultValue = "50") int size) {
-
-        List<ItemPacienteDTO> lista = pacienteService.listarPacientes();
-
-        // Paginación simple (para implementación básica)
-        int start = page * size;
-        int end = Math.min(start + size, lista.size());
-
-        if (start >= lista.size()) {
-            lista = new ArrayList<>();
-        } else {
-            lista = lista.subList(start, end);
-        }
-
-        return ResponseEntity.ok(new MensajeDTO<>(false, lista));
+    public ResponseEntity<MensajeDTO<PaginaDTO<ItemPacienteDTO>>> listarPacientes(
+            @RequestParam(required = false, defaultValue = "0") @Min(0) int page,
+            @RequestParam(required = false, defaultValue = "50") @Min(1) @Max(500) int size,
+            @RequestParam(required = false) String cursor) {
+
+        // Con cursor se ignora page: la página siguiente se pide con el token de la respuesta anterior
+        PaginaDTO<ItemPacienteDTO> pagina = pacienteService.listarPacientes(page, size, cursor);
+        return ResponseEntity.ok(new MensajeDTO<>(false, pagina));
     }
 
     @GetMapping("/{id}")
@@ -91,26 +85,20 @@ public class PacienteController {
 
     @GetMapping("/buscar")
     public ResponseEntity<MensajeDTO<List<ItemPacienteDTO>>> buscarPorNombre(
-            @RequestParam @NotBlank(message = "El nombre es obligatorio") String nombre) {
-        List<ItemPacienteDTO> lista = pacienteService.buscarPacientesPorNombre(nombre);
+            @RequestParam @NotBlank(message = "El nombre es obligatorio") String nombre,
+            @RequestParam(required = false, defaultValue = "20") @Min(1) @Max(100) int limite) {
+        List<ItemPacienteDTO> lista = pacienteService.buscarPacientesPorNombre(nombre, limite);
         return ResponseEntity.ok(new MensajeDTO<>(false, lista));
     }
 
     @GetMapping("/{id}/citas")
     public ResponseEntity<MensajeDTO<List<ItemCitaMedicaDTO>>> obtenerCitasPaciente(
             @PathVariable @NotBlank(message = "El ID del paciente es obligatorio") String id,
-            @RequestParam(required = false) EstadoCita estado) {
-
-        // Este método ya existe en CitaMedicaService, lo reutilizamos
-        // Necesitarás inyectar CitaMedicaService aquí
-        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorPaciente(id);
-
-        if (estado != null) {
-            citas = citas.stream()
-                    .filter(c -> c.estado() == estado)
-                    .collect(Collectors.toList());
-        }
+            @RequestParam(required = false) EstadoCita estado,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate desde,
+            @RequestParam(required = false) @DateTimeFormat(pattern = "dd/MM/yyyy") LocalDate hasta) {
 
+        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorPaciente(id, estado, desde, hasta);
         return ResponseEntity.ok(new MensajeDTO<>(false, citas));
     }
 
@@ -119,7 +107,7 @@ public class PacienteController {
             @PathVariable @NotBlank(message = "El ID del paciente es obligatorio") String id) throws Exception {
 
         ItemPacienteDTO paciente = pacienteService.obtenerInformacionPaciente(id);
-        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorPaciente(id);
+        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorPaciente(id, null, null, null);
 
         Map<String, Object> historial = new HashMap<>();
         historial.put("paciente", paciente);
@@ -168,25 +156,7 @@ public class PacienteController {
     public ResponseEntity<MensajeDTO<List<ItemCitaMedicaDTO>>> obtenerProximasCitas(
             @PathVariable @NotBlank(message = "El ID del paciente es obligatorio") String id) {
 
-        List<ItemCitaMedicaDTO> citas = citaMedicaService.listarCitasPorPaciente(id);
-        LocalDateTime ahora = LocalDateTime.now();
-
-        List<ItemCitaMedicaDTO> proximasCitas = citas.stream()
-                .filter(c -> c.estado() == EstadoCita.PENDIENTE)
-                .filter(c -> {
-                    LocalDateTime fechaCita = LocalDateTime.of(
-                            c.horario().getFecha(),
-                            c.horario().getHoraInicio()
-                    );
-                    return fechaCita.isAfter(ahora);
-                })
-                .sorted((c1, c2) -> {
-                    int compareFecha = c1.horario().getFecha().compareTo(c2.horario().getFecha());
-                    if (compareFecha != 0) return compareFecha;
-                    return c1.horario().getHoraInicio().compareTo(c2.horario().getHoraInicio());
-                })
-                .collect(Collectors.toList());
-
+        List<ItemCitaMedicaDTO> proximasCitas = citaMedicaService.listarProximasCitasPaciente(id);
         return ResponseEntity.ok(new MensajeDTO<>(false, proximasCitas));
     }
 }
\ No newline at end of file
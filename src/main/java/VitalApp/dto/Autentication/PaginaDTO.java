@@ -0,0 +1,8 @@
+package VitalApp.dto.Autentication;
+
+import java.util.List;
+
+public record PaginaDTO<T>(
+        List<T> contenido,
+        String siguienteCursor // null cuando no hay más resultados
+) {}
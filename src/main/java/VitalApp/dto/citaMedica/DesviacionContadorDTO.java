@@ -0,0 +1,8 @@
+package VitalApp.dto.citaMedica;
+
+public record DesviacionContadorDTO(
+        String contador,
+        String campo,
+        long registrado,
+        long esperado
+) {}
@@ -0,0 +1,27 @@
+package VitalApp.dto.citaMedica;
+
+import VitalApp.model.enums.EstadoCita;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+
+public record FiltroCitasDTO(
+        EstadoCita estado,
+        String idMedico,
+        String idPaciente,
+        LocalDate desde,
+        LocalDate hasta
+) {
+    public FiltroCitasDTO {
+        // Se valida al construir para fallar antes de empezar a escribir la respuesta
+        if (idMedico != null && !ObjectId.isValid(idMedico)) {
+            throw new IllegalArgumentException("ID de médico no es un ObjectId válido: " + idMedico);
+        }
+        if (idPaciente != null && !ObjectId.isValid(idPaciente)) {
+            throw new IllegalArgumentException("ID de paciente no es un ObjectId válido: " + idPaciente);
+        }
+        if (desde != null && hasta != null && desde.isAfter(hasta)) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la fecha final");
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package VitalApp.dto.citaMedica;
+
+import java.util.List;
+
+public record ReconciliacionContadoresDTO(
+        int contadoresRevisados,
+        int contadoresCorregidos,
+        List<DesviacionContadorDTO> desviaciones
+) {}
@@ -0,0 +1,36 @@
+package VitalApp.dto.medico;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Set;
+
+public record CrearPlantillaHorariosDTO(
+        @NotEmpty
+        Set<DayOfWeek> dias,
+
+        @NotNull
+        @JsonFormat(pattern = "HH:mm")
+        LocalTime horaInicio,
+
+        @NotNull
+        @JsonFormat(pattern = "HH:mm")
+        LocalTime horaFin,
+
+        @Min(5) @Max(480)
+        int duracionMinutos,
+
+        @NotNull
+        @JsonFormat(pattern = "dd/MM/yyyy")
+        LocalDate desde,
+
+        @NotNull
+        @JsonFormat(pattern = "dd/MM/yyyy")
+        LocalDate hasta
+) {}
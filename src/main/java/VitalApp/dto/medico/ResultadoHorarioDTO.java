@@ -0,0 +1,22 @@
+package VitalApp.dto.medico;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+public record ResultadoHorarioDTO(
+        int indice,
+
+        @JsonFormat(pattern = "dd/MM/yyyy")
+        LocalDate fecha,
+
+        @JsonFormat(pattern = "HH:mm")
+        LocalTime horaInicio,
+
+        @JsonFormat(pattern = "HH:mm")
+        LocalTime horaFin,
+
+        boolean aceptado,
+        String motivo
+) {}
@@ -0,0 +1,9 @@
+package VitalApp.dto.medico;
+
+import java.util.List;
+
+public record ResultadoLoteHorariosDTO(
+        int aceptados,
+        int rechazados,
+        List<ResultadoHorarioDTO> resultados
+) {}
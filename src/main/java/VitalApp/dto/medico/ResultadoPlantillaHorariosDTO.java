@@ -0,0 +1,7 @@
+package VitalApp.dto.medico;
+
+public record ResultadoPlantillaHorariosDTO(
+        int generados,
+        int creados,
+        int omitidos
+) {}
@@ -2,6 +2,7 @@ package VitalApp.exception;
 
 import VitalApp.dto.Autentication.MensajeDTO;
 import VitalApp.dto.Autentication.ValidacionDTO;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
@@ -14,9 +15,11 @@ import java.util.List;
 @RestControllerAdvice
 public class ExcepcionesGlobales {
 
+    // El error siempre es JSON, también en los endpoints que producen application/x-ndjson
     @ExceptionHandler(Exception.class)
     public ResponseEntity<MensajeDTO<String>> generalException(Exception e){
-        return ResponseEntity.internalServerError().body( new MensajeDTO<>(true, e.getMessage())
+        return ResponseEntity.internalServerError().contentType(MediaType.APPLICATION_JSON)
+                .body( new MensajeDTO<>(true, e.getMessage())
         );
     }
     @ExceptionHandler(MethodArgumentNotValidException.class)
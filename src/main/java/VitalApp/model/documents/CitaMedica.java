@@ -6,9 +6,18 @@ import VitalApp.model.vo.ResultadoMedico;
 import lombok.*;
 import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 @Document("citaMedica")
+@CompoundIndexes({
+        @CompoundIndex(name = "fecha_estado", def = "{'horario.fecha': 1, 'estado': 1}"),
+        @CompoundIndex(name = "fecha_hora_id", def = "{'horario.fecha': -1, 'horario.horaInicio': -1, '_id': -1}"),
+        @CompoundIndex(name = "estado_fecha_hora_id", def = "{'estado': 1, 'horario.fecha': -1, 'horario.horaInicio': -1, '_id': -1}"),
+        @CompoundIndex(name = "medico_fecha_estado", def = "{'idMedico': 1, 'horario.fecha': 1, 'estado': 1}"),
+        @CompoundIndex(name = "cliente_fecha_estado", def = "{'idCliente': 1, 'horario.fecha': 1, 'estado': 1}")
+})
 @Data
 @Builder
 @AllArgsConstructor
@@ -0,0 +1,65 @@
+package VitalApp.model.documents;
+
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.enums.TipoContador;
+import lombok.*;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Document("contadorCitas")
+@CompoundIndex(name = "tipo_fecha", def = "{'tipo': 1, 'fecha': 1}")
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ContadorCitas {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private TipoContador tipo;
+    private LocalDate fecha;
+    private ObjectId idMedico;
+    private long total;
+
+    @Builder.Default
+    private Map<EstadoCita, Long> porEstado = new EnumMap<>(EstadoCita.class);
+
+    public static ContadorCitas global() {
+        return ContadorCitas.builder()
+                .id("global")
+                .tipo(TipoContador.GLOBAL)
+                .build();
+    }
+
+    public static ContadorCitas delDia(LocalDate fecha) {
+        return ContadorCitas.builder()
+                .id("dia:" + fecha)
+                .tipo(TipoContador.DIA)
+                .fecha(fecha)
+                .build();
+    }
+
+    public static ContadorCitas delMedico(ObjectId idMedico) {
+        return ContadorCitas.builder()
+                .id("medico:" + idMedico.toHexString())
+                .tipo(TipoContador.MEDICO)
+                .idMedico(idMedico)
+                .build();
+    }
+
+    public long contar(EstadoCita estado) {
+        return porEstado == null ? 0L : porEstado.getOrDefault(estado, 0L);
+    }
+}
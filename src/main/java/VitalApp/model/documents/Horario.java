@@ -0,0 +1,37 @@
+package VitalApp.model.documents;
+
+import lombok.*;
+import org.bson.types.ObjectId;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Document("horario")
+@CompoundIndexes({
+        @CompoundIndex(name = "medico_fecha_horaInicio", def = "{'idMedico': 1, 'fecha': 1, 'horaInicio': 1}", unique = true),
+        @CompoundIndex(name = "medico_reservado_fecha_horaInicio", def = "{'idMedico': 1, 'reservado': 1, 'fecha': 1, 'horaInicio': 1}")
+})
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+@Getter
+@Setter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class Horario {
+
+    @Id
+    @EqualsAndHashCode.Include
+    private String id;
+
+    private ObjectId idMedico;
+    private LocalDate fecha;
+    private LocalTime horaInicio;
+    private LocalTime horaFin;
+    private boolean reservado;
+}
@@ -1,13 +1,15 @@
 package VitalApp.model.documents;
 
-import VitalApp.model.vo.HorarioMedico;
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.List;
 
 @Document("medico")
+@CompoundIndex(name = "terminosNombre_longitudNombre", def = "{'terminosNombre': 1, 'longitudNombre': 1}")
 @Data
 @Builder
 @AllArgsConstructor
@@ -23,7 +25,23 @@ public class Medico {
     private String id;
 
     private String nombre;
+
+    // Clave del índice único de nombres, ver config.MongoConfig#terminosBusqueda
+    @Indexed(name = "nombreNormalizado", unique = true, partialFilter = "{ 'nombreNormalizado': { $exists: true } }")
+    private String nombreNormalizado;
+
+    @Indexed(name = "especialidad")
     private String especialidad;
-    private List<HorarioMedico> horariosDisponibles;
 
+    // Prefijos normalizados de cada palabra (ver utils.BusquedaTexto); se calculan al guardar
+    @ToString.Exclude
+    private List<String> terminosNombre;
+
+    // Longitud del nombre normalizado: orden de los candidatos de la búsqueda por nombre
+    @ToString.Exclude
+    private Integer longitudNombre;
+
+    @Indexed(name = "terminosEspecialidad")
+    @ToString.Exclude
+    private List<String> terminosEspecialidad;
 }
@@ -2,9 +2,14 @@ package VitalApp.model.documents;
 
 import lombok.*;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
+import java.util.List;
+
 @Document("paciente")
+@CompoundIndex(name = "terminosNombre_longitudNombre", def = "{'terminosNombre': 1, 'longitudNombre': 1}")
 @Data
 @Builder
 @AllArgsConstructor
@@ -19,4 +24,16 @@ public class Paciente {
     private String id;
 
     private String nombre;
+
+    // Clave del índice único de nombres, ver config.MongoConfig#terminosBusqueda
+    @Indexed(name = "nombreNormalizado", unique = true, partialFilter = "{ 'nombreNormalizado': { $exists: true } }")
+    private String nombreNormalizado;
+
+    // Prefijos normalizados de cada palabra del nombre (ver utils.BusquedaTexto); se calculan al guardar
+    @ToString.Exclude
+    private List<String> terminosNombre;
+
+    // Longitud del nombre normalizado: orden de los candidatos de la búsqueda por nombre
+    @ToString.Exclude
+    private Integer longitudNombre;
 }
@@ -0,0 +1,7 @@
+package VitalApp.model.enums;
+
+public enum TipoContador {
+    GLOBAL,
+    DIA,
+    MEDICO
+}
@@ -4,15 +4,35 @@ import VitalApp.model.documents.CitaMedica;
 import VitalApp.model.enums.EstadoCita;
 import org.bson.types.ObjectId;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface CitaMedicaRepository extends MongoRepository <CitaMedica, String> {
+public interface CitaMedicaRepository extends MongoRepository <CitaMedica, String>, CitaMedicaRepositoryCustom {
 
     List<CitaMedica> findByIdCliente(ObjectId idCliente);
     List<CitaMedica> findByIdMedico(ObjectId idMedico);
     List<CitaMedica> findByIdMedicoAndEstado(ObjectId idMedico, EstadoCita estado);
     List<CitaMedica> findByIdClienteAndEstado(ObjectId idCliente, EstadoCita estado);
+    long countByEstadoAndHorarioFechaAndHorarioHoraInicioGreaterThan(EstadoCita estado, LocalDate fecha, LocalTime horaInicio);
+
+    // Citas del paciente en el estado dado posteriores a fecha + hora, en orden cronológico
+    @Query(value = "{ 'idCliente': ?0, 'estado': ?1, '$or': [ " +
+            "{ 'horario.fecha': { '$gt': ?2 } }, " +
+            "{ 'horario.fecha': ?2, 'horario.horaInicio': { '$gt': ?3 } } ] }",
+            sort = "{ 'horario.fecha': 1, 'horario.horaInicio': 1 }")
+    List<CitaMedica> buscarProximasCitasPaciente(ObjectId idCliente, EstadoCita estado, LocalDate fecha, LocalTime hora);
+
+    // Existe una cita del paciente ese día, en alguno de los estados, que se solape con [horaInicio, horaFin);
+    // como los horarios del médico, dos citas contiguas no se solapan
+    @Query(value = "{ 'idCliente': ?0, 'horario.fecha': ?1, 'estado': { '$in': ?2 }, " +
+            "'horario.horaInicio': { '$lt': ?4 }, 'horario.horaFin': { '$gt': ?3 } }",
+            exists = true)
+    boolean existeCitaSolapadaPaciente(ObjectId idCliente, LocalDate fecha, Collection<EstadoCita> estados,
+                                       LocalTime horaInicio, LocalTime horaFin);
 }
\ No newline at end of file
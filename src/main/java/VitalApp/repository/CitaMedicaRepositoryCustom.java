@@ -0,0 +1,32 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.ResultadoMedico;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Stream;
+
+public interface CitaMedicaRepositoryCustom {
+
+    // Recalcula desde cero los contadores global, por día y por médico con una agregación
+    Collection<ContadorCitas> calcularContadores();
+
+    // Citas más recientes primero (fecha, hora, _id descendentes) a partir de la posición dada
+    List<CitaMedica> buscarPaginaRecientes(EstadoCita estado, PosicionCita despuesDe, int limite);
+
+    // Citas que cumplen el filtro en orden cronológico (fecha, hora)
+    List<CitaMedica> buscarCitas(FiltroCitas filtro);
+
+    // Recorre las citas con un cursor de Mongo; quien lo consume debe cerrar el stream
+    Stream<CitaMedica> streamCitas(FiltroCitas filtro, int tamanoLote);
+
+    /**
+     * Pasa la cita de {@code esperado} a {@code nuevo} con una sola actualización condicional; con
+     * {@code resultado} distinto de null también lo guarda. Devuelve false si la cita ya no estaba en
+     * {@code esperado}: otra petición la cambió después de leerla.
+     */
+    boolean cambiarEstado(String id, EstadoCita esperado, EstadoCita nuevo, ResultadoMedico resultado);
+}
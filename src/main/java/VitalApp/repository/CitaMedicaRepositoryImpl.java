@@ -0,0 +1,156 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.ResultadoMedico;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.Fields;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+@RequiredArgsConstructor
+public class CitaMedicaRepositoryImpl implements CitaMedicaRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Collection<ContadorCitas> calcularContadores() {
+        TypedAggregation<CitaMedica> aggregation = Aggregation.newAggregation(CitaMedica.class,
+                Aggregation.group(Fields.from(
+                        Fields.field("estado", "estado"),
+                        Fields.field("fecha", "horario.fecha"),
+                        Fields.field("idMedico", "idMedico")
+                )).count().as("total")
+        );
+
+        Map<String, ContadorCitas> contadores = new HashMap<>();
+        ContadorCitas global = ContadorCitas.global();
+        contadores.put(global.getId(), global);
+
+        try (Stream<GrupoCitas> grupos = mongoTemplate.aggregateStream(aggregation, GrupoCitas.class)) {
+            grupos.forEach(grupo -> {
+                Clave clave = grupo.id();
+                acumular(global, clave.estado(), grupo.total());
+
+                if (clave.fecha() != null) {
+                    ContadorCitas dia = contadores.computeIfAbsent("dia:" + clave.fecha(), k -> ContadorCitas.delDia(clave.fecha()));
+                    acumular(dia, clave.estado(), grupo.total());
+                }
+                if (clave.idMedico() != null) {
+                    ContadorCitas medico = contadores.computeIfAbsent(
+                            "medico:" + clave.idMedico().toHexString(), k -> ContadorCitas.delMedico(clave.idMedico()));
+                    acumular(medico, clave.estado(), grupo.total());
+                }
+            });
+        }
+
+        return contadores.values();
+    }
+
+    @Override
+    public List<CitaMedica> buscarPaginaRecientes(EstadoCita estado, PosicionCita despuesDe, int limite) {
+        return mongoTemplate.find(consultaRecientes(estado, despuesDe).limit(limite), CitaMedica.class);
+    }
+
+    @Override
+    public List<CitaMedica> buscarCitas(FiltroCitas filtro) {
+        return mongoTemplate.find(consultaCronologica(filtro), CitaMedica.class);
+    }
+
+    @Override
+    public Stream<CitaMedica> streamCitas(FiltroCitas filtro, int tamanoLote) {
+        Query query = consultaDe(filtro);
+        query.cursorBatchSize(tamanoLote);
+        return mongoTemplate.stream(query, CitaMedica.class);
+    }
+
+    @Override
+    public boolean cambiarEstado(String id, EstadoCita esperado, EstadoCita nuevo, ResultadoMedico resultado) {
+        Update update = new Update().set("estado", nuevo);
+        if (resultado != null) {
+            update.set("resultado", resultado);
+        }
+        return mongoTemplate.updateFirst(
+                Query.query(Criteria.where("_id").is(id).and("estado").is(esperado)),
+                update, CitaMedica.class).getModifiedCount() > 0;
+    }
+
+    // Las consultas se comparten con CitaMedicaRepositoryReactivoImpl
+
+    static Query consultaRecientes(EstadoCita estado, PosicionCita despuesDe) {
+        List<Criteria> filtros = new ArrayList<>();
+        if (estado != null) {
+            filtros.add(Criteria.where("estado").is(estado));
+        }
+        if (despuesDe != null) {
+            // Keyset: todo lo estrictamente posterior a la última cita en el orden descendente
+            filtros.add(new Criteria().orOperator(
+                    Criteria.where("horario.fecha").lt(despuesDe.fecha()),
+                    Criteria.where("horario.fecha").is(despuesDe.fecha())
+                            .and("horario.horaInicio").lt(despuesDe.horaInicio()),
+                    Criteria.where("horario.fecha").is(despuesDe.fecha())
+                            .and("horario.horaInicio").is(despuesDe.horaInicio())
+                            .and("_id").lt(new ObjectId(despuesDe.id()))
+            ));
+        }
+
+        Query query = filtros.isEmpty()
+                ? new Query()
+                : Query.query(new Criteria().andOperator(filtros));
+        return query.with(Sort.by(Sort.Direction.DESC, "horario.fecha", "horario.horaInicio", "_id"));
+    }
+
+    static Query consultaCronologica(FiltroCitas filtro) {
+        return consultaDe(filtro).with(Sort.by(Sort.Direction.ASC, "horario.fecha", "horario.horaInicio"));
+    }
+
+    static Query consultaDe(FiltroCitas filtro) {
+        Query query = new Query();
+        if (filtro.estado() != null) {
+            query.addCriteria(Criteria.where("estado").is(filtro.estado()));
+        }
+        if (filtro.idMedico() != null) {
+            query.addCriteria(Criteria.where("idMedico").is(filtro.idMedico()));
+        }
+        if (filtro.idCliente() != null) {
+            query.addCriteria(Criteria.where("idCliente").is(filtro.idCliente()));
+        }
+        if (filtro.desde() != null || filtro.hasta() != null) {
+            Criteria fecha = Criteria.where("horario.fecha");
+            if (filtro.desde() != null) {
+                fecha.gte(filtro.desde());
+            }
+            if (filtro.hasta() != null) {
+                fecha.lte(filtro.hasta());
+            }
+            query.addCriteria(fecha);
+        }
+        return query;
+    }
+
+    private void acumular(ContadorCitas contador, EstadoCita estado, long cantidad) {
+        contador.setTotal(contador.getTotal() + cantidad);
+        if (estado != null) {
+            contador.getPorEstado().merge(estado, cantidad, Long::sum);
+        }
+    }
+
+    record Clave(EstadoCita estado, LocalDate fecha, ObjectId idMedico) {}
+
+    record GrupoCitas(Clave id, long total) {}
+}
@@ -0,0 +1,10 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.CitaMedica;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+// Contraparte reactiva de CitaMedicaRepository para las lecturas que se entregan en streaming
+@Repository
+public interface CitaMedicaRepositoryReactivo extends ReactiveMongoRepository<CitaMedica, String>, CitaMedicaRepositoryReactivoCustom {
+}
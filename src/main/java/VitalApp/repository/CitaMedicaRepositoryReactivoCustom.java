@@ -0,0 +1,14 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.enums.EstadoCita;
+import reactor.core.publisher.Flux;
+
+public interface CitaMedicaRepositoryReactivoCustom {
+
+    // Citas más recientes primero (fecha, hora, _id descendentes), como buscarPaginaRecientes
+    Flux<CitaMedica> buscarRecientes(EstadoCita estado, int limite);
+
+    // Citas en orden cronológico, como buscarCitas; el cursor avanza a medida que se consumen
+    Flux<CitaMedica> buscarCitas(FiltroCitas filtro);
+}
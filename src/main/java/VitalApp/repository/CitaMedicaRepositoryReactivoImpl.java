@@ -0,0 +1,24 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.enums.EstadoCita;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import reactor.core.publisher.Flux;
+
+// Mismas consultas que CitaMedicaRepositoryImpl, ejecutadas con el driver reactivo
+@RequiredArgsConstructor
+public class CitaMedicaRepositoryReactivoImpl implements CitaMedicaRepositoryReactivoCustom {
+
+    private final ReactiveMongoTemplate mongoTemplate;
+
+    @Override
+    public Flux<CitaMedica> buscarRecientes(EstadoCita estado, int limite) {
+        return mongoTemplate.find(CitaMedicaRepositoryImpl.consultaRecientes(estado, null).limit(limite), CitaMedica.class);
+    }
+
+    @Override
+    public Flux<CitaMedica> buscarCitas(FiltroCitas filtro) {
+        return mongoTemplate.find(CitaMedicaRepositoryImpl.consultaCronologica(filtro), CitaMedica.class);
+    }
+}
@@ -0,0 +1,9 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.ContadorCitas;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ContadorCitasRepository extends MongoRepository<ContadorCitas, String>, ContadorCitasRepositoryCustom {
+}
@@ -0,0 +1,20 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+public interface ContadorCitasRepositoryCustom {
+
+    // Aplica los deltas con $inc sobre el contador, creándolo si no existe
+    void incrementar(ContadorCitas contador, long deltaTotal, Map<EstadoCita, Long> deltasPorEstado);
+
+    // Como incrementar, pero solo si el contador conserva los valores leídos (o sigue sin existir si leido es null).
+    // Devuelve false si otra escritura lo cambió entretanto
+    boolean incrementarSiSinCambios(ContadorCitas contador, ContadorCitas leido, long deltaTotal, Map<EstadoCita, Long> deltasPorEstado);
+
+    // Suma las citas pendientes de los contadores diarios posteriores a la fecha dada
+    long sumarPendientesDespuesDe(LocalDate fecha);
+}
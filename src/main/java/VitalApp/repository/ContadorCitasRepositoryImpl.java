@@ -0,0 +1,85 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.enums.TipoContador;
+import lombok.RequiredArgsConstructor;
+import org.bson.Document;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+@RequiredArgsConstructor
+public class ContadorCitasRepositoryImpl implements ContadorCitasRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public void incrementar(ContadorCitas contador, long deltaTotal, Map<EstadoCita, Long> deltasPorEstado) {
+        mongoTemplate.upsert(
+                Query.query(Criteria.where("_id").is(contador.getId())),
+                incremento(contador, deltaTotal, deltasPorEstado),
+                ContadorCitas.class
+        );
+    }
+
+    @Override
+    public boolean incrementarSiSinCambios(ContadorCitas contador, ContadorCitas leido, long deltaTotal,
+                                           Map<EstadoCita, Long> deltasPorEstado) {
+        Update update = incremento(contador, deltaTotal, deltasPorEstado);
+        Criteria filtro = Criteria.where("_id").is(contador.getId());
+
+        if (leido == null) {
+            // Si otra escritura lo creó entretanto, el upsert no coincide e intenta insertar el mismo _id
+            filtro.and("total").exists(false);
+            try {
+                mongoTemplate.upsert(Query.query(filtro), update, ContadorCitas.class);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+
+        filtro.and("total").is(leido.getTotal());
+        for (EstadoCita estado : EstadoCita.values()) {
+            long valor = leido.contar(estado);
+            filtro.and("porEstado." + estado.name()).in(valor == 0 ? Arrays.asList(0L, null) : List.of(valor));
+        }
+        return mongoTemplate.updateFirst(Query.query(filtro), update, ContadorCitas.class).getModifiedCount() > 0;
+    }
+
+    private static Update incremento(ContadorCitas contador, long deltaTotal, Map<EstadoCita, Long> deltasPorEstado) {
+        Update update = new Update()
+                .setOnInsert("tipo", contador.getTipo())
+                .inc("total", deltaTotal);
+
+        if (contador.getFecha() != null) {
+            update.setOnInsert("fecha", contador.getFecha());
+        }
+        if (contador.getIdMedico() != null) {
+            update.setOnInsert("idMedico", contador.getIdMedico());
+        }
+        deltasPorEstado.forEach((estado, delta) -> update.inc("porEstado." + estado.name(), delta));
+        return update;
+    }
+
+    @Override
+    public long sumarPendientesDespuesDe(LocalDate fecha) {
+        TypedAggregation<ContadorCitas> aggregation = Aggregation.newAggregation(ContadorCitas.class,
+                Aggregation.match(Criteria.where("tipo").is(TipoContador.DIA).and("fecha").gt(fecha)),
+                Aggregation.group().sum("porEstado." + EstadoCita.PENDIENTE.name()).as("pendientes")
+        );
+
+        Document resultado = mongoTemplate.aggregate(aggregation, Document.class).getUniqueMappedResult();
+        return resultado == null ? 0L : ((Number) resultado.get("pendientes")).longValue();
+    }
+}
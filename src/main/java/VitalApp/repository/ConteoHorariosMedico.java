@@ -0,0 +1,10 @@
+package VitalApp.repository;
+
+import org.bson.types.ObjectId;
+
+// Horarios de un médico a partir de una fecha, separados por estado de reserva
+public record ConteoHorariosMedico(
+        ObjectId idMedico,
+        long libres,
+        long reservados
+) {}
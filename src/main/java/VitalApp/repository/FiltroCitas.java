@@ -0,0 +1,15 @@
+package VitalApp.repository;
+
+import VitalApp.model.enums.EstadoCita;
+import org.bson.types.ObjectId;
+
+import java.time.LocalDate;
+
+// Filtros opcionales sobre citas; un valor null no restringe la consulta
+public record FiltroCitas(
+        EstadoCita estado,
+        ObjectId idMedico,
+        ObjectId idCliente,
+        LocalDate desde,
+        LocalDate hasta
+) {}
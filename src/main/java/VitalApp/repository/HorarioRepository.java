@@ -0,0 +1,38 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.Horario;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+@Repository
+public interface HorarioRepository extends MongoRepository<Horario, String>, HorarioRepositoryCustom {
+
+    List<Horario> findByIdMedicoOrderByFechaAscHoraInicioAsc(ObjectId idMedico);
+    List<Horario> findByIdMedicoAndFecha(ObjectId idMedico, LocalDate fecha);
+    List<Horario> findByIdMedicoAndFechaIn(ObjectId idMedico, Collection<LocalDate> fechas);
+    Stream<Horario> findByIdMedicoAndFechaGreaterThanEqualAndFechaLessThanEqualOrderByFechaAscHoraInicioAsc(ObjectId idMedico, LocalDate desde, LocalDate hasta);
+    List<Horario> findByIdMedicoAndReservadoFalseAndFechaGreaterThanEqualOrderByFechaAscHoraInicioAsc(ObjectId idMedico, LocalDate fecha);
+    Optional<Horario> findByIdMedicoAndFechaAndHoraInicio(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio);
+    boolean existsByIdMedicoAndFechaAndHoraInicioAndHoraFin(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
+    long deleteByIdAndReservadoFalse(String id);
+    long deleteByIdMedico(ObjectId idMedico);
+
+    // Reserva atómica: solo modifica el horario si sigue libre
+    @Query("{ 'idMedico': ?0, 'fecha': ?1, 'horaInicio': ?2, 'horaFin': ?3, 'reservado': false }")
+    @Update("{ '$set': { 'reservado': true } }")
+    long reservarHorario(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
+
+    @Query("{ 'idMedico': ?0, 'fecha': ?1, 'horaInicio': ?2, 'horaFin': ?3, 'reservado': true }")
+    @Update("{ '$set': { 'reservado': false } }")
+    long liberarHorario(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin);
+}
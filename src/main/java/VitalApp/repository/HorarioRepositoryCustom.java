@@ -0,0 +1,22 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.Horario;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+public interface HorarioRepositoryCustom {
+
+    /**
+     * Inserta los horarios en una sola escritura no ordenada.
+     * Devuelve las posiciones de la lista que chocaron con un horario ya existente (clave duplicada).
+     */
+    Set<Integer> insertarLote(List<Horario> horarios);
+
+    /**
+     * Cuenta los horarios libres y reservados de cada médico desde {@code desde}.
+     * Devuelve como máximo {@code limite} médicos, los de más horarios primero.
+     */
+    List<ConteoHorariosMedico> contarPorMedico(LocalDate desde, int limite);
+}
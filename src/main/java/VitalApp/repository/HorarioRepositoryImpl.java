@@ -0,0 +1,68 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.Horario;
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.ConditionalOperators;
+import org.springframework.data.mongodb.core.aggregation.TypedAggregation;
+import org.springframework.data.mongodb.core.query.Criteria;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@RequiredArgsConstructor
+public class HorarioRepositoryImpl implements HorarioRepositoryCustom {
+
+    private final MongoTemplate mongoTemplate;
+
+    @Override
+    public Set<Integer> insertarLote(List<Horario> horarios) {
+        if (horarios.isEmpty()) {
+            return Set.of();
+        }
+
+        try {
+            // Sin orden: un duplicado no detiene la inserción del resto del lote
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Horario.class)
+                    .insert(horarios)
+                    .execute();
+            return Set.of();
+        } catch (BulkOperationException e) {
+            Set<Integer> duplicados = new HashSet<>();
+            for (BulkWriteError error : e.getErrors()) {
+                if (ErrorCategory.fromErrorCode(error.getCode()) != ErrorCategory.DUPLICATE_KEY) {
+                    throw e;
+                }
+                duplicados.add(error.getIndex());
+            }
+            return duplicados;
+        }
+    }
+
+    @Override
+    public List<ConteoHorariosMedico> contarPorMedico(LocalDate desde, int limite) {
+        TypedAggregation<Horario> aggregation = Aggregation.newAggregation(Horario.class,
+                Aggregation.match(Criteria.where("fecha").gte(desde)),
+                Aggregation.group("idMedico")
+                        .count().as("total")
+                        .sum(ConditionalOperators.when(Criteria.where("reservado").is(true)).then(1).otherwise(0)).as("reservados"),
+                Aggregation.sort(Sort.Direction.DESC, "total"),
+                Aggregation.limit(limite)
+        );
+
+        return mongoTemplate.aggregate(aggregation, GrupoHorarios.class).getMappedResults().stream()
+                .map(grupo -> new ConteoHorariosMedico(grupo.id(), grupo.total() - grupo.reservados(), grupo.reservados()))
+                .toList();
+    }
+
+    record GrupoHorarios(ObjectId id, long total, long reservados) {}
+}
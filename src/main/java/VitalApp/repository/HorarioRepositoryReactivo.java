@@ -0,0 +1,16 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.Horario;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+// Contraparte reactiva de HorarioRepository para las lecturas que se entregan en streaming
+@Repository
+public interface HorarioRepositoryReactivo extends ReactiveMongoRepository<Horario, String> {
+
+    Flux<Horario> findByIdMedicoAndReservadoFalseAndFechaGreaterThanEqualOrderByFechaAscHoraInicioAsc(ObjectId idMedico, LocalDate fecha);
+}
@@ -1,16 +1,43 @@
 package VitalApp.repository;
 
 import VitalApp.model.documents.Medico;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
-import java.util.Optional;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface MedicoRepository extends MongoRepository <Medico, String> {
-    boolean existsByNombre(String nombre);
+    // Candidatos que tienen todos los prefijos buscados (ver utils.BusquedaTexto); el servicio los ordena
+    @Query(value = "{ 'terminosNombre': { $all: ?0 } }", fields = "{ 'terminosNombre': 0, 'terminosEspecialidad': 0 }")
+    List<Medico> buscarPorTerminosNombre(List<String> terminos, Pageable candidatos);
+
+    @Query(value = "{ 'nombreNormalizado': ?0 }", fields = "{ 'terminosNombre': 0, 'terminosEspecialidad': 0 }")
+    Optional<Medico> buscarPorNombreNormalizado(String nombreNormalizado);
+
+    // Los de nombre más corto primero: el índice terminosNombre_longitudNombre entrega ese orden sin ordenar en
+    // memoria. Como los prefijos se cortan en 12 letras, todos los nombres con el mismo prefijo y la misma
+    // longitud empatan por esos puestos; el nombre exacto se lee aparte con el índice único nombreNormalizado
+    default List<Medico> buscarCandidatosPorNombre(List<String> terminos, String nombreNormalizado, int cantidad) {
+        List<Medico> candidatos = buscarPorTerminosNombre(terminos, PageRequest.of(0, cantidad, Sort.by("longitudNombre")));
+        return buscarPorNombreNormalizado(nombreNormalizado)
+                .filter(exacto -> candidatos.stream().noneMatch(c -> c.getId().equals(exacto.getId())))
+                .map(exacto -> Stream.concat(Stream.of(exacto), candidatos.stream()).toList())
+                .orElse(candidatos);
+    }
+
+    @Query(value = "{ 'terminosEspecialidad': { $all: ?0 } }", fields = "{ 'terminosNombre': 0, 'terminosEspecialidad': 0 }")
+    List<Medico> buscarPorTerminosEspecialidad(List<String> terminos, Pageable candidatos);
 
-    Optional<Medico> findByNombre(String nombre);  // ← Debe retornar Optional<Medico>
-    List<Medico> findByEspecialidadContainingIgnoreCase(String especialidad);
-}
\ No newline at end of file
+    // Paginación en base de datos: por número de página (sin conteo) o por cursor sobre _id
+    Slice<Medico> findAllBy(Pageable pageable);
+    List<Medico> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
+}
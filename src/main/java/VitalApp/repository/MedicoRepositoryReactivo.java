@@ -0,0 +1,10 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.Medico;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+// Contraparte reactiva de MedicoRepository para las lecturas que se entregan en streaming
+@Repository
+public interface MedicoRepositoryReactivo extends ReactiveMongoRepository<Medico, String> {
+}
@@ -1,15 +1,40 @@
 package VitalApp.repository;
 
 import VitalApp.model.documents.Paciente;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface PacienteRepository extends MongoRepository <Paciente, String> {
-    boolean existsByNombre(String nombre);
-    Optional<Paciente> findByNombre(String nombre);
-    List<Paciente> findByNombreContainingIgnoreCase(String nombre);
+    // Candidatos que tienen todos los prefijos buscados (ver utils.BusquedaTexto); el servicio los ordena
+    @Query(value = "{ 'terminosNombre': { $all: ?0 } }", fields = "{ 'terminosNombre': 0 }")
+    List<Paciente> buscarPorTerminosNombre(List<String> terminos, Pageable candidatos);
+
+    @Query(value = "{ 'nombreNormalizado': ?0 }", fields = "{ 'terminosNombre': 0 }")
+    Optional<Paciente> buscarPorNombreNormalizado(String nombreNormalizado);
+
+    // Los de nombre más corto primero: el índice terminosNombre_longitudNombre entrega ese orden sin ordenar en
+    // memoria. Como los prefijos se cortan en 12 letras, todos los nombres con el mismo prefijo y la misma
+    // longitud empatan por esos puestos; el nombre exacto se lee aparte con el índice único nombreNormalizado
+    default List<Paciente> buscarCandidatosPorNombre(List<String> terminos, String nombreNormalizado, int cantidad) {
+        List<Paciente> candidatos = buscarPorTerminosNombre(terminos, PageRequest.of(0, cantidad, Sort.by("longitudNombre")));
+        return buscarPorNombreNormalizado(nombreNormalizado)
+                .filter(exacto -> candidatos.stream().noneMatch(c -> c.getId().equals(exacto.getId())))
+                .map(exacto -> Stream.concat(Stream.of(exacto), candidatos.stream()).toList())
+                .orElse(candidatos);
+    }
+
+    // Paginación en base de datos: por número de página (sin conteo) o por cursor sobre _id
+    Slice<Paciente> findAllBy(Pageable pageable);
+    List<Paciente> findByIdGreaterThanOrderByIdAsc(String id, Limit limit);
 }
@@ -0,0 +1,10 @@
+package VitalApp.repository;
+
+import VitalApp.model.documents.Paciente;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+// Contraparte reactiva de PacienteRepository para las lecturas que se entregan en streaming
+@Repository
+public interface PacienteRepositoryReactivo extends ReactiveMongoRepository<Paciente, String> {
+}
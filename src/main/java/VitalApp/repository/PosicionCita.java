@@ -0,0 +1,11 @@
+package VitalApp.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// Claves de orden de la última cita entregada; punto de partida de la página siguiente
+public record PosicionCita(
+        LocalDate fecha,
+        LocalTime horaInicio,
+        String id
+) {}
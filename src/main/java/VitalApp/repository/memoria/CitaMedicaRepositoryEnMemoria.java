@@ -0,0 +1,252 @@
+package VitalApp.repository.memoria;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.model.vo.ResultadoMedico;
+import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.FiltroCitas;
+import VitalApp.repository.PosicionCita;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("memoria")
+public class CitaMedicaRepositoryEnMemoria extends RepositorioEnMemoria<CitaMedica> implements CitaMedicaRepository {
+
+    // Mayor que cualquier ObjectId en hexadecimal: cota superior de los rangos
+    private static final String ID_MAXIMO = "\uffff";
+
+    private static final Comparator<PosicionCita> CRONOLOGICO = Comparator
+            .comparing(PosicionCita::fecha)
+            .thenComparing(PosicionCita::horaInicio)
+            .thenComparing(PosicionCita::id);
+
+    private final IndiceSecundario<ObjectId> porCliente = new IndiceSecundario<>();
+    private final IndiceSecundario<ObjectId> porMedico = new IndiceSecundario<>();
+    private final IndiceSecundario<EstadoCita> porEstado = new IndiceSecundario<>();
+    // Equivalente al índice fecha_hora_id: orden cronológico y rangos de fechas
+    private final ConcurrentSkipListSet<PosicionCita> porFecha = new ConcurrentSkipListSet<>(CRONOLOGICO);
+
+    @Override
+    public List<CitaMedica> findByIdCliente(ObjectId idCliente) {
+        return buscar(porCliente.ids(idCliente), c -> idCliente.equals(c.getIdCliente()));
+    }
+
+    @Override
+    public List<CitaMedica> findByIdMedico(ObjectId idMedico) {
+        return buscar(porMedico.ids(idMedico), c -> idMedico.equals(c.getIdMedico()));
+    }
+
+    @Override
+    public List<CitaMedica> findByIdMedicoAndEstado(ObjectId idMedico, EstadoCita estado) {
+        return buscar(porMedico.ids(idMedico), c -> idMedico.equals(c.getIdMedico()) && c.getEstado() == estado);
+    }
+
+    @Override
+    public List<CitaMedica> findByIdClienteAndEstado(ObjectId idCliente, EstadoCita estado) {
+        return buscar(porCliente.ids(idCliente), c -> idCliente.equals(c.getIdCliente()) && c.getEstado() == estado);
+    }
+
+    @Override
+    public long countByEstadoAndHorarioFechaAndHorarioHoraInicioGreaterThan(EstadoCita estado, LocalDate fecha, LocalTime horaInicio) {
+        return porFecha.subSet(
+                        new PosicionCita(fecha, horaInicio, ID_MAXIMO), false,
+                        new PosicionCita(fecha, LocalTime.MAX, ID_MAXIMO), true)
+                .stream()
+                .map(p -> leer(p.id()))
+                .filter(c -> c != null && c.getEstado() == estado && c.getHorario().getHoraInicio().isAfter(horaInicio))
+                .count();
+    }
+
+    @Override
+    public List<CitaMedica> buscarProximasCitasPaciente(ObjectId idCliente, EstadoCita estado, LocalDate fecha, LocalTime hora) {
+        return buscar(porCliente.ids(idCliente), c -> idCliente.equals(c.getIdCliente())
+                && c.getEstado() == estado
+                && c.getHorario() != null
+                && (c.getHorario().getFecha().isAfter(fecha)
+                || (c.getHorario().getFecha().equals(fecha) && c.getHorario().getHoraInicio().isAfter(hora))))
+                .stream()
+                .sorted(Comparator.comparing(CitaMedicaRepositoryEnMemoria::posicion, CRONOLOGICO))
+                .toList();
+    }
+
+    @Override
+    public boolean existeCitaSolapadaPaciente(ObjectId idCliente, LocalDate fecha, Collection<EstadoCita> estados,
+                                              LocalTime horaInicio, LocalTime horaFin) {
+        return porCliente.ids(idCliente).stream()
+                .map(this::leer)
+                .filter(Objects::nonNull)
+                .anyMatch(c -> idCliente.equals(c.getIdCliente())
+                        && estados.contains(c.getEstado())
+                        && c.getHorario() != null
+                        && fecha.equals(c.getHorario().getFecha())
+                        && c.getHorario().getHoraInicio().isBefore(horaFin)
+                        && c.getHorario().getHoraFin().isAfter(horaInicio));
+    }
+
+    @Override
+    public Collection<ContadorCitas> calcularContadores() {
+        Map<String, ContadorCitas> contadores = new HashMap<>();
+        ContadorCitas global = ContadorCitas.global();
+        contadores.put(global.getId(), global);
+
+        todos().forEach(cita -> {
+            acumular(global, cita.getEstado());
+
+            LocalDate fecha = cita.getHorario() == null ? null : cita.getHorario().getFecha();
+            if (fecha != null) {
+                acumular(contadores.computeIfAbsent("dia:" + fecha, k -> ContadorCitas.delDia(fecha)), cita.getEstado());
+            }
+            if (cita.getIdMedico() != null) {
+                acumular(contadores.computeIfAbsent("medico:" + cita.getIdMedico().toHexString(),
+                        k -> ContadorCitas.delMedico(cita.getIdMedico())), cita.getEstado());
+            }
+        });
+
+        return contadores.values();
+    }
+
+    @Override
+    public List<CitaMedica> buscarPaginaRecientes(EstadoCita estado, PosicionCita despuesDe, int limite) {
+        NavigableSet<PosicionCita> recientes = porFecha.descendingSet();
+        if (despuesDe != null) {
+            recientes = recientes.tailSet(despuesDe, false);
+        }
+
+        return recientes.stream()
+                .map(p -> leer(p.id()))
+                .filter(c -> c != null && (estado == null || c.getEstado() == estado))
+                .limit(limite)
+                .map(this::copia)
+                .toList();
+    }
+
+    @Override
+    public List<CitaMedica> buscarCitas(FiltroCitas filtro) {
+        return candidatos(filtro)
+                .sorted(Comparator.comparing(CitaMedicaRepositoryEnMemoria::posicion, CRONOLOGICO))
+                .map(this::copia)
+                .toList();
+    }
+
+    @Override
+    public Stream<CitaMedica> streamCitas(FiltroCitas filtro, int tamanoLote) {
+        return candidatos(filtro).map(this::copia);
+    }
+
+    @Override
+    public boolean cambiarEstado(String id, EstadoCita esperado, EstadoCita nuevo, ResultadoMedico resultado) {
+        return actualizarSi(id, c -> c.getEstado() == esperado, c -> {
+            c.setEstado(nuevo);
+            if (resultado != null) {
+                c.setResultado(resultado);
+            }
+        });
+    }
+
+    private Stream<CitaMedica> candidatos(FiltroCitas filtro) {
+        // Se parte del índice más selectivo disponible, como haría el planificador de Mongo
+        Stream<CitaMedica> candidatas;
+        if (filtro.idMedico() != null) {
+            candidatas = porMedico.ids(filtro.idMedico()).stream().sorted().map(this::leer);
+        } else if (filtro.idCliente() != null) {
+            candidatas = porCliente.ids(filtro.idCliente()).stream().sorted().map(this::leer);
+        } else if (filtro.desde() != null || filtro.hasta() != null) {
+            candidatas = porFecha.subSet(
+                            new PosicionCita(filtro.desde() != null ? filtro.desde() : LocalDate.MIN, LocalTime.MIN, ""), true,
+                            new PosicionCita(filtro.hasta() != null ? filtro.hasta() : LocalDate.MAX, LocalTime.MAX, ID_MAXIMO), true)
+                    .stream()
+                    .map(p -> leer(p.id()));
+        } else if (filtro.estado() != null) {
+            candidatas = porEstado.ids(filtro.estado()).stream().sorted().map(this::leer);
+        } else {
+            candidatas = todos();
+        }
+        return candidatas.filter(c -> c != null && coincide(filtro).test(c));
+    }
+
+    private static Predicate<CitaMedica> coincide(FiltroCitas filtro) {
+        return c -> (filtro.estado() == null || c.getEstado() == filtro.estado())
+                && (filtro.idMedico() == null || filtro.idMedico().equals(c.getIdMedico()))
+                && (filtro.idCliente() == null || filtro.idCliente().equals(c.getIdCliente()))
+                && (filtro.desde() == null || (c.getHorario() != null && !c.getHorario().getFecha().isBefore(filtro.desde())))
+                && (filtro.hasta() == null || (c.getHorario() != null && !c.getHorario().getFecha().isAfter(filtro.hasta())));
+    }
+
+    private static void acumular(ContadorCitas contador, EstadoCita estado) {
+        contador.setTotal(contador.getTotal() + 1);
+        if (estado != null) {
+            contador.getPorEstado().merge(estado, 1L, Long::sum);
+        }
+    }
+
+    private static PosicionCita posicion(CitaMedica cita) {
+        HorarioMedico horario = cita.getHorario();
+        return horario == null
+                ? new PosicionCita(LocalDate.MIN, LocalTime.MIN, cita.getId())
+                : new PosicionCita(horario.getFecha(), horario.getHoraInicio(), cita.getId());
+    }
+
+    @Override
+    protected void indexar(CitaMedica anterior, CitaMedica nuevo) {
+        String id = anterior != null ? anterior.getId() : nuevo.getId();
+        porCliente.actualizar(anterior == null ? null : anterior.getIdCliente(), nuevo == null ? null : nuevo.getIdCliente(), id);
+        porMedico.actualizar(anterior == null ? null : anterior.getIdMedico(), nuevo == null ? null : nuevo.getIdMedico(), id);
+        porEstado.actualizar(anterior == null ? null : anterior.getEstado(), nuevo == null ? null : nuevo.getEstado(), id);
+
+        PosicionCita posicionNueva = nuevo == null ? null : posicion(nuevo);
+        if (posicionNueva != null) {
+            porFecha.add(posicionNueva);
+        }
+        if (anterior != null && !posicion(anterior).equals(posicionNueva)) {
+            porFecha.remove(posicion(anterior));
+        }
+    }
+
+    @Override
+    protected String idDe(CitaMedica cita) {
+        return cita.getId();
+    }
+
+    @Override
+    protected void asignarId(CitaMedica cita, String id) {
+        cita.setId(id);
+    }
+
+    @Override
+    protected CitaMedica copiar(CitaMedica cita) {
+        HorarioMedico horario = cita.getHorario();
+        ResultadoMedico resultado = cita.getResultado();
+        return CitaMedica.builder()
+                .id(cita.getId())
+                .idCliente(cita.getIdCliente())
+                .idMedico(cita.getIdMedico())
+                .horario(horario == null ? null : new HorarioMedico(
+                        horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), horario.isReservado()))
+                .estado(cita.getEstado())
+                .resultado(resultado == null ? null : ResultadoMedico.builder()
+                        .idCitaMedica(resultado.getIdCitaMedica())
+                        .descripcion(resultado.getDescripcion())
+                        .diagnostico(resultado.getDiagnostico())
+                        .recomendaciones(resultado.getRecomendaciones())
+                        .fechaRegistro(resultado.getFechaRegistro())
+                        .build())
+                .build();
+    }
+}
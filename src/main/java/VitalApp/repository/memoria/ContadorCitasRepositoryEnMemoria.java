@@ -0,0 +1,105 @@
+package VitalApp.repository.memoria;
+
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.enums.TipoContador;
+import VitalApp.repository.ContadorCitasRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+
+@Repository
+@Profile("memoria")
+public class ContadorCitasRepositoryEnMemoria extends RepositorioEnMemoria<ContadorCitas> implements ContadorCitasRepository {
+
+    @Override
+    public void incrementar(ContadorCitas contador, long deltaTotal, Map<EstadoCita, Long> deltasPorEstado) {
+        actualizarOInsertar(contador.getId(), actual -> {
+            ContadorCitas nuevo = actual != null ? actual : ContadorCitas.builder()
+                    .id(contador.getId())
+                    .tipo(contador.getTipo())
+                    .fecha(contador.getFecha())
+                    .idMedico(contador.getIdMedico())
+                    .build();
+            nuevo.setTotal(nuevo.getTotal() + deltaTotal);
+            deltasPorEstado.forEach((estado, delta) -> nuevo.getPorEstado().merge(estado, delta, Long::sum));
+            return nuevo;
+        });
+    }
+
+    @Override
+    public boolean incrementarSiSinCambios(ContadorCitas contador, ContadorCitas leido, long deltaTotal,
+                                           Map<EstadoCita, Long> deltasPorEstado) {
+        if (leido == null) {
+            ContadorCitas nuevo = ContadorCitas.builder()
+                    .id(contador.getId())
+                    .tipo(contador.getTipo())
+                    .fecha(contador.getFecha())
+                    .idMedico(contador.getIdMedico())
+                    .total(deltaTotal)
+                    .build();
+            nuevo.getPorEstado().putAll(deltasPorEstado);
+            try {
+                insert(nuevo);
+                return true;
+            } catch (DuplicateKeyException e) {
+                return false;
+            }
+        }
+
+        return actualizarSi(contador.getId(), actual -> mismosValores(actual, leido), nuevo -> {
+            nuevo.setTotal(nuevo.getTotal() + deltaTotal);
+            deltasPorEstado.forEach((estado, delta) -> nuevo.getPorEstado().merge(estado, delta, Long::sum));
+        });
+    }
+
+    @Override
+    public long sumarPendientesDespuesDe(LocalDate fecha) {
+        return todos()
+                .filter(c -> c.getTipo() == TipoContador.DIA && c.getFecha() != null && c.getFecha().isAfter(fecha))
+                .mapToLong(c -> c.contar(EstadoCita.PENDIENTE))
+                .sum();
+    }
+
+    private static boolean mismosValores(ContadorCitas actual, ContadorCitas leido) {
+        if (actual.getTotal() != leido.getTotal()) {
+            return false;
+        }
+        for (EstadoCita estado : EstadoCita.values()) {
+            if (actual.contar(estado) != leido.contar(estado)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    protected String idDe(ContadorCitas contador) {
+        return contador.getId();
+    }
+
+    @Override
+    protected void asignarId(ContadorCitas contador, String id) {
+        contador.setId(id);
+    }
+
+    @Override
+    protected ContadorCitas copiar(ContadorCitas contador) {
+        Map<EstadoCita, Long> porEstado = new EnumMap<>(EstadoCita.class);
+        if (contador.getPorEstado() != null) {
+            porEstado.putAll(contador.getPorEstado());
+        }
+        return ContadorCitas.builder()
+                .id(contador.getId())
+                .tipo(contador.getTipo())
+                .fecha(contador.getFecha())
+                .idMedico(contador.getIdMedico())
+                .total(contador.getTotal())
+                .porEstado(porEstado)
+                .build();
+    }
+}
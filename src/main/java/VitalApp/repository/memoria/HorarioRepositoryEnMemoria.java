@@ -0,0 +1,205 @@
+package VitalApp.repository.memoria;
+
+import VitalApp.model.documents.Horario;
+import VitalApp.repository.ConteoHorariosMedico;
+import VitalApp.repository.HorarioRepository;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Stream;
+
+@Repository
+@Profile("memoria")
+public class HorarioRepositoryEnMemoria extends RepositorioEnMemoria<Horario> implements HorarioRepository {
+
+    // Equivalente al índice único medico_fecha_horaInicio: ordena y a la vez impide duplicados
+    private final ConcurrentSkipListMap<ClaveHorario, String> porClave = new ConcurrentSkipListMap<>();
+
+    @Override
+    public List<Horario> findByIdMedicoOrderByFechaAscHoraInicioAsc(ObjectId idMedico) {
+        return resolver(rango(idMedico, LocalDate.MIN, LocalDate.MAX)).toList();
+    }
+
+    @Override
+    public List<Horario> findByIdMedicoAndFecha(ObjectId idMedico, LocalDate fecha) {
+        return resolver(rango(idMedico, fecha, fecha)).toList();
+    }
+
+    @Override
+    public List<Horario> findByIdMedicoAndFechaIn(ObjectId idMedico, Collection<LocalDate> fechas) {
+        return new HashSet<>(fechas).stream()
+                .sorted()
+                .flatMap(fecha -> resolver(rango(idMedico, fecha, fecha)))
+                .toList();
+    }
+
+    @Override
+    public Stream<Horario> findByIdMedicoAndFechaGreaterThanEqualAndFechaLessThanEqualOrderByFechaAscHoraInicioAsc(
+            ObjectId idMedico, LocalDate desde, LocalDate hasta) {
+        return resolver(rango(idMedico, desde, hasta));
+    }
+
+    @Override
+    public List<Horario> findByIdMedicoAndReservadoFalseAndFechaGreaterThanEqualOrderByFechaAscHoraInicioAsc(
+            ObjectId idMedico, LocalDate fecha) {
+        return resolver(rango(idMedico, fecha, LocalDate.MAX))
+                .filter(h -> !h.isReservado())
+                .toList();
+    }
+
+    @Override
+    public Optional<Horario> findByIdMedicoAndFechaAndHoraInicio(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio) {
+        return Optional.ofNullable(porClave.get(new ClaveHorario(idMedico, fecha, horaInicio)))
+                .flatMap(this::findById);
+    }
+
+    @Override
+    public boolean existsByIdMedicoAndFechaAndHoraInicioAndHoraFin(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        return findByIdMedicoAndFechaAndHoraInicio(idMedico, fecha, horaInicio)
+                .filter(h -> horaFin.equals(h.getHoraFin()))
+                .isPresent();
+    }
+
+    @Override
+    public long deleteByIdAndReservadoFalse(String id) {
+        return eliminarSi(id, h -> !h.isReservado()) ? 1 : 0;
+    }
+
+    @Override
+    public long deleteByIdMedico(ObjectId idMedico) {
+        return rango(idMedico, LocalDate.MIN, LocalDate.MAX).values().stream()
+                .filter(id -> eliminarSi(id, h -> true))
+                .count();
+    }
+
+    @Override
+    public long reservarHorario(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        return cambiarReserva(new ClaveHorario(idMedico, fecha, horaInicio), horaFin, true);
+    }
+
+    @Override
+    public long liberarHorario(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio, LocalTime horaFin) {
+        return cambiarReserva(new ClaveHorario(idMedico, fecha, horaInicio), horaFin, false);
+    }
+
+    @Override
+    public Set<Integer> insertarLote(List<Horario> horarios) {
+        Set<Integer> duplicados = new HashSet<>();
+        for (int i = 0; i < horarios.size(); i++) {
+            try {
+                insert(horarios.get(i));
+            } catch (DuplicateKeyException e) {
+                duplicados.add(i);
+            }
+        }
+        return duplicados;
+    }
+
+    @Override
+    public List<ConteoHorariosMedico> contarPorMedico(LocalDate desde, int limite) {
+        Map<ObjectId, long[]> conteos = new HashMap<>();
+        todos().filter(h -> !h.getFecha().isBefore(desde))
+                .forEach(h -> conteos.computeIfAbsent(h.getIdMedico(), id -> new long[2])[h.isReservado() ? 1 : 0]++);
+
+        return conteos.entrySet().stream()
+                .map(e -> new ConteoHorariosMedico(e.getKey(), e.getValue()[0], e.getValue()[1]))
+                .sorted(Comparator.comparingLong((ConteoHorariosMedico c) -> c.libres() + c.reservados()).reversed())
+                .limit(limite)
+                .toList();
+    }
+
+    private long cambiarReserva(ClaveHorario clave, LocalTime horaFin, boolean reservar) {
+        String id = porClave.get(clave);
+        if (id == null) {
+            return 0;
+        }
+        // Mismo filtro que la actualización condicional en Mongo: solo cambia si el estado es el opuesto
+        boolean actualizado = actualizarSi(id,
+                h -> clave.equals(ClaveHorario.de(h)) && horaFin.equals(h.getHoraFin()) && h.isReservado() != reservar,
+                h -> h.setReservado(reservar));
+        return actualizado ? 1 : 0;
+    }
+
+    private ConcurrentNavigableMap<ClaveHorario, String> rango(ObjectId idMedico, LocalDate desde, LocalDate hasta) {
+        return porClave.subMap(
+                new ClaveHorario(idMedico, desde, LocalTime.MIN), true,
+                new ClaveHorario(idMedico, hasta, LocalTime.MAX), true);
+    }
+
+    private Stream<Horario> resolver(ConcurrentNavigableMap<ClaveHorario, String> rango) {
+        return rango.values().stream()
+                .map(this::findById)
+                .flatMap(Optional::stream);
+    }
+
+    @Override
+    protected void validarEscritura(Horario anterior, Horario nuevo) {
+        if (nuevo == null) {
+            return;
+        }
+        String existente = porClave.putIfAbsent(ClaveHorario.de(nuevo), nuevo.getId());
+        if (existente != null && !existente.equals(nuevo.getId())) {
+            throw new DuplicateKeyException("Índice único medico_fecha_horaInicio: ya existe el horario " + ClaveHorario.de(nuevo));
+        }
+    }
+
+    @Override
+    protected void indexar(Horario anterior, Horario nuevo) {
+        if (anterior != null && (nuevo == null || !ClaveHorario.de(anterior).equals(ClaveHorario.de(nuevo)))) {
+            porClave.remove(ClaveHorario.de(anterior), anterior.getId());
+        }
+    }
+
+    @Override
+    protected String idDe(Horario horario) {
+        return horario.getId();
+    }
+
+    @Override
+    protected void asignarId(Horario horario, String id) {
+        horario.setId(id);
+    }
+
+    @Override
+    protected Horario copiar(Horario horario) {
+        return Horario.builder()
+                .id(horario.getId())
+                .idMedico(horario.getIdMedico())
+                .fecha(horario.getFecha())
+                .horaInicio(horario.getHoraInicio())
+                .horaFin(horario.getHoraFin())
+                .reservado(horario.isReservado())
+                .build();
+    }
+
+    record ClaveHorario(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio) implements Comparable<ClaveHorario> {
+
+        private static final Comparator<ClaveHorario> ORDEN = Comparator
+                .comparing(ClaveHorario::idMedico)
+                .thenComparing(ClaveHorario::fecha)
+                .thenComparing(ClaveHorario::horaInicio);
+
+        static ClaveHorario de(Horario horario) {
+            return new ClaveHorario(horario.getIdMedico(), horario.getFecha(), horario.getHoraInicio());
+        }
+
+        @Override
+        public int compareTo(ClaveHorario otra) {
+            return ORDEN.compare(this, otra);
+        }
+    }
+}
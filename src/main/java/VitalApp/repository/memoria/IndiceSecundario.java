@@ -0,0 +1,45 @@
+package VitalApp.repository.memoria;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Índice secundario valor → ids de documentos. Solo da candidatos: quien consulta vuelve a comprobar
+ * el filtro sobre el documento vigente, así una entrada desfasada nunca produce un resultado incorrecto.
+ * Los valores null no se indexan.
+ */
+final class IndiceSecundario<K> {
+
+    private final ConcurrentHashMap<K, Set<String>> entradas = new ConcurrentHashMap<>();
+
+    void actualizar(K anterior, K nuevo, String id) {
+        if (nuevo != null) {
+            entradas.compute(nuevo, (k, ids) -> {
+                Set<String> conId = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                conId.add(id);
+                return conId;
+            });
+        }
+        if (anterior != null && !anterior.equals(nuevo)) {
+            entradas.computeIfPresent(anterior, (k, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    /** Para campos con varios valores (como un índice multikey): quita los que ya no están y agrega los nuevos. */
+    void actualizarTodos(Collection<K> anteriores, Collection<K> nuevos, String id) {
+        Set<K> siguen = nuevos == null ? Set.of() : new HashSet<>(nuevos);
+        if (anteriores != null) {
+            anteriores.stream().filter(valor -> !siguen.contains(valor)).forEach(valor -> actualizar(valor, null, id));
+        }
+        siguen.forEach(valor -> actualizar(null, valor, id));
+    }
+
+    Set<String> ids(K valor) {
+        return valor == null ? Set.of() : entradas.getOrDefault(valor, Set.of());
+    }
+}
@@ -0,0 +1,37 @@
+package VitalApp.repository.memoria;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Espera {@code vitalapp.memoria.latencia} antes de cada llamada a un repositorio en memoria, como el
+ * viaje de ida y vuelta a Mongo que el perfil {@code memoria} elimina. Sin ella las pruebas de carga
+ * solo miden CPU; con ella los hilos pasan la mayor parte del tiempo esperando, que es lo que cambia
+ * entre los hilos de plataforma y los virtuales. La espera ocurre fuera de cualquier lock.
+ */
+@Aspect
+@Component
+@Profile("memoria")
+public class LatenciaSimulada {
+
+    private final long latenciaNanos;
+
+    public LatenciaSimulada(@Value("${vitalapp.memoria.latencia:0ms}") Duration latencia) {
+        this.latenciaNanos = latencia.toNanos();
+    }
+
+    @Around("execution(public * VitalApp.repository.memoria.*EnMemoria.*(..))")
+    public Object esperar(ProceedingJoinPoint llamada) throws Throwable {
+        if (latenciaNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(latenciaNanos);
+        }
+        return llamada.proceed();
+    }
+}
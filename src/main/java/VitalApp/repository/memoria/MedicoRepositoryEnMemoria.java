@@ -0,0 +1,112 @@
+package VitalApp.repository.memoria;
+
+import VitalApp.model.documents.Medico;
+import VitalApp.repository.MedicoRepository;
+import VitalApp.utils.BusquedaTexto;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@Profile("memoria")
+public class MedicoRepositoryEnMemoria extends RepositorioEnMemoria<Medico> implements MedicoRepository {
+
+    // Índice único nombreNormalizado: nombre normalizado → id del documento que lo ocupa (sin nombre no ocupa ninguno)
+    private final ConcurrentHashMap<String, String> porNombre = new ConcurrentHashMap<>();
+    // Los términos no se guardan en memoria (en Mongo los calcula un callback): se derivan de cada campo
+    private final IndiceSecundario<String> porTerminoNombre = new IndiceSecundario<>();
+    private final IndiceSecundario<String> porTerminoEspecialidad = new IndiceSecundario<>();
+
+    @Override
+    public List<Medico> buscarPorTerminosNombre(List<String> terminos, Pageable candidatos) {
+        // Como el $all de Mongo: candidatos del primer término, filtrados por el resto; el único orden
+        // que piden los servicios es longitudNombre, y se aplica antes de cortar como en Mongo
+        return buscar(porTerminoNombre.ids(terminos.get(0)), m -> BusquedaTexto.terminos(m.getNombre()).containsAll(terminos))
+                .stream()
+                .sorted(Comparator.comparingInt((Medico m) -> BusquedaTexto.longitud(m.getNombre())))
+                .limit(candidatos.getPageSize())
+                .toList();
+    }
+
+    @Override
+    public List<Medico> buscarPorTerminosEspecialidad(List<String> terminos, Pageable candidatos) {
+        return buscar(porTerminoEspecialidad.ids(terminos.get(0)),
+                m -> BusquedaTexto.terminos(m.getEspecialidad()).containsAll(terminos), candidatos.getPageSize());
+    }
+
+    @Override
+    public Optional<Medico> buscarPorNombreNormalizado(String nombreNormalizado) {
+        return Optional.ofNullable(porNombre.get(nombreNormalizado)).flatMap(this::findById);
+    }
+
+    @Override
+    public Slice<Medico> findAllBy(Pageable pageable) {
+        return rebanada(pageable);
+    }
+
+    @Override
+    public List<Medico> findByIdGreaterThanOrderByIdAsc(String id, Limit limit) {
+        return despuesDeId(id, limit);
+    }
+
+    @Override
+    protected void validarEscritura(Medico anterior, Medico nuevo) {
+        if (nuevo == null || nuevo.getNombre() == null) {
+            return;
+        }
+        String existente = porNombre.putIfAbsent(normalizado(nuevo), nuevo.getId());
+        if (existente != null && !existente.equals(nuevo.getId())) {
+            throw new DuplicateKeyException("Índice único nombreNormalizado: ya existe el nombre " + nuevo.getNombre());
+        }
+    }
+
+    @Override
+    protected void indexar(Medico anterior, Medico nuevo) {
+        String id = anterior != null ? anterior.getId() : nuevo.getId();
+        if (anterior != null && anterior.getNombre() != null
+                && (nuevo == null || !normalizado(anterior).equals(normalizado(nuevo)))) {
+            porNombre.remove(normalizado(anterior), id);
+        }
+        porTerminoNombre.actualizarTodos(
+                anterior == null ? null : BusquedaTexto.terminos(anterior.getNombre()),
+                nuevo == null ? null : BusquedaTexto.terminos(nuevo.getNombre()), id);
+        porTerminoEspecialidad.actualizarTodos(
+                anterior == null ? null : BusquedaTexto.terminos(anterior.getEspecialidad()),
+                nuevo == null ? null : BusquedaTexto.terminos(nuevo.getEspecialidad()), id);
+    }
+
+    @Override
+    protected String idDe(Medico medico) {
+        return medico.getId();
+    }
+
+    @Override
+    protected void asignarId(Medico medico, String id) {
+        medico.setId(id);
+    }
+
+    @Override
+    protected Medico copiar(Medico medico) {
+        return Medico.builder()
+                .id(medico.getId())
+                .nombre(medico.getNombre())
+                .nombreNormalizado(medico.getNombreNormalizado())
+                .especialidad(medico.getEspecialidad())
+                .terminosNombre(medico.getTerminosNombre())
+                .longitudNombre(medico.getLongitudNombre())
+                .terminosEspecialidad(medico.getTerminosEspecialidad())
+                .build();
+    }
+
+    private static String normalizado(Medico medico) {
+        return BusquedaTexto.normalizar(medico.getNombre());
+    }
+}
@@ -0,0 +1,100 @@
+package VitalApp.repository.memoria;
+
+import VitalApp.model.documents.Paciente;
+import VitalApp.repository.PacienteRepository;
+import VitalApp.utils.BusquedaTexto;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Repository;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Repository
+@Profile("memoria")
+public class PacienteRepositoryEnMemoria extends RepositorioEnMemoria<Paciente> implements PacienteRepository {
+
+    // Índice único nombreNormalizado: nombre normalizado → id del documento que lo ocupa (sin nombre no ocupa ninguno)
+    private final ConcurrentHashMap<String, String> porNombre = new ConcurrentHashMap<>();
+    // Los términos no se guardan en memoria (en Mongo los calcula un callback): se derivan del nombre
+    private final IndiceSecundario<String> porTermino = new IndiceSecundario<>();
+
+    @Override
+    public List<Paciente> buscarPorTerminosNombre(List<String> terminos, Pageable candidatos) {
+        // Como el $all de Mongo: candidatos del primer término, filtrados por el resto; el único orden
+        // que piden los servicios es longitudNombre, y se aplica antes de cortar como en Mongo
+        return buscar(porTermino.ids(terminos.get(0)), p -> BusquedaTexto.terminos(p.getNombre()).containsAll(terminos))
+                .stream()
+                .sorted(Comparator.comparingInt((Paciente p) -> BusquedaTexto.longitud(p.getNombre())))
+                .limit(candidatos.getPageSize())
+                .toList();
+    }
+
+    @Override
+    public Optional<Paciente> buscarPorNombreNormalizado(String nombreNormalizado) {
+        return Optional.ofNullable(porNombre.get(nombreNormalizado)).flatMap(this::findById);
+    }
+
+    @Override
+    public Slice<Paciente> findAllBy(Pageable pageable) {
+        return rebanada(pageable);
+    }
+
+    @Override
+    public List<Paciente> findByIdGreaterThanOrderByIdAsc(String id, Limit limit) {
+        return despuesDeId(id, limit);
+    }
+
+    @Override
+    protected void validarEscritura(Paciente anterior, Paciente nuevo) {
+        if (nuevo == null || nuevo.getNombre() == null) {
+            return;
+        }
+        String existente = porNombre.putIfAbsent(normalizado(nuevo), nuevo.getId());
+        if (existente != null && !existente.equals(nuevo.getId())) {
+            throw new DuplicateKeyException("Índice único nombreNormalizado: ya existe el nombre " + nuevo.getNombre());
+        }
+    }
+
+    @Override
+    protected void indexar(Paciente anterior, Paciente nuevo) {
+        String id = anterior != null ? anterior.getId() : nuevo.getId();
+        if (anterior != null && anterior.getNombre() != null
+                && (nuevo == null || !normalizado(anterior).equals(normalizado(nuevo)))) {
+            porNombre.remove(normalizado(anterior), id);
+        }
+        porTermino.actualizarTodos(
+                anterior == null ? null : BusquedaTexto.terminos(anterior.getNombre()),
+                nuevo == null ? null : BusquedaTexto.terminos(nuevo.getNombre()), id);
+    }
+
+    @Override
+    protected String idDe(Paciente paciente) {
+        return paciente.getId();
+    }
+
+    @Override
+    protected void asignarId(Paciente paciente, String id) {
+        paciente.setId(id);
+    }
+
+    @Override
+    protected Paciente copiar(Paciente paciente) {
+        return Paciente.builder()
+                .id(paciente.getId())
+                .nombre(paciente.getNombre())
+                .nombreNormalizado(paciente.getNombreNormalizado())
+                .terminosNombre(paciente.getTerminosNombre())
+                .longitudNombre(paciente.getLongitudNombre())
+                .build();
+    }
+
+    private static String normalizado(Paciente paciente) {
+        return BusquedaTexto.normalizar(paciente.getNombre());
+    }
+}
@@ -0,0 +1,334 @@
+package VitalApp.repository.memoria;
+
+import org.bson.types.ObjectId;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Example;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.query.FluentQuery;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Base de los repositorios del perfil {@code memoria}: una colección concurrente con la semántica de
+ * Mongo que usan los servicios. Cada escritura guarda una copia y cada lectura devuelve otra, como si
+ * los documentos viajaran por la red; los documentos guardados nunca se modifican en su lugar.
+ * Las escrituras de un mismo documento se serializan con {@link ConcurrentHashMap#compute}, que es
+ * también donde las subclases mantienen sus índices secundarios.
+ */
+public abstract class RepositorioEnMemoria<T> implements MongoRepository<T, String> {
+
+    private final ConcurrentHashMap<String, T> documentos = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListSet<String> ids = new ConcurrentSkipListSet<>();
+
+    protected abstract String idDe(T documento);
+
+    protected abstract void asignarId(T documento, String id);
+
+    protected abstract T copiar(T documento);
+
+    /** Se ejecuta con el documento bloqueado, antes de escribirlo; lanza una excepción para rechazarlo. */
+    protected void validarEscritura(T anterior, T nuevo) {
+    }
+
+    /** Mantiene los índices secundarios; {@code anterior} es null al insertar y {@code nuevo} al eliminar. */
+    protected void indexar(T anterior, T nuevo) {
+    }
+
+    // ==================== ESCRITURA ====================
+
+    @Override
+    public <S extends T> S save(S entidad) {
+        escribir(entidad, false);
+        return entidad;
+    }
+
+    @Override
+    public <S extends T> List<S> saveAll(Iterable<S> entidades) {
+        List<S> guardadas = new ArrayList<>();
+        entidades.forEach(e -> guardadas.add(save(e)));
+        return guardadas;
+    }
+
+    @Override
+    public <S extends T> S insert(S entidad) {
+        escribir(entidad, true);
+        return entidad;
+    }
+
+    @Override
+    public <S extends T> List<S> insert(Iterable<S> entidades) {
+        List<S> insertadas = new ArrayList<>();
+        entidades.forEach(e -> insertadas.add(insert(e)));
+        return insertadas;
+    }
+
+    private void escribir(T entidad, boolean soloInsertar) {
+        if (idDe(entidad) == null) {
+            asignarId(entidad, new ObjectId().toHexString());
+        }
+        T copia = copiar(entidad);
+        String id = idDe(copia);
+
+        documentos.compute(id, (clave, anterior) -> {
+            if (anterior != null && soloInsertar) {
+                throw new DuplicateKeyException("Ya existe un documento con _id " + id);
+            }
+            validarEscritura(anterior, copia);
+            indexar(anterior, copia);
+            ids.add(id);
+            return copia;
+        });
+    }
+
+    /** Aplica el cambio sobre una copia solo si el documento cumple la condición (como un update con filtro). */
+    protected boolean actualizarSi(String id, Predicate<T> condicion, Consumer<T> cambio) {
+        boolean[] actualizado = {false};
+        documentos.computeIfPresent(id, (clave, actual) -> {
+            if (!condicion.test(actual)) {
+                return actual;
+            }
+            T nuevo = copiar(actual);
+            cambio.accept(nuevo);
+            validarEscritura(actual, nuevo);
+            indexar(actual, nuevo);
+            actualizado[0] = true;
+            return nuevo;
+        });
+        return actualizado[0];
+    }
+
+    /** Upsert atómico: {@code cambio} recibe una copia del documento actual, o null si no existe. */
+    protected T actualizarOInsertar(String id, UnaryOperator<T> cambio) {
+        T resultado = documentos.compute(id, (clave, actual) -> {
+            T nuevo = cambio.apply(actual == null ? null : copiar(actual));
+            validarEscritura(actual, nuevo);
+            indexar(actual, nuevo);
+            ids.add(id);
+            return nuevo;
+        });
+        return copiar(resultado);
+    }
+
+    protected boolean eliminarSi(String id, Predicate<T> condicion) {
+        boolean[] eliminado = {false};
+        documentos.computeIfPresent(id, (clave, actual) -> {
+            if (!condicion.test(actual)) {
+                return actual;
+            }
+            indexar(actual, null);
+            ids.remove(id);
+            eliminado[0] = true;
+            return null;
+        });
+        return eliminado[0];
+    }
+
+    @Override
+    public void deleteById(String id) {
+        eliminarSi(id, d -> true);
+    }
+
+    @Override
+    public void delete(T entidad) {
+        deleteById(idDe(entidad));
+    }
+
+    @Override
+    public void deleteAllById(Iterable<? extends String> idsAEliminar) {
+        idsAEliminar.forEach(this::deleteById);
+    }
+
+    @Override
+    public void deleteAll(Iterable<? extends T> entidades) {
+        entidades.forEach(this::delete);
+    }
+
+    @Override
+    public void deleteAll() {
+        ids.forEach(this::deleteById);
+    }
+
+    // ==================== LECTURA ====================
+
+    @Override
+    public Optional<T> findById(String id) {
+        return Optional.ofNullable(documentos.get(id)).map(this::copiar);
+    }
+
+    @Override
+    public boolean existsById(String id) {
+        return documentos.containsKey(id);
+    }
+
+    @Override
+    public List<T> findAll() {
+        return todos().map(this::copiar).toList();
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<String> idsBuscados) {
+        return StreamSupport.stream(idsBuscados.spliterator(), false)
+                .map(documentos::get)
+                .filter(Objects::nonNull)
+                .map(this::copiar)
+                .toList();
+    }
+
+    @Override
+    public long count() {
+        return documentos.size();
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        return todos().sorted(comparador(sort)).map(this::copiar).toList();
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pagina) {
+        List<T> contenido = todos()
+                .sorted(comparador(pagina.getSort()))
+                .skip(pagina.isPaged() ? pagina.getOffset() : 0)
+                .limit(pagina.isPaged() ? pagina.getPageSize() : Long.MAX_VALUE)
+                .map(this::copiar)
+                .toList();
+        return new PageImpl<>(contenido, pagina, count());
+    }
+
+    /** Documentos guardados (sin copiar) en orden de _id, que en Mongo equivale al orden de inserción. */
+    protected Stream<T> todos() {
+        return ids.stream().map(documentos::get).filter(Objects::nonNull);
+    }
+
+    /** Resuelve los candidatos de un índice, vuelve a comprobar el filtro sobre el documento vigente y copia. */
+    protected List<T> buscar(Collection<String> candidatos, Predicate<T> filtro) {
+        return candidatos.stream()
+                .sorted()
+                .map(documentos::get)
+                .filter(d -> d != null && filtro.test(d))
+                .map(this::copiar)
+                .toList();
+    }
+
+    protected List<T> buscar(Collection<String> candidatos, Predicate<T> filtro, int limite) {
+        return candidatos.stream()
+                .sorted()
+                .map(documentos::get)
+                .filter(d -> d != null && filtro.test(d))
+                .limit(limite)
+                .map(this::copiar)
+                .toList();
+    }
+
+    protected List<T> buscar(Predicate<T> filtro) {
+        return todos().filter(filtro).map(this::copiar).toList();
+    }
+
+    protected T leer(String id) {
+        return documentos.get(id);
+    }
+
+    protected T copia(T documento) {
+        return copiar(documento);
+    }
+
+    protected Slice<T> rebanada(Pageable pagina) {
+        List<T> contenido = todos()
+                .sorted(comparador(pagina.getSort()))
+                .skip(pagina.getOffset())
+                .limit(pagina.getPageSize() + 1L)
+                .map(this::copiar)
+                .toList();
+        boolean haySiguiente = contenido.size() > pagina.getPageSize();
+        return new SliceImpl<>(haySiguiente ? contenido.subList(0, pagina.getPageSize()) : contenido, pagina, haySiguiente);
+    }
+
+    protected List<T> despuesDeId(String id, Limit limite) {
+        return ids.tailSet(id, false).stream()
+                .map(documentos::get)
+                .filter(Objects::nonNull)
+                .limit(limite.isLimited() ? limite.max() : Long.MAX_VALUE)
+                .map(this::copiar)
+                .toList();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<T> comparador(Sort sort) {
+        Comparator<T> comparador = (a, b) -> 0;
+        for (Sort.Order orden : sort) {
+            String propiedad = "_id".equals(orden.getProperty()) ? "id" : orden.getProperty();
+            Comparator<T> porPropiedad = Comparator.comparing(
+                    d -> (Comparable) valorOrdenable(new BeanWrapperImpl(d).getPropertyValue(propiedad)),
+                    Comparator.nullsFirst(Comparator.naturalOrder()));
+            comparador = comparador.thenComparing(orden.isAscending() ? porPropiedad : porPropiedad.reversed());
+        }
+        return comparador;
+    }
+
+    private static Object valorOrdenable(Object valor) {
+        // Mongo guarda los enum como texto y los ordena como tal
+        return valor instanceof Enum<?> e ? e.name() : valor;
+    }
+
+    // ==================== CONSULTAS POR EJEMPLO ====================
+
+    @Override
+    public <S extends T> Optional<S> findOne(Example<S> ejemplo) {
+        throw sinConsultasPorEjemplo();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> ejemplo) {
+        throw sinConsultasPorEjemplo();
+    }
+
+    @Override
+    public <S extends T> List<S> findAll(Example<S> ejemplo, Sort sort) {
+        throw sinConsultasPorEjemplo();
+    }
+
+    @Override
+    public <S extends T> Page<S> findAll(Example<S> ejemplo, Pageable pagina) {
+        throw sinConsultasPorEjemplo();
+    }
+
+    @Override
+    public <S extends T> long count(Example<S> ejemplo) {
+        throw sinConsultasPorEjemplo();
+    }
+
+    @Override
+    public <S extends T> boolean exists(Example<S> ejemplo) {
+        throw sinConsultasPorEjemplo();
+    }
+
+    @Override
+    public <S extends T, R> R findBy(Example<S> ejemplo, Function<FluentQuery.FetchableFluentQuery<S>, R> consulta) {
+        throw sinConsultasPorEjemplo();
+    }
+
+    private static UnsupportedOperationException sinConsultasPorEjemplo() {
+        return new UnsupportedOperationException("Las consultas por ejemplo no están disponibles en el perfil memoria");
+    }
+}
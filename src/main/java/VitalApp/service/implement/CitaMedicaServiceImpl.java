@@ -1,45 +1,82 @@
 package VitalApp.service.implement;
 
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.citaMedica.*;
 import VitalApp.dto.medico.ItemHorarioDTO;
+import VitalApp.dto.paciente.ItemPacienteDTO;
 import VitalApp.exception.ResourceNotFoundException;
 import VitalApp.model.documents.CitaMedica;
-import VitalApp.model.documents.Medico;
-import VitalApp.model.documents.Paciente;
 import VitalApp.model.enums.EstadoCita;
 import VitalApp.model.vo.HorarioMedico;
 import VitalApp.model.vo.ResultadoMedico;
 import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.FiltroCitas;
+import VitalApp.repository.HorarioRepository;
 import VitalApp.repository.MedicoRepository;
-import VitalApp.repository.PacienteRepository;
+import VitalApp.repository.PosicionCita;
 import VitalApp.service.service.CitaMedicaService;
+import VitalApp.service.service.ContadorCitasService;
+import VitalApp.service.implement.MetricasCitas.ResultadoReserva;
+import VitalApp.service.service.PacienteService;
+import VitalApp.utils.CursorPaginacion;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.EnumSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "vitalapp.servicio.citas", histogram = true)
 public class CitaMedicaServiceImpl implements CitaMedicaService {
 
+    private static final int TAMANO_LOTE_EXPORTACION = 1000;
+    private static final Set<EstadoCita> ESTADOS_ACTIVOS = EnumSet.of(EstadoCita.PENDIENTE, EstadoCita.VISTA);
+
     private final CitaMedicaRepository citaRepo;
     private final MedicoRepository medicoRepo;
-    private final PacienteRepository pacienteRepo;
+    private final PacienteService pacienteService;
+    private final HorarioRepository horarioRepo;
+    private final ContadorCitasService contadorService;
+    private final ObjectMapper objectMapper;
+    private final MetricasCitas metricas;
 
     @Override
-    public String agendarCita(CrearCitaMedicaDTO dto) {
+    @Transactional
+    public String agendarCita(CrearCitaMedicaDTO dto) throws Exception {
+        try {
+            String idCita = reservarCita(dto);
+            metricas.registrarReserva(ResultadoReserva.EXITO);
+            return idCita;
+        } catch (ResourceNotFoundException e) {
+            metricas.registrarReserva(ResultadoReserva.NO_ENCONTRADO);
+            throw e;
+        }
+    }
+
+    private String reservarCita(CrearCitaMedicaDTO dto) throws Exception {
         // Validar IDs
         validarObjectId(dto.idPaciente(), "ID de paciente");
         validarObjectId(dto.idMedico(), "ID de médico");
 
-        Medico medico = obtenerMedicoPorId(dto.idMedico());
-        Paciente paciente = obtenerPacientePorId(dto.idPaciente());
+        // Pasa por la caché de pacientes; el horario se valida siempre contra Mongo
+        ItemPacienteDTO paciente = pacienteService.obtenerInformacionPaciente(dto.idPaciente());
         ItemHorarioDTO horarioDTO = dto.horario();
 
         // Validar que el horario sea futuro
@@ -48,23 +85,35 @@ public class CitaMedicaServiceImpl implements CitaMedicaService {
         // Validar que el paciente no tenga otra cita en ese horario
         validarDisponibilidadPaciente(dto.idPaciente(), horarioDTO);
 
-        // Buscar y reservar horario
-        HorarioMedico horarioSeleccionado = buscarYReservarHorario(medico, horarioDTO);
+        // Reservar el horario de forma atómica en la base de datos
+        HorarioMedico horarioSeleccionado = reservarHorario(dto.idMedico(), horarioDTO);
 
         // Crear la cita
         CitaMedica cita = CitaMedica.builder()
-                .idCliente(new ObjectId(paciente.getId()))
-                .idMedico(new ObjectId(medico.getId()))
+                .idCliente(new ObjectId(paciente.id()))
+                .idMedico(new ObjectId(dto.idMedico()))
                 .horario(horarioSeleccionado)
                 .estado(EstadoCita.PENDIENTE)
                 .build();
 
-        return citaRepo.save(cita).getId();
+        CitaMedica citaGuardada;
+        try {
+            citaGuardada = citaRepo.save(cita);
+        } catch (RuntimeException e) {
+            // Si la cita no se pudo guardar, el horario no debe quedar bloqueado
+            liberarHorarioCita(cita);
+            throw e;
+        }
+
+        contadorService.registrarNuevaCita(citaGuardada);
+        return citaGuardada.getId();
     }
 
     @Override
+    @Transactional
     public String cancelarCita(String idCita) {
         CitaMedica cita = obtenerCitaPorId(idCita);
+        EstadoCita estadoAnterior = cita.getEstado();
 
         if (cita.getEstado() == EstadoCita.CANCELADA) {
             throw new IllegalStateException("La cita ya fue cancelada");
@@ -74,33 +123,51 @@ public class CitaMedicaServiceImpl implements CitaMedicaService {
             throw new IllegalStateException("No se puede cancelar una cita que ya fue atendida");
         }
 
+        // Sin transacciones dos cancelaciones simultáneas leen el mismo estado: solo la que aplica el cambio
+        // libera el horario y mueve los contadores
+        if (!citaRepo.cambiarEstado(cita.getId(), estadoAnterior, EstadoCita.CANCELADA, null)) {
+            throw new IllegalStateException("La cita cambió de estado mientras se cancelaba");
+        }
         cita.setEstado(EstadoCita.CANCELADA);
         liberarHorarioCita(cita);
 
-        return citaRepo.save(cita).getId();
+        contadorService.registrarCambioEstado(cita, estadoAnterior);
+        return cita.getId();
     }
 
     @Override
-    public List<ItemCitaMedicaDTO> listarCitasPorPaciente(String idPaciente) {
+    public List<ItemCitaMedicaDTO> listarCitasPorPaciente(String idPaciente, EstadoCita estado, LocalDate desde, LocalDate hasta) {
         validarObjectId(idPaciente, "ID de paciente");
-        ObjectId pacienteId = new ObjectId(idPaciente);
+        FiltroCitasDTO filtro = new FiltroCitasDTO(estado, null, idPaciente, desde, hasta);
 
-        return citaRepo.findByIdCliente(pacienteId).stream()
+        return citaRepo.buscarCitas(convertToFiltroCitas(filtro)).stream()
                 .map(this::convertToItemDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
-    public List<ItemCitaMedicaDTO> listarCitasPorMedico(String idMedico) {
+    public List<ItemCitaMedicaDTO> listarCitasPorMedico(String idMedico, EstadoCita estado, LocalDate desde, LocalDate hasta) {
         validarObjectId(idMedico, "ID de médico");
-        ObjectId medicoId = new ObjectId(idMedico);
+        FiltroCitasDTO filtro = new FiltroCitasDTO(estado, idMedico, null, desde, hasta);
 
-        return citaRepo.findByIdMedico(medicoId).stream()
+        return citaRepo.buscarCitas(convertToFiltroCitas(filtro)).stream()
                 .map(this::convertToItemDTO)
                 .collect(Collectors.toList());
     }
 
     @Override
+    public List<ItemCitaMedicaDTO> listarProximasCitasPaciente(String idPaciente) {
+        validarObjectId(idPaciente, "ID de paciente");
+        LocalDateTime ahora = LocalDateTime.now();
+
+        return citaRepo.buscarProximasCitasPaciente(new ObjectId(idPaciente), EstadoCita.PENDIENTE,
+                        ahora.toLocalDate(), ahora.toLocalTime()).stream()
+                .map(this::convertToItemDTO)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional
     public String agregarResultadoMedico(String idCita, CrearResultadoMedicoDTO dto) {
         CitaMedica cita = obtenerCitaPorId(idCita);
 
@@ -126,10 +193,16 @@ public class CitaMedicaServiceImpl implements CitaMedicaService {
                 .fechaRegistro(dto.fechaRegistro() != null ? dto.fechaRegistro() : LocalDateTime.now())
                 .build();
 
+        // Condicional como en cancelarCita: un resultado que llega a la vez que otro, o que una cancelación,
+        // no vuelve a mover los contadores
+        if (!citaRepo.cambiarEstado(cita.getId(), EstadoCita.PENDIENTE, EstadoCita.VISTA, resultado)) {
+            throw new IllegalStateException("Solo se pueden agregar resultados a citas en estado PENDIENTE");
+        }
         cita.setResultado(resultado);
         cita.setEstado(EstadoCita.VISTA);
 
-        return citaRepo.save(cita).getId();
+        contadorService.registrarCambioEstado(cita, EstadoCita.PENDIENTE);
+        return cita.getId();
     }
 
     @Override
@@ -157,16 +230,24 @@ public class CitaMedicaServiceImpl implements CitaMedicaService {
     }
 
     @Override
-    public List<ItemCitaMedicaDTO> listarTodasLasCitas() {
-        return citaRepo.findAll().stream()
+    public PaginaDTO<ItemCitaMedicaDTO> listarTodasLasCitas(EstadoCita estado, String cursor, int tamano) {
+        if (tamano < 1) {
+            throw new IllegalArgumentException("El tamaño de página debe ser mayor que cero");
+        }
+
+        // Más recientes primero; el orden y el corte los resuelve Mongo con el índice
+        List<CitaMedica> citas = citaRepo.buscarPaginaRecientes(estado, decodificarPosicion(cursor), tamano + 1);
+        boolean haySiguiente = citas.size() > tamano;
+        if (haySiguiente) {
+            citas = citas.subList(0, tamano);
+        }
+
+        List<ItemCitaMedicaDTO> contenido = citas.stream()
                 .map(this::convertToItemDTO)
-                .sorted((c1, c2) -> {
-                    // Ordenar por fecha y hora descendente (más recientes primero)
-                    int compareFecha = c2.horario().getFecha().compareTo(c1.horario().getFecha());
-                    if (compareFecha != 0) return compareFecha;
-                    return c2.horario().getHoraInicio().compareTo(c1.horario().getHoraInicio());
-                })
                 .collect(Collectors.toList());
+        String siguienteCursor = haySiguiente ? codificarPosicion(citas.get(citas.size() - 1)) : null;
+
+        return new PaginaDTO<>(contenido, siguienteCursor);
     }
 
     @Override
@@ -195,42 +276,30 @@ public class CitaMedicaServiceImpl implements CitaMedicaService {
 
     @Override
     public Map<String, Long> obtenerEstadisticas() {
-        List<CitaMedica> todasLasCitas = citaRepo.findAll();
-
-        Map<String, Long> estadisticas = new HashMap<>();
-
-        // Contar por estado
-        estadisticas.put("total", (long) todasLasCitas.size());
-        estadisticas.put("pendientes", todasLasCitas.stream()
-                .filter(c -> c.getEstado() == EstadoCita.PENDIENTE)
-                .count());
-        estadisticas.put("vistas", todasLasCitas.stream()
-                .filter(c -> c.getEstado() == EstadoCita.VISTA)
-                .count());
-        estadisticas.put("canceladas", todasLasCitas.stream()
-                .filter(c -> c.getEstado() == EstadoCita.CANCELADA)
-                .count());
-
-        // Citas de hoy
-        LocalDate hoy = LocalDate.now();
-        estadisticas.put("citasHoy", todasLasCitas.stream()
-                .filter(c -> c.getHorario().getFecha().equals(hoy))
-                .count());
-
-        // Citas futuras pendientes
-        LocalDateTime ahora = LocalDateTime.now();
-        estadisticas.put("citasFuturasPendientes", todasLasCitas.stream()
-                .filter(c -> c.getEstado() == EstadoCita.PENDIENTE)
-                .filter(c -> {
-                    LocalDateTime fechaCita = LocalDateTime.of(
-                            c.getHorario().getFecha(),
-                            c.getHorario().getHoraInicio()
-                    );
-                    return fechaCita.isAfter(ahora);
-                })
-                .count());
-
-        return estadisticas;
+        // Lectura de los contadores materializados; no recorre la colección de citas
+        return contadorService.obtenerEstadisticas();
+    }
+
+    @Override
+    public long exportarCitas(FiltroCitasDTO filtro, OutputStream salida) throws IOException {
+        ObjectWriter writer = objectMapper.writerFor(ItemCitaMedicaDTO.class);
+        long exportadas = 0;
+
+        // Una línea JSON por cita; el cursor solo pide el siguiente lote cuando el cliente consumió el anterior
+        try (Stream<CitaMedica> citas = citaRepo.streamCitas(convertToFiltroCitas(filtro), TAMANO_LOTE_EXPORTACION)) {
+            Iterator<CitaMedica> iterador = citas.iterator();
+            while (iterador.hasNext()) {
+                salida.write(writer.writeValueAsBytes(convertToItemDTO(iterador.next())));
+                salida.write('\n');
+
+                if (++exportadas % TAMANO_LOTE_EXPORTACION == 0) {
+                    salida.flush();
+                }
+            }
+        }
+
+        salida.flush();
+        return exportadas;
     }
 
     // ==================== MÉTODOS AUXILIARES ====================
@@ -241,54 +310,54 @@ public class CitaMedicaServiceImpl implements CitaMedicaService {
                 .orElseThrow(() -> new ResourceNotFoundException("Cita médica no encontrada con ID: " + id));
     }
 
-    private Medico obtenerMedicoPorId(String id) {
-        return medicoRepo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Médico no encontrado con ID: " + id));
-    }
-
-    private Paciente obtenerPacientePorId(String id) {
-        return pacienteRepo.findById(id)
-                .orElseThrow(() -> new ResourceNotFoundException("Paciente no encontrado con ID: " + id));
+    private void validarMedicoExiste(String id) {
+        if (!medicoRepo.existsById(id)) {
+            throw new ResourceNotFoundException("Médico no encontrado con ID: " + id);
+        }
     }
 
-    private HorarioMedico buscarYReservarHorario(Medico medico, ItemHorarioDTO horarioDTO) {
-        HorarioMedico horarioSeleccionado = medico.getHorariosDisponibles().stream()
-                .filter(h -> horarioCoincide(h, horarioDTO))
-                .findFirst()
-                .orElseThrow(() -> new ResourceNotFoundException("Horario no disponible para el médico seleccionado"));
+    private HorarioMedico reservarHorario(String idMedico, ItemHorarioDTO horarioDTO) {
+        ObjectId medicoId = new ObjectId(idMedico);
+        long reservados = horarioRepo.reservarHorario(
+                medicoId,
+                horarioDTO.fecha(),
+                horarioDTO.horaInicio(),
+                horarioDTO.horaFin()
+        );
 
-        if (horarioSeleccionado.isReservado()) {
+        if (reservados == 0) {
+            // La reserva no aplicó: determinar el motivo para conservar los mensajes de error
+            validarMedicoExiste(idMedico);
+            boolean existeHorario = horarioRepo.existsByIdMedicoAndFechaAndHoraInicioAndHoraFin(
+                    medicoId,
+                    horarioDTO.fecha(),
+                    horarioDTO.horaInicio(),
+                    horarioDTO.horaFin()
+            );
+
+            if (!existeHorario) {
+                throw new ResourceNotFoundException("Horario no disponible para el médico seleccionado");
+            }
+            metricas.registrarReserva(ResultadoReserva.HORARIO_RESERVADO);
             throw new IllegalStateException("El horario ya está reservado");
         }
 
-        horarioSeleccionado.setReservado(true);
-        medicoRepo.save(medico);
-
-        return horarioSeleccionado;
+        return HorarioMedico.builder()
+                .fecha(horarioDTO.fecha())
+                .horaInicio(horarioDTO.horaInicio())
+                .horaFin(horarioDTO.horaFin())
+                .reservado(true)
+                .build();
     }
 
     private void liberarHorarioCita(CitaMedica cita) {
-        Medico medico = obtenerMedicoPorId(cita.getIdMedico().toHexString());
-
-        medico.getHorariosDisponibles().stream()
-                .filter(h -> horarioCoincide(h, cita.getHorario()))
-                .findFirst()
-                .ifPresent(h -> {
-                    h.setReservado(false);
-                    medicoRepo.save(medico);
-                });
-    }
-
-    private boolean horarioCoincide(HorarioMedico h1, ItemHorarioDTO h2) {
-        return h1.getFecha().equals(h2.fecha())
-                && h1.getHoraInicio().equals(h2.horaInicio())
-                && h1.getHoraFin().equals(h2.horaFin());
-    }
-
-    private boolean horarioCoincide(HorarioMedico h1, HorarioMedico h2) {
-        return h1.getFecha().equals(h2.getFecha())
-                && h1.getHoraInicio().equals(h2.getHoraInicio())
-                && h1.getHoraFin().equals(h2.getHoraFin());
+        HorarioMedico horario = cita.getHorario();
+        horarioRepo.liberarHorario(
+                cita.getIdMedico(),
+                horario.getFecha(),
+                horario.getHoraInicio(),
+                horario.getHoraFin()
+        );
     }
 
     private void validarObjectId(String id, String nombreCampo) {
@@ -309,26 +378,50 @@ public class CitaMedicaServiceImpl implements CitaMedicaService {
     }
 
     private void validarDisponibilidadPaciente(String idPaciente, ItemHorarioDTO horario) {
-        ObjectId pacienteId = new ObjectId(idPaciente);
-        List<CitaMedica> citasPaciente = citaRepo.findByIdCliente(pacienteId);
-
-        boolean tieneConflicto = citasPaciente.stream()
-                .filter(c -> c.getEstado() == EstadoCita.PENDIENTE || c.getEstado() == EstadoCita.VISTA)
-                .anyMatch(c -> horariosSeSolapan(c.getHorario(), horario));
+        boolean tieneConflicto = citaRepo.existeCitaSolapadaPaciente(
+                new ObjectId(idPaciente),
+                horario.fecha(),
+                ESTADOS_ACTIVOS,
+                horario.horaInicio(),
+                horario.horaFin()
+        );
 
         if (tieneConflicto) {
+            metricas.registrarReserva(ResultadoReserva.CONFLICTO_PACIENTE);
             throw new IllegalStateException("El paciente ya tiene una cita agendada en ese horario");
         }
     }
 
-    private boolean horariosSeSolapan(HorarioMedico h1, ItemHorarioDTO h2) {
-        if (!h1.getFecha().equals(h2.fecha())) {
-            return false;
+    private FiltroCitas convertToFiltroCitas(FiltroCitasDTO filtro) {
+        return new FiltroCitas(
+                filtro.estado(),
+                filtro.idMedico() != null ? new ObjectId(filtro.idMedico()) : null,
+                filtro.idPaciente() != null ? new ObjectId(filtro.idPaciente()) : null,
+                filtro.desde(),
+                filtro.hasta()
+        );
+    }
+
+    private PosicionCita decodificarPosicion(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+
+        String[] valores = CursorPaginacion.decodificar(cursor, 3);
+        validarObjectId(valores[2], "Cursor de paginación");
+        try {
+            return new PosicionCita(LocalDate.parse(valores[0]), LocalTime.parse(valores[1]), valores[2]);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido", e);
         }
+    }
 
-        // Verificar si los horarios se solapan
-        return !h1.getHoraFin().isBefore(h2.horaInicio())
-                && !h2.horaFin().isBefore(h1.getHoraInicio());
+    private String codificarPosicion(CitaMedica cita) {
+        return CursorPaginacion.codificar(
+                cita.getHorario().getFecha().toString(),
+                cita.getHorario().getHoraInicio().toString(),
+                cita.getId()
+        );
     }
 
     private ItemCitaMedicaDTO convertToItemDTO(CitaMedica cita) {
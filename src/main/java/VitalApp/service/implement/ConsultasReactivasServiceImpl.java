@@ -0,0 +1,115 @@
+package VitalApp.service.implement;
+
+import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
+import VitalApp.dto.medico.ItemHorarioDTO;
+import VitalApp.exception.ResourceNotFoundException;
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.Horario;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.repository.CitaMedicaRepositoryReactivo;
+import VitalApp.repository.FiltroCitas;
+import VitalApp.repository.HorarioRepositoryReactivo;
+import VitalApp.repository.MedicoRepositoryReactivo;
+import VitalApp.repository.PacienteRepositoryReactivo;
+import VitalApp.service.service.ConsultasReactivasService;
+import lombok.RequiredArgsConstructor;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Variante reactiva de las lecturas más consultadas (listado de citas, horarios disponibles e
+ * historial del paciente), con los mismos filtros y el mismo orden que los servicios MVC. Ningún hilo
+ * espera a Mongo: cada elemento se entrega cuando llega del cursor y el cursor solo avanza a medida
+ * que el cliente consume. Solo existe con Mongo; el perfil memoria no tiene driver reactivo.
+ */
+@Service
+@Profile("!memoria")
+@RequiredArgsConstructor
+public class ConsultasReactivasServiceImpl implements ConsultasReactivasService {
+
+    private final CitaMedicaRepositoryReactivo citaRepo;
+    private final HorarioRepositoryReactivo horarioRepo;
+    private final MedicoRepositoryReactivo medicoRepo;
+    private final PacienteRepositoryReactivo pacienteRepo;
+
+    @Override
+    public Flux<ItemCitaMedicaDTO> listarCitasRecientes(EstadoCita estado, int limite) {
+        if (limite < 1) {
+            throw new IllegalArgumentException("El límite debe ser mayor que cero");
+        }
+        return citaRepo.buscarRecientes(estado, limite).map(this::convertToItemDTO);
+    }
+
+    @Override
+    public Flux<ItemHorarioDTO> listarHorariosDisponibles(String idMedico, LocalDate fecha) {
+        validarObjectId(idMedico, "ID de médico");
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate desde = fecha != null && fecha.isAfter(ahora.toLocalDate()) ? fecha : ahora.toLocalDate();
+
+        Flux<Horario> horarios = horarioRepo
+                .findByIdMedicoAndReservadoFalseAndFechaGreaterThanEqualOrderByFechaAscHoraInicioAsc(new ObjectId(idMedico), desde)
+                .filter(h -> LocalDateTime.of(h.getFecha(), h.getHoraInicio()).isAfter(ahora));
+        if (fecha != null) {
+            // Vienen ordenados por fecha: al pasar el día pedido se cancela el cursor
+            horarios = horarios.takeWhile(h -> h.getFecha().equals(fecha));
+        }
+
+        return exigir(medicoRepo.existsById(idMedico), "Médico no encontrado con ID: " + idMedico)
+                .thenMany(horarios)
+                .map(this::convertToItemHorarioDTO);
+    }
+
+    @Override
+    public Flux<ItemCitaMedicaDTO> listarHistorialPaciente(String idPaciente) {
+        validarObjectId(idPaciente, "ID de paciente");
+        FiltroCitas filtro = new FiltroCitas(null, null, new ObjectId(idPaciente), null, null);
+
+        return exigir(pacienteRepo.existsById(idPaciente), "Paciente no encontrado con ID: " + idPaciente)
+                .thenMany(citaRepo.buscarCitas(filtro))
+                .map(this::convertToItemDTO);
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    /** Falla antes del primer elemento, así el error llega como respuesta completa y no a mitad del stream. */
+    private Mono<Void> exigir(Mono<Boolean> existe, String mensaje) {
+        return existe.flatMap(encontrado -> encontrado
+                ? Mono.<Void>empty()
+                : Mono.error(new ResourceNotFoundException(mensaje)));
+    }
+
+    private void validarObjectId(String id, String nombreCampo) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException(nombreCampo + " no puede estar vacío");
+        }
+        if (!ObjectId.isValid(id)) {
+            throw new IllegalArgumentException(nombreCampo + " no es un ObjectId válido: " + id);
+        }
+    }
+
+    private ItemCitaMedicaDTO convertToItemDTO(CitaMedica cita) {
+        return new ItemCitaMedicaDTO(
+                cita.getId(),
+                cita.getIdCliente(),
+                cita.getIdMedico(),
+                cita.getHorario(),
+                cita.getEstado(),
+                cita.getResultado()
+        );
+    }
+
+    private ItemHorarioDTO convertToItemHorarioDTO(Horario horario) {
+        return new ItemHorarioDTO(
+                horario.getFecha(),
+                horario.getHoraInicio(),
+                horario.getHoraFin(),
+                horario.isReservado()
+        );
+    }
+}
@@ -0,0 +1,156 @@
+package VitalApp.service.implement;
+
+import VitalApp.dto.citaMedica.DesviacionContadorDTO;
+import VitalApp.dto.citaMedica.ReconciliacionContadoresDTO;
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.ContadorCitasRepository;
+import VitalApp.service.service.ContadorCitasService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ContadorCitasServiceImpl implements ContadorCitasService {
+
+    private final ContadorCitasRepository contadorRepo;
+    private final CitaMedicaRepository citaRepo;
+
+    @Override
+    public void registrarNuevaCita(CitaMedica cita) {
+        Map<EstadoCita, Long> deltas = Map.of(cita.getEstado(), 1L);
+        for (ContadorCitas contador : contadoresDeCita(cita)) {
+            contadorRepo.incrementar(contador, 1, deltas);
+        }
+    }
+
+    @Override
+    public void registrarCambioEstado(CitaMedica cita, EstadoCita estadoAnterior) {
+        if (estadoAnterior == cita.getEstado()) {
+            return;
+        }
+
+        Map<EstadoCita, Long> deltas = new EnumMap<>(EstadoCita.class);
+        deltas.put(estadoAnterior, -1L);
+        deltas.put(cita.getEstado(), 1L);
+
+        for (ContadorCitas contador : contadoresDeCita(cita)) {
+            contadorRepo.incrementar(contador, 0, deltas);
+        }
+    }
+
+    @Override
+    public Map<String, Long> obtenerEstadisticas() {
+        LocalDateTime ahora = LocalDateTime.now();
+        LocalDate hoy = ahora.toLocalDate();
+
+        ContadorCitas global = contadorRepo.findById(ContadorCitas.global().getId())
+                .orElseGet(ContadorCitas::global);
+        ContadorCitas delDia = contadorRepo.findById(ContadorCitas.delDia(hoy).getId())
+                .orElseGet(() -> ContadorCitas.delDia(hoy));
+
+        // Días posteriores salen de los contadores; las de hoy dependen de la hora y se cuentan con el índice
+        long futurasPendientes = contadorRepo.sumarPendientesDespuesDe(hoy)
+                + citaRepo.countByEstadoAndHorarioFechaAndHorarioHoraInicioGreaterThan(
+                        EstadoCita.PENDIENTE, hoy, ahora.toLocalTime());
+
+        Map<String, Long> estadisticas = new HashMap<>();
+        estadisticas.put("total", global.getTotal());
+        estadisticas.put("pendientes", global.contar(EstadoCita.PENDIENTE));
+        estadisticas.put("vistas", global.contar(EstadoCita.VISTA));
+        estadisticas.put("canceladas", global.contar(EstadoCita.CANCELADA));
+        estadisticas.put("citasHoy", delDia.getTotal());
+        estadisticas.put("citasFuturasPendientes", futurasPendientes);
+        return estadisticas;
+    }
+
+    @Override
+    public ReconciliacionContadoresDTO reconciliarContadores() {
+        // Los contadores se leen antes que las citas: una reserva o cancelación posterior a esta lectura
+        // cambia el contador y su corrección se descarta en lugar de deshacer la actualización real
+        Map<String, ContadorCitas> registrados = contadorRepo.findAll().stream()
+                .collect(Collectors.toMap(ContadorCitas::getId, Function.identity()));
+        Map<String, ContadorCitas> esperados = citaRepo.calcularContadores().stream()
+                .collect(Collectors.toMap(ContadorCitas::getId, Function.identity()));
+
+        Set<String> ids = new LinkedHashSet<>(esperados.keySet());
+        ids.addAll(registrados.keySet());
+
+        List<DesviacionContadorDTO> desviaciones = new ArrayList<>();
+        int corregidos = 0;
+
+        for (String id : ids) {
+            ContadorCitas esperado = esperados.get(id);
+            ContadorCitas registrado = registrados.get(id);
+            ContadorCitas descriptor = esperado != null ? esperado : registrado;
+
+            long totalEsperado = esperado != null ? esperado.getTotal() : 0L;
+            long totalRegistrado = registrado != null ? registrado.getTotal() : 0L;
+            if (totalEsperado != totalRegistrado) {
+                desviaciones.add(new DesviacionContadorDTO(id, "total", totalRegistrado, totalEsperado));
+            }
+
+            Map<EstadoCita, Long> deltas = new EnumMap<>(EstadoCita.class);
+            for (EstadoCita estado : EstadoCita.values()) {
+                long esperadoEstado = esperado != null ? esperado.contar(estado) : 0L;
+                long registradoEstado = registrado != null ? registrado.contar(estado) : 0L;
+                if (esperadoEstado != registradoEstado) {
+                    deltas.put(estado, esperadoEstado - registradoEstado);
+                    desviaciones.add(new DesviacionContadorDTO(id, estado.name(), registradoEstado, esperadoEstado));
+                }
+            }
+
+            // Solo se corrige si el contador no cambió desde la lectura; si cambió, la desviación se reporta
+            // y queda para la siguiente reconciliación
+            if ((totalEsperado != totalRegistrado || !deltas.isEmpty())
+                    && contadorRepo.incrementarSiSinCambios(descriptor, registrado, totalEsperado - totalRegistrado, deltas)) {
+                corregidos++;
+            }
+        }
+
+        return new ReconciliacionContadoresDTO(ids.size(), corregidos, desviaciones);
+    }
+
+    @Scheduled(cron = "${vitalapp.contadores.reconciliacion.cron:0 0 3 * * *}")
+    public void reconciliacionProgramada() {
+        ReconciliacionContadoresDTO reporte = reconciliarContadores();
+
+        if (reporte.desviaciones().isEmpty()) {
+            log.info("Contadores de citas reconciliados sin desviaciones ({} contadores)", reporte.contadoresRevisados());
+        } else {
+            log.warn("Contadores de citas con desviación corregidos: {} de {}. Detalle: {}",
+                    reporte.contadoresCorregidos(), reporte.contadoresRevisados(), reporte.desviaciones());
+        }
+    }
+
+    // ==================== MÉTODOS AUXILIARES ====================
+
+    private List<ContadorCitas> contadoresDeCita(CitaMedica cita) {
+        List<ContadorCitas> contadores = new ArrayList<>(3);
+        contadores.add(ContadorCitas.global());
+        if (cita.getHorario() != null && cita.getHorario().getFecha() != null) {
+            contadores.add(ContadorCitas.delDia(cita.getHorario().getFecha()));
+        }
+        if (cita.getIdMedico() != null) {
+            contadores.add(ContadorCitas.delMedico(cita.getIdMedico()));
+        }
+        return contadores;
+    }
+}
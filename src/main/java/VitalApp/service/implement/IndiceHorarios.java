@@ -0,0 +1,140 @@
+package VitalApp.service.implement;
+
+import VitalApp.model.documents.Horario;
+import VitalApp.repository.HorarioRepository;
+import VitalApp.utils.IndiceIntervalos;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Índice en memoria de los intervalos de cada médico por día: decide si un horario nuevo se solapa sin
+ * consultar Mongo. Se carga bajo demanda desde la colección horario y se mantiene al agregar y eliminar
+ * horarios en esta instancia. Es local a cada instancia: hasta que su entrada expire
+ * ({@code vitalapp.horarios.indice.expiracion}, contada desde la carga aunque se siga usando) no ve los
+ * horarios que otra instancia agregue o elimine ese día. Lo que sí cubre la base es un horario con la
+ * misma hora de inicio, que rechaza el índice único medico_fecha_horaInicio al insertar; un solape con
+ * otra hora de inicio escrito desde otra instancia dentro de esa ventana no se detecta. Solo guarda
+ * intervalos, no el estado de reserva, así que nunca interviene en la decisión de reservar una cita.
+ * <p>
+ * La caché guarda la carga en curso de cada día, no solo el resultado: invalidar o registrar un horario
+ * mientras se carga descarta esa carga, y quien la esperaba vuelve a leer en vez de quedarse con un índice
+ * leído antes de la escritura.
+ */
+@Component
+public class IndiceHorarios {
+
+    private final HorarioRepository horarioRepo;
+    private final AsyncCache<ClaveDia, IndiceIntervalos> indices;
+
+    public IndiceHorarios(HorarioRepository horarioRepo,
+                          @Value("${vitalapp.horarios.indice.tamano-maximo:10000}") long tamanoMaximo,
+                          @Value("${vitalapp.horarios.indice.expiracion:1m}") Duration expiracion) {
+        this.horarioRepo = horarioRepo;
+        this.indices = Caffeine.newBuilder()
+                .maximumSize(tamanoMaximo)
+                .expireAfterWrite(expiracion)
+                .buildAsync();
+    }
+
+    public IndiceIntervalos obtener(ObjectId idMedico, LocalDate fecha) {
+        ClaveDia clave = new ClaveDia(idMedico, fecha);
+        // Se publica la carga antes de consultar y la consulta corre en este hilo, fuera del lock de la
+        // entrada (con hilos virtuales, esperar a Mongo dentro de ese lock fija el hilo a su portador).
+        // Quien llegue mientras tanto espera esta misma carga en vez de repetirla
+        CompletableFuture<IndiceIntervalos> carga = new CompletableFuture<>();
+        CompletableFuture<IndiceIntervalos> existente = indices.asMap().putIfAbsent(clave, carga);
+        CompletableFuture<IndiceIntervalos> usada = existente != null ? existente : carga;
+        if (existente == null) {
+            try {
+                carga.complete(leer(idMedico, fecha));
+            } catch (RuntimeException e) {
+                // Caffeine quita de la caché las cargas fallidas
+                carga.completeExceptionally(e);
+                throw e;
+            }
+        }
+        IndiceIntervalos indice = usada.join();
+        if (indices.asMap().get(clave) != usada) {
+            // Se invalidó durante la carga: lo leído puede ser anterior a la escritura que la invalidó
+            return leer(idMedico, fecha);
+        }
+        return indice;
+    }
+
+    /**
+     * Índices recién leídos de Mongo para varios días, con una sola consulta y sin pasar por la caché:
+     * quien los recibe puede modificarlos y publicarlos después con {@link #publicar}.
+     */
+    public Map<LocalDate, IndiceIntervalos> cargar(ObjectId idMedico, Collection<LocalDate> fechas) {
+        Map<LocalDate, List<Horario>> porFecha = horarioRepo.findByIdMedicoAndFechaIn(idMedico, List.copyOf(fechas))
+                .stream()
+                .collect(Collectors.groupingBy(Horario::getFecha));
+
+        Map<LocalDate, IndiceIntervalos> cargados = new HashMap<>();
+        for (LocalDate fecha : fechas) {
+            cargados.put(fecha, construir(porFecha.getOrDefault(fecha, List.of())));
+        }
+        return cargados;
+    }
+
+    /** Reemplaza el índice del día por uno construido fuera de la caché (ver {@link #cargar}). */
+    public void publicar(ObjectId idMedico, LocalDate fecha, IndiceIntervalos indice) {
+        indices.put(new ClaveDia(idMedico, fecha), CompletableFuture.completedFuture(indice));
+    }
+
+    public void registrar(Horario horario) {
+        actualizar(new ClaveDia(horario.getIdMedico(), horario.getFecha()),
+                indice -> indice.agregar(horario.getHoraInicio(), horario.getHoraFin()));
+    }
+
+    public void quitar(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio) {
+        actualizar(new ClaveDia(idMedico, fecha), indice -> indice.quitar(horaInicio));
+    }
+
+    public void invalidar(ObjectId idMedico, LocalDate fecha) {
+        indices.asMap().remove(new ClaveDia(idMedico, fecha));
+    }
+
+    public void invalidar(ObjectId idMedico) {
+        indices.asMap().keySet().removeIf(clave -> clave.idMedico().equals(idMedico));
+    }
+
+    /** Aplica el cambio a un índice ya cargado; una carga en curso puede no verlo, así que se descarta. */
+    private void actualizar(ClaveDia clave, Consumer<IndiceIntervalos> cambio) {
+        CompletableFuture<IndiceIntervalos> futuro = indices.getIfPresent(clave);
+        if (futuro == null) {
+            return;
+        }
+        if (futuro.isDone() && !futuro.isCompletedExceptionally()) {
+            cambio.accept(futuro.join());
+        } else {
+            indices.asMap().remove(clave, futuro);
+        }
+    }
+
+    private IndiceIntervalos leer(ObjectId idMedico, LocalDate fecha) {
+        return construir(horarioRepo.findByIdMedicoAndFecha(idMedico, fecha));
+    }
+
+    private IndiceIntervalos construir(List<Horario> horarios) {
+        IndiceIntervalos indice = new IndiceIntervalos();
+        horarios.forEach(h -> indice.agregar(h.getHoraInicio(), h.getHoraFin()));
+        return indice;
+    }
+
+    record ClaveDia(ObjectId idMedico, LocalDate fecha) {}
+}
@@ -1,74 +1,107 @@
 package VitalApp.service.implement;
 
+import VitalApp.config.CacheConfig;
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.medico.*;
 import VitalApp.exception.ResourceNotFoundException;
 import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.Horario;
 import VitalApp.model.documents.Medico;
 import VitalApp.model.enums.EstadoCita;
-import VitalApp.model.vo.HorarioMedico;
 import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.HorarioRepository;
 import VitalApp.repository.MedicoRepository;
 import VitalApp.service.service.MedicoService;
+import VitalApp.utils.BusquedaTexto;
+import VitalApp.utils.CursorPaginacion;
+import VitalApp.utils.IndiceIntervalos;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "vitalapp.servicio.medicos", histogram = true)
 public class MedicoServiceImpl implements MedicoService {
 
+    private static final int TAMANO_LOTE_HORARIOS = 1000;
+    private static final int MAXIMO_DIAS_PLANTILLA = 366;
+
     private final MedicoRepository medicoRepo;
     private final CitaMedicaRepository citaRepo;
+    private final HorarioRepository horarioRepo;
+    private final IndiceHorarios indiceHorarios;
 
     @Override
+    @CacheEvict(cacheNames = {CacheConfig.LISTA_MEDICOS, CacheConfig.ESPECIALIDADES}, allEntries = true)
     public String crearMedico(CrearMedicoDTO medicoDTO) {
         // Validar nombre no vacío (aunque ya viene validado por @NotBlank)
         validarNombre(medicoDTO.nombre());
 
-        // Verificar si ya existe un médico con ese nombre
-        if (existeNombre(medicoDTO.nombre())) {
-            throw new IllegalStateException("Ya existe un médico registrado con el nombre: " + medicoDTO.nombre());
-        }
-
         Medico nuevoMedico = Medico.builder()
                 .nombre(medicoDTO.nombre().trim())
                 .especialidad(medicoDTO.especialidad().trim())
-                .horariosDisponibles(new ArrayList<>())
                 .build();
 
-        return medicoRepo.save(nuevoMedico).getId();
+        // Una sola escritura: el índice único sobre el nombre normalizado rechaza los repetidos
+        try {
+            return medicoRepo.insert(nuevoMedico).getId();
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Ya existe un médico registrado con el nombre: " + medicoDTO.nombre());
+        }
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MEDICOS, key = "#medicoDTO.id()"),
+            @CacheEvict(cacheNames = {CacheConfig.LISTA_MEDICOS, CacheConfig.ESPECIALIDADES}, allEntries = true)
+    })
     public String editarMedico(EditarMedicoDTO medicoDTO) {
         Medico medico = obtenerMedicoPorId(medicoDTO.id());
 
         // Validar nombre
         validarNombre(medicoDTO.nombre());
 
-        // Verificar si el nuevo nombre ya existe en otro médico
-        if (existeNombre(medicoDTO.nombre())) {
-            Medico medicoConMismoNombre = medicoRepo.findByNombre(medicoDTO.nombre()).orElse(null);
-            if (medicoConMismoNombre != null && !medicoConMismoNombre.getId().equals(medicoDTO.id())) {
-                throw new IllegalStateException("Ya existe otro médico con el nombre: " + medicoDTO.nombre());
-            }
-        }
-
         medico.setNombre(medicoDTO.nombre().trim());
         medico.setEspecialidad(medicoDTO.especialidad().trim());
 
-        return medicoRepo.save(medico).getId();
+        try {
+            return medicoRepo.save(medico).getId();
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Ya existe otro médico con el nombre: " + medicoDTO.nombre());
+        }
     }
 
     @Override
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.MEDICOS, key = "#id"),
+            @CacheEvict(cacheNames = {CacheConfig.LISTA_MEDICOS, CacheConfig.ESPECIALIDADES}, allEntries = true)
+    })
     public String eliminarMedico(String id) {
         Medico medico = obtenerMedicoPorId(id);
 
@@ -86,11 +119,14 @@ public class MedicoServiceImpl implements MedicoService {
             );
         }
 
+        horarioRepo.deleteByIdMedico(medicoObjectId);
+        indiceHorarios.invalidar(medicoObjectId);
         medicoRepo.delete(medico);
         return id;
     }
 
     @Override
+    @Cacheable(CacheConfig.MEDICOS)
     public InformacionMedicoDTO obtenerInformacionMedico(String id) {
         Medico medico = obtenerMedicoPorId(id);
         return new InformacionMedicoDTO(
@@ -101,24 +137,63 @@ public class MedicoServiceImpl implements MedicoService {
     }
 
     @Override
+    @Cacheable(CacheConfig.LISTA_MEDICOS)
     public List<ItemMedicoDTO> listarMedicos() {
+        // Lista inmutable: la misma instancia se comparte entre peticiones desde la caché
         return medicoRepo.findAll()
                 .stream()
+                .map(m -> new ItemMedicoDTO(
+                        m.getId(),
+                        m.getNombre(),
+                        m.getEspecialidad()
+                ))
+                .toList();
+    }
+
+    @Override
+    public PaginaDTO<ItemMedicoDTO> listarMedicos(int pagina, int tamano, String cursor) {
+        List<Medico> medicos;
+        boolean haySiguiente;
+
+        if (cursor != null && !cursor.isBlank()) {
+            // Keyset sobre _id: cuesta lo mismo en cualquier profundidad
+            String ultimoId = CursorPaginacion.decodificar(cursor, 1)[0];
+            validarObjectId(ultimoId);
+            medicos = medicoRepo.findByIdGreaterThanOrderByIdAsc(ultimoId, Limit.of(tamano + 1));
+            haySiguiente = medicos.size() > tamano;
+            if (haySiguiente) {
+                medicos = medicos.subList(0, tamano);
+            }
+        } else {
+            Slice<Medico> slice = medicoRepo.findAllBy(PageRequest.of(pagina, tamano, Sort.by("id")));
+            medicos = slice.getContent();
+            haySiguiente = slice.hasNext();
+        }
+
+        List<ItemMedicoDTO> contenido = medicos.stream()
                 .map(m -> new ItemMedicoDTO(
                         m.getId(),
                         m.getNombre(),
                         m.getEspecialidad()
                 ))
                 .collect(Collectors.toList());
+        String siguienteCursor = haySiguiente
+                ? CursorPaginacion.codificar(medicos.get(medicos.size() - 1).getId())
+                : null;
+
+        return new PaginaDTO<>(contenido, siguienteCursor);
     }
 
     @Override
-    public List<ItemMedicoDTO> buscarMedicosPorEspecialidad(String especialidad) {
-        if (especialidad == null || especialidad.trim().isEmpty()) {
+    public List<ItemMedicoDTO> buscarMedicosPorEspecialidad(String especialidad, int limite) {
+        List<String> terminos = BusquedaTexto.terminosConsulta(especialidad);
+        if (terminos.isEmpty()) {
             throw new IllegalArgumentException("La especialidad no puede estar vacía");
         }
 
-        return medicoRepo.findByEspecialidadContainingIgnoreCase(especialidad.trim())
+        List<Medico> candidatos = medicoRepo.buscarPorTerminosEspecialidad(
+                terminos, PageRequest.of(0, BusquedaTexto.candidatos(limite)));
+        return BusquedaTexto.ordenar(especialidad, candidatos, Medico::getEspecialidad, limite)
                 .stream()
                 .map(m -> new ItemMedicoDTO(
                         m.getId(),
@@ -129,57 +204,238 @@ public class MedicoServiceImpl implements MedicoService {
     }
 
     @Override
-    public String agregarHorario(String idMedico, CrearHorarioDTO horarioDTO) {
-        Medico medico = obtenerMedicoPorId(idMedico);
+    public List<ItemMedicoDTO> buscarMedicosPorNombre(String nombre, int limite) {
+        List<String> terminos = BusquedaTexto.terminosConsulta(nombre);
+        if (terminos.isEmpty()) {
+            throw new IllegalArgumentException("El nombre de búsqueda no puede estar vacío");
+        }
 
-        // Validar que el horario sea futuro
-        validarHorarioFuturo(horarioDTO);
+        List<Medico> candidatos = medicoRepo.buscarCandidatosPorNombre(
+                terminos, BusquedaTexto.normalizar(nombre), BusquedaTexto.candidatos(limite));
+        return BusquedaTexto.ordenar(nombre, candidatos, Medico::getNombre, limite)
+                .stream()
+                .map(m -> new ItemMedicoDTO(
+                        m.getId(),
+                        m.getNombre(),
+                        m.getEspecialidad()
+                ))
+                .collect(Collectors.toList());
+    }
 
-        // Validar rango horario
-        if (!horarioDTO.horaInicio().isBefore(horarioDTO.horaFin())) {
-            throw new IllegalArgumentException("La hora de inicio debe ser anterior a la hora fin");
-        }
+    @Override
+    @Cacheable(CacheConfig.ESPECIALIDADES)
+    public List<String> listarEspecialidades() {
+        return medicoRepo.findAll()
+                .stream()
+                .map(Medico::getEspecialidad)
+                .filter(Objects::nonNull)
+                .distinct()
+                .sorted()
+                .toList();
+    }
 
-        // Validar horarios razonables (ej: no más de 12 horas continuas)
-        long horas = Duration.between(horarioDTO.horaInicio(), horarioDTO.horaFin()).toHours();
-        if (horas > 12) {
-            throw new IllegalArgumentException("Un horario no puede durar más de 12 horas continuas");
-        }
+    @Override
+    public String agregarHorario(String idMedico, CrearHorarioDTO horarioDTO) {
+        validarMedicoExiste(idMedico);
+        validarDatosHorario(horarioDTO);
 
-        HorarioMedico nuevoHorario = HorarioMedico.builder()
+        Horario nuevoHorario = Horario.builder()
+                .idMedico(new ObjectId(idMedico))
                 .fecha(horarioDTO.fecha())
                 .horaInicio(horarioDTO.horaInicio())
                 .horaFin(horarioDTO.horaFin())
                 .reservado(false)
                 .build();
 
-        // Validar solapamiento con horarios existentes
-        validarSolapamientoHorarios(medico, nuevoHorario);
+        // Validar solapamiento con horarios existentes; el horario queda apartado en el índice del día
+        IndiceIntervalos delDia = apartarHorario(nuevoHorario);
+
+        try {
+            horarioRepo.insert(nuevoHorario);
+            // Por si el día se recargó de Mongo antes de esta inserción
+            indiceHorarios.registrar(nuevoHorario);
+        } catch (DuplicateKeyException e) {
+            // Otra instancia insertó la misma hora de inicio sin que este índice lo viera: se recarga el día
+            indiceHorarios.invalidar(nuevoHorario.getIdMedico(), nuevoHorario.getFecha());
+            throw new IllegalStateException(
+                    "El horario se solapa con un horario existente en la fecha " + nuevoHorario.getFecha()
+            );
+        } catch (RuntimeException e) {
+            delDia.quitar(nuevoHorario.getHoraInicio());
+            throw e;
+        }
+        return idMedico;
+    }
+
+    @Override
+    public ResultadoLoteHorariosDTO agregarHorarios(String idMedico, List<CrearHorarioDTO> horarios) {
+        validarMedicoExiste(idMedico);
+        ObjectId medicoId = new ObjectId(idMedico);
+
+        // Validaciones individuales; los válidos se agrupan por día
+        String[] motivos = new String[horarios.size()];
+        Map<LocalDate, List<Integer>> candidatosPorFecha = new HashMap<>();
+        for (int i = 0; i < horarios.size(); i++) {
+            try {
+                validarDatosHorario(horarios.get(i));
+                candidatosPorFecha.computeIfAbsent(horarios.get(i).fecha(), f -> new ArrayList<>()).add(i);
+            } catch (IllegalArgumentException e) {
+                motivos[i] = e.getMessage();
+            }
+        }
+
+        // Índices de los días afectados leídos de Mongo con una sola consulta: son copias propias, así que el
+        // barrido puede modificarlos sin tocar los compartidos hasta que la escritura termine
+        Map<LocalDate, IndiceIntervalos> ocupados = candidatosPorFecha.isEmpty()
+                ? Map.of()
+                : indiceHorarios.cargar(medicoId, candidatosPorFecha.keySet());
+
+        // En orden de llegada: el primero de dos horarios solapados gana
+        List<Horario> aceptados = new ArrayList<>();
+        List<Integer> indicesAceptados = new ArrayList<>();
+        candidatosPorFecha.forEach((fecha, indices) -> {
+            IndiceIntervalos delDia = ocupados.get(fecha);
+            for (int i : indices) {
+                CrearHorarioDTO dto = horarios.get(i);
+                if (delDia.seSolapa(dto.horaInicio(), dto.horaFin())) {
+                    motivos[i] = "El horario se solapa con otro horario en la fecha " + fecha;
+                    continue;
+                }
+                delDia.agregar(dto.horaInicio(), dto.horaFin());
+                aceptados.add(Horario.builder()
+                        .idMedico(medicoId)
+                        .fecha(fecha)
+                        .horaInicio(dto.horaInicio())
+                        .horaFin(dto.horaFin())
+                        .reservado(false)
+                        .build());
+                indicesAceptados.add(i);
+            }
+        });
+
+        // Una sola escritura; los duplicados solo aparecen si otro proceso insertó a la vez
+        Set<Integer> duplicados;
+        try {
+            duplicados = horarioRepo.insertarLote(aceptados);
+        } catch (RuntimeException e) {
+            candidatosPorFecha.keySet().forEach(fecha -> indiceHorarios.invalidar(medicoId, fecha));
+            throw e;
+        }
+        Set<LocalDate> diasConDuplicados = new HashSet<>();
+        for (int duplicado : duplicados) {
+            motivos[indicesAceptados.get(duplicado)] = "El horario ya existe";
+            diasConDuplicados.add(aceptados.get(duplicado).getFecha());
+        }
+        // Los días con duplicados no coinciden con lo escrito por el otro proceso: se recargan en la próxima consulta
+        ocupados.forEach((fecha, indice) -> {
+            if (diasConDuplicados.contains(fecha)) {
+                indiceHorarios.invalidar(medicoId, fecha);
+            } else {
+                indiceHorarios.publicar(medicoId, fecha, indice);
+            }
+        });
+
+        List<ResultadoHorarioDTO> resultados = new ArrayList<>(horarios.size());
+        int totalAceptados = 0;
+        for (int i = 0; i < horarios.size(); i++) {
+            CrearHorarioDTO dto = horarios.get(i);
+            boolean aceptado = motivos[i] == null;
+            if (aceptado) {
+                totalAceptados++;
+            }
+            resultados.add(new ResultadoHorarioDTO(i, dto.fecha(), dto.horaInicio(), dto.horaFin(), aceptado, motivos[i]));
+        }
+
+        return new ResultadoLoteHorariosDTO(totalAceptados, horarios.size() - totalAceptados, resultados);
+    }
+
+    @Override
+    public ResultadoPlantillaHorariosDTO generarHorarios(String idMedico, CrearPlantillaHorariosDTO plantilla) {
+        validarMedicoExiste(idMedico);
+        validarPlantilla(plantilla);
+        ObjectId medicoId = new ObjectId(idMedico);
+        LocalDateTime ahora = LocalDateTime.now();
+        int inicio = plantilla.horaInicio().toSecondOfDay() / 60;
+        int fin = plantilla.horaFin().toSecondOfDay() / 60;
+        int duracion = plantilla.duracionMinutos();
+
+        int generados = 0;
+        int creados = 0;
+        List<Horario> lote = new ArrayList<>(TAMANO_LOTE_HORARIOS);
+
+        // Los horarios existentes y los generados llegan ordenados por (fecha, horaInicio):
+        // un único barrido con dos punteros detecta los solapes sin volver a leer nada
+        try (Stream<Horario> existentes = horarioRepo
+                .findByIdMedicoAndFechaGreaterThanEqualAndFechaLessThanEqualOrderByFechaAscHoraInicioAsc(
+                        medicoId, plantilla.desde(), plantilla.hasta())) {
+            Iterator<Horario> cursor = existentes.iterator();
+            Horario existente = cursor.hasNext() ? cursor.next() : null;
+
+            for (LocalDate fecha = plantilla.desde(); !fecha.isAfter(plantilla.hasta()); fecha = fecha.plusDays(1)) {
+                if (!plantilla.dias().contains(fecha.getDayOfWeek())) {
+                    continue;
+                }
+
+                for (int minuto = inicio; minuto + duracion <= fin; minuto += duracion) {
+                    LocalTime horaInicio = LocalTime.ofSecondOfDay(minuto * 60L);
+                    LocalTime horaFin = LocalTime.ofSecondOfDay((minuto + duracion) * 60L);
+                    generados++;
+
+                    // Descartar los existentes que terminan antes de que empiece este horario
+                    while (existente != null && terminaAntes(existente, fecha, horaInicio)) {
+                        existente = cursor.hasNext() ? cursor.next() : null;
+                    }
+
+                    boolean solapado = existente != null
+                            && existente.getFecha().equals(fecha)
+                            && existente.getHoraInicio().isBefore(horaFin);
+                    if (solapado || LocalDateTime.of(fecha, horaInicio).isBefore(ahora)) {
+                        continue;
+                    }
+
+                    lote.add(Horario.builder()
+                            .idMedico(medicoId)
+                            .fecha(fecha)
+                            .horaInicio(horaInicio)
+                            .horaFin(horaFin)
+                            .reservado(false)
+                            .build());
+                    if (lote.size() == TAMANO_LOTE_HORARIOS) {
+                        creados += guardarLote(lote);
+                    }
+                }
+            }
+        }
+        creados += guardarLote(lote);
 
-        medico.getHorariosDisponibles().add(nuevoHorario);
-        return medicoRepo.save(medico).getId();
+        for (LocalDate fecha = plantilla.desde(); !fecha.isAfter(plantilla.hasta()); fecha = fecha.plusDays(1)) {
+            indiceHorarios.invalidar(medicoId, fecha);
+        }
+
+        return new ResultadoPlantillaHorariosDTO(generados, creados, generados - creados);
     }
 
     @Override
     public String eliminarHorario(String idMedico, LocalDate fecha, LocalTime horaInicio) {
-        Medico medico = obtenerMedicoPorId(idMedico);
+        validarMedicoExiste(idMedico);
 
-        HorarioMedico horarioAEliminar = medico.getHorariosDisponibles().stream()
-                .filter(h -> h.getFecha().equals(fecha) && h.getHoraInicio().equals(horaInicio))
-                .findFirst()
+        Horario horarioAEliminar = horarioRepo.findByIdMedicoAndFechaAndHoraInicio(new ObjectId(idMedico), fecha, horaInicio)
                 .orElseThrow(() -> new ResourceNotFoundException("Horario no encontrado"));
 
-        if (horarioAEliminar.isReservado()) {
+        // Solo se elimina si sigue libre, aunque se haya reservado después de leerlo
+        if (horarioAEliminar.isReservado() || horarioRepo.deleteByIdAndReservadoFalse(horarioAEliminar.getId()) == 0) {
             throw new IllegalStateException("No se puede eliminar un horario que ya está reservado");
         }
+        indiceHorarios.quitar(horarioAEliminar.getIdMedico(), fecha, horaInicio);
 
-        medico.getHorariosDisponibles().remove(horarioAEliminar);
-        return medicoRepo.save(medico).getId();
+        return idMedico;
     }
 
     @Override
     public List<ItemHorarioDTO> listarHorarios(String idMedico) {
-        return obtenerMedicoPorId(idMedico).getHorariosDisponibles()
+        validarMedicoExiste(idMedico);
+
+        return horarioRepo.findByIdMedicoOrderByFechaAscHoraInicioAsc(new ObjectId(idMedico))
                 .stream()
                 .map(this::convertToItemHorarioDTO)
                 .collect(Collectors.toList());
@@ -187,21 +443,17 @@ public class MedicoServiceImpl implements MedicoService {
 
     @Override
     public List<ItemHorarioDTO> listarHorariosDisponibles(String idMedico) {
-        Medico medico = obtenerMedicoPorId(idMedico);
+        validarMedicoExiste(idMedico);
         LocalDateTime ahora = LocalDateTime.now();
 
-        return medico.getHorariosDisponibles()
+        // La consulta ya filtra libres desde hoy y viene ordenada por el índice
+        return horarioRepo.findByIdMedicoAndReservadoFalseAndFechaGreaterThanEqualOrderByFechaAscHoraInicioAsc(
+                        new ObjectId(idMedico), ahora.toLocalDate())
                 .stream()
-                .filter(h -> !h.isReservado())
                 .filter(h -> {
                     LocalDateTime fechaHorario = LocalDateTime.of(h.getFecha(), h.getHoraInicio());
                     return fechaHorario.isAfter(ahora);
                 })
-                .sorted((h1, h2) -> {
-                    int compareFecha = h1.getFecha().compareTo(h2.getFecha());
-                    if (compareFecha != 0) return compareFecha;
-                    return h1.getHoraInicio().compareTo(h2.getHoraInicio());
-                })
                 .map(this::convertToItemHorarioDTO)
                 .collect(Collectors.toList());
     }
@@ -214,8 +466,11 @@ public class MedicoServiceImpl implements MedicoService {
                 .orElseThrow(() -> new ResourceNotFoundException("Médico no encontrado con ID: " + id));
     }
 
-    private boolean existeNombre(String nombre) {
-        return medicoRepo.existsByNombre(nombre);
+    private void validarMedicoExiste(String id) {
+        validarObjectId(id);
+        if (!medicoRepo.existsById(id)) {
+            throw new ResourceNotFoundException("Médico no encontrado con ID: " + id);
+        }
     }
 
     private void validarNombre(String nombre) {
@@ -225,6 +480,9 @@ public class MedicoServiceImpl implements MedicoService {
         if (nombre.trim().length() < 3) {
             throw new IllegalArgumentException("El nombre debe tener al menos 3 caracteres");
         }
+        if (BusquedaTexto.normalizar(nombre).isEmpty()) {
+            throw new IllegalArgumentException("El nombre debe contener letras o números");
+        }
     }
 
     private void validarObjectId(String id) {
@@ -236,6 +494,22 @@ public class MedicoServiceImpl implements MedicoService {
         }
     }
 
+    private void validarDatosHorario(CrearHorarioDTO horarioDTO) {
+        // Validar que el horario sea futuro
+        validarHorarioFuturo(horarioDTO);
+
+        // Validar rango horario
+        if (!horarioDTO.horaInicio().isBefore(horarioDTO.horaFin())) {
+            throw new IllegalArgumentException("La hora de inicio debe ser anterior a la hora fin");
+        }
+
+        // Validar horarios razonables (ej: no más de 12 horas continuas)
+        long horas = Duration.between(horarioDTO.horaInicio(), horarioDTO.horaFin()).toHours();
+        if (horas > 12) {
+            throw new IllegalArgumentException("Un horario no puede durar más de 12 horas continuas");
+        }
+    }
+
     private void validarHorarioFuturo(CrearHorarioDTO horario) {
         LocalDateTime fechaHoraInicio = LocalDateTime.of(horario.fecha(), horario.horaInicio());
 
@@ -244,28 +518,48 @@ public class MedicoServiceImpl implements MedicoService {
         }
     }
 
-    private void validarSolapamientoHorarios(Medico medico, HorarioMedico nuevoHorario) {
-        boolean horarioSolapado = medico.getHorariosDisponibles().stream()
-                .anyMatch(h -> h.getFecha().equals(nuevoHorario.getFecha()) &&
-                        horariosSeSolapan(h, nuevoHorario));
-
-        if (horarioSolapado) {
+    private IndiceIntervalos apartarHorario(Horario nuevoHorario) {
+        // El índice del día decide en O(log n) sin ir a Mongo (ver IndiceHorarios para lo que puede no ver), y
+        // comprobar y apartar es atómico: dos peticiones de esta instancia no aceptan horarios solapados.
+        // El índice único medico_fecha_horaInicio respalda la inserción
+        IndiceIntervalos delDia = indiceHorarios.obtener(nuevoHorario.getIdMedico(), nuevoHorario.getFecha());
+        if (!delDia.agregarSiLibre(nuevoHorario.getHoraInicio(), nuevoHorario.getHoraFin())) {
             throw new IllegalStateException(
                     "El horario se solapa con un horario existente en la fecha " +
                             nuevoHorario.getFecha()
             );
         }
+        return delDia;
+    }
+
+    private void validarPlantilla(CrearPlantillaHorariosDTO plantilla) {
+        if (!plantilla.horaInicio().isBefore(plantilla.horaFin())) {
+            throw new IllegalArgumentException("La hora de inicio debe ser anterior a la hora fin");
+        }
+        if (plantilla.desde().isAfter(plantilla.hasta())) {
+            throw new IllegalArgumentException("La fecha inicial no puede ser posterior a la fecha final");
+        }
+        if (ChronoUnit.DAYS.between(plantilla.desde(), plantilla.hasta()) > MAXIMO_DIAS_PLANTILLA) {
+            throw new IllegalArgumentException("Una plantilla no puede abarcar más de " + MAXIMO_DIAS_PLANTILLA + " días");
+        }
+        if (Duration.between(plantilla.horaInicio(), plantilla.horaFin()).toMinutes() < plantilla.duracionMinutos()) {
+            throw new IllegalArgumentException("La duración de cada horario no cabe en la franja indicada");
+        }
+    }
+
+    private boolean terminaAntes(Horario existente, LocalDate fecha, LocalTime horaInicio) {
+        // Intervalos semiabiertos [inicio, fin), como IndiceIntervalos.seSolapa: horarios contiguos no se solapan
+        int comparacion = existente.getFecha().compareTo(fecha);
+        return comparacion < 0 || (comparacion == 0 && !existente.getHoraFin().isAfter(horaInicio));
     }
 
-    private boolean horariosSeSolapan(HorarioMedico h1, HorarioMedico h2) {
-        // Dos horarios se solapan si:
-        // - Inicio de h1 es antes del fin de h2 Y
-        // - Fin de h1 es después del inicio de h2
-        return !h1.getHoraFin().isBefore(h2.getHoraInicio())
-                && !h2.getHoraFin().isBefore(h1.getHoraInicio());
+    private int guardarLote(List<Horario> lote) {
+        int creados = lote.size() - horarioRepo.insertarLote(lote).size();
+        lote.clear();
+        return creados;
     }
 
-    private ItemHorarioDTO convertToItemHorarioDTO(HorarioMedico horario) {
+    private ItemHorarioDTO convertToItemHorarioDTO(Horario horario) {
         return new ItemHorarioDTO(
                 horario.getFecha(),
                 horario.getHoraInicio(),
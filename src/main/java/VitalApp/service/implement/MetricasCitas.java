@@ -0,0 +1,44 @@
+package VitalApp.service.implement;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Contadores del desenlace de cada intento de reserva ({@code vitalapp.citas.reservas}, etiqueta
+ * {@code resultado}). Los tiempos de cada operación los mide {@code @Timed} en los servicios.
+ */
+@Component
+public class MetricasCitas {
+
+    public enum ResultadoReserva {
+        EXITO("exito"),
+        HORARIO_RESERVADO("horario_reservado"),
+        CONFLICTO_PACIENTE("conflicto_paciente"),
+        NO_ENCONTRADO("no_encontrado");
+
+        private final String etiqueta;
+
+        ResultadoReserva(String etiqueta) {
+            this.etiqueta = etiqueta;
+        }
+    }
+
+    private final Map<ResultadoReserva, Counter> reservas = new EnumMap<>(ResultadoReserva.class);
+
+    public MetricasCitas(MeterRegistry registry) {
+        for (ResultadoReserva resultado : ResultadoReserva.values()) {
+            reservas.put(resultado, Counter.builder("vitalapp.citas.reservas")
+                    .description("Intentos de reserva de citas por resultado")
+                    .tag("resultado", resultado.etiqueta)
+                    .register(registry));
+        }
+    }
+
+    public void registrarReserva(ResultadoReserva resultado) {
+        reservas.get(resultado).increment();
+    }
+}
@@ -0,0 +1,55 @@
+package VitalApp.service.implement;
+
+import VitalApp.repository.ConteoHorariosMedico;
+import VitalApp.repository.HorarioRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Gauges con los horarios de cada médico desde hoy ({@code vitalapp.horarios.medico}, etiquetas
+ * {@code idMedico} y {@code estado}). Se recalculan con una agregación periódica en lugar de consultar
+ * en cada scrape, y solo se publican los médicos con más horarios para acotar la cardinalidad.
+ */
+@Slf4j
+@Component
+public class MetricasHorarios {
+
+    private final HorarioRepository horarioRepo;
+    private final MultiGauge horariosPorMedico;
+    private final int maximoMedicos;
+
+    public MetricasHorarios(HorarioRepository horarioRepo, MeterRegistry registry,
+                            @Value("${vitalapp.metricas.horarios.maximo-medicos:200}") int maximoMedicos) {
+        this.horarioRepo = horarioRepo;
+        this.maximoMedicos = maximoMedicos;
+        this.horariosPorMedico = MultiGauge.builder("vitalapp.horarios.medico")
+                .description("Horarios de cada médico desde hoy, por estado de reserva")
+                .register(registry);
+    }
+
+    @Scheduled(initialDelayString = "${vitalapp.metricas.horarios.intervalo:PT1M}",
+            fixedDelayString = "${vitalapp.metricas.horarios.intervalo:PT1M}")
+    public void actualizar() {
+        try {
+            List<MultiGauge.Row<?>> filas = new ArrayList<>();
+            for (ConteoHorariosMedico conteo : horarioRepo.contarPorMedico(LocalDate.now(), maximoMedicos)) {
+                String idMedico = conteo.idMedico().toHexString();
+                filas.add(MultiGauge.Row.of(Tags.of("idMedico", idMedico, "estado", "libre"), conteo.libres()));
+                filas.add(MultiGauge.Row.of(Tags.of("idMedico", idMedico, "estado", "reservado"), conteo.reservados()));
+            }
+            horariosPorMedico.register(filas, true);
+        } catch (RuntimeException e) {
+            // Las métricas no deben tumbar el programador de tareas; se reintenta en el siguiente ciclo
+            log.warn("No se pudieron actualizar las métricas de horarios por médico", e);
+        }
+    }
+}
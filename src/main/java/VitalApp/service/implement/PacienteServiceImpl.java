@@ -1,5 +1,7 @@
 package VitalApp.service.implement;
 
+import VitalApp.config.CacheConfig;
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.paciente.CrearPacienteDTO;
 import VitalApp.dto.paciente.EditarPacienteDTO;
 import VitalApp.dto.paciente.ItemPacienteDTO;
@@ -10,8 +12,18 @@ import VitalApp.model.enums.EstadoCita;
 import VitalApp.repository.CitaMedicaRepository;
 import VitalApp.repository.PacienteRepository;
 import VitalApp.service.service.PacienteService;
+import VitalApp.utils.BusquedaTexto;
+import VitalApp.utils.CursorPaginacion;
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.bson.types.ObjectId;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,6 +31,7 @@ import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Timed(value = "vitalapp.servicio.pacientes", histogram = true)
 public class PacienteServiceImpl implements PacienteService {
 
     private final PacienteRepository pacienteRepo;
@@ -29,39 +42,37 @@ public class PacienteServiceImpl implements PacienteService {
         // Validar nombre
         validarNombre(pacienteDTO.nombre());
 
-        // Verificar si ya existe un paciente con ese nombre
-        if (existeNombre(pacienteDTO.nombre())) {
-            throw new IllegalStateException("Ya existe un paciente registrado con el nombre: " + pacienteDTO.nombre());
-        }
-
         Paciente paciente = Paciente.builder()
                 .nombre(pacienteDTO.nombre().trim())
                 .build();
 
-        return pacienteRepo.save(paciente).getId();
+        // Una sola escritura: el índice único sobre el nombre normalizado rechaza los repetidos
+        try {
+            return pacienteRepo.insert(paciente).getId();
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Ya existe un paciente registrado con el nombre: " + pacienteDTO.nombre());
+        }
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PACIENTES, key = "#pacienteDTO.id()")
     public String editarPaciente(EditarPacienteDTO pacienteDTO) {
         Paciente paciente = obtenerPacientePorId(pacienteDTO.id());
 
         // Validar nombre
         validarNombre(pacienteDTO.nombre());
 
-        // Verificar si el nuevo nombre ya existe en otro paciente
-        if (existeNombre(pacienteDTO.nombre())) {
-            Paciente pacienteConMismoNombre = pacienteRepo.findByNombre(pacienteDTO.nombre()).orElse(null);
-            if (pacienteConMismoNombre != null && !pacienteConMismoNombre.getId().equals(pacienteDTO.id())) {
-                throw new IllegalStateException("Ya existe otro paciente con el nombre: " + pacienteDTO.nombre());
-            }
-        }
-
         paciente.setNombre(pacienteDTO.nombre().trim());
 
-        return pacienteRepo.save(paciente).getId();
+        try {
+            return pacienteRepo.save(paciente).getId();
+        } catch (DuplicateKeyException e) {
+            throw new IllegalStateException("Ya existe otro paciente con el nombre: " + pacienteDTO.nombre());
+        }
     }
 
     @Override
+    @CacheEvict(cacheNames = CacheConfig.PACIENTES, key = "#id")
     public String eliminarPaciente(String id) {
         Paciente paciente = obtenerPacientePorId(id);
 
@@ -84,26 +95,54 @@ public class PacienteServiceImpl implements PacienteService {
     }
 
     @Override
+    @Cacheable(CacheConfig.PACIENTES)
     public ItemPacienteDTO obtenerInformacionPaciente(String id) {
         Paciente paciente = obtenerPacientePorId(id);
         return new ItemPacienteDTO(paciente.getId(), paciente.getNombre());
     }
 
     @Override
-    public List<ItemPacienteDTO> listarPacientes() {
-        return pacienteRepo.findAll()
-                .stream()
+    public PaginaDTO<ItemPacienteDTO> listarPacientes(int pagina, int tamano, String cursor) {
+        List<Paciente> pacientes;
+        boolean haySiguiente;
+
+        if (cursor != null && !cursor.isBlank()) {
+            // Keyset sobre _id: cuesta lo mismo en cualquier profundidad
+            String ultimoId = CursorPaginacion.decodificar(cursor, 1)[0];
+            validarObjectId(ultimoId);
+            pacientes = pacienteRepo.findByIdGreaterThanOrderByIdAsc(ultimoId, Limit.of(tamano + 1));
+            haySiguiente = pacientes.size() > tamano;
+            if (haySiguiente) {
+                pacientes = pacientes.subList(0, tamano);
+            }
+        } else {
+            Slice<Paciente> slice = pacienteRepo.findAllBy(PageRequest.of(pagina, tamano, Sort.by("id")));
+            pacientes = slice.getContent();
+            haySiguiente = slice.hasNext();
+        }
+
+        List<ItemPacienteDTO> contenido = pacientes.stream()
                 .map(p -> new ItemPacienteDTO(p.getId(), p.getNombre()))
                 .collect(Collectors.toList());
+        String siguienteCursor = haySiguiente
+                ? CursorPaginacion.codificar(pacientes.get(pacientes.size() - 1).getId())
+                : null;
+
+        return new PaginaDTO<>(contenido, siguienteCursor);
     }
 
     @Override
-    public List<ItemPacienteDTO> buscarPacientesPorNombre(String nombre) {
-        if (nombre == null || nombre.trim().isEmpty()) {
+    public List<ItemPacienteDTO> buscarPacientesPorNombre(String nombre, int limite) {
+        List<String> terminos = BusquedaTexto.terminosConsulta(nombre);
+        if (terminos.isEmpty()) {
             throw new IllegalArgumentException("El nombre de búsqueda no puede estar vacío");
         }
 
-        return pacienteRepo.findByNombreContainingIgnoreCase(nombre.trim())
+        // El índice de prefijos acota los candidatos, los de nombre más corto primero, más el nombre exacto;
+        // el puntaje decide el orden y los primeros
+        List<Paciente> candidatos = pacienteRepo.buscarCandidatosPorNombre(
+                terminos, BusquedaTexto.normalizar(nombre), BusquedaTexto.candidatos(limite));
+        return BusquedaTexto.ordenar(nombre, candidatos, Paciente::getNombre, limite)
                 .stream()
                 .map(p -> new ItemPacienteDTO(p.getId(), p.getNombre()))
                 .collect(Collectors.toList());
@@ -122,10 +161,6 @@ public class PacienteServiceImpl implements PacienteService {
                 .orElseThrow(() -> new ResourceNotFoundException("Paciente no encontrado con ID: " + id));
     }
 
-    private boolean existeNombre(String nombre) {
-        return pacienteRepo.existsByNombre(nombre.trim());
-    }
-
     private void validarNombre(String nombre) {
         if (nombre == null || nombre.trim().isEmpty()) {
             throw new IllegalArgumentException("El nombre del paciente no puede estar vacío");
@@ -136,6 +171,9 @@ public class PacienteServiceImpl implements PacienteService {
         if (nombre.trim().length() > 100) {
             throw new IllegalArgumentException("El nombre no puede exceder los 100 caracteres");
         }
+        if (BusquedaTexto.normalizar(nombre).isEmpty()) {
+            throw new IllegalArgumentException("El nombre debe contener letras o números");
+        }
     }
 
     private void validarObjectId(String id) {
@@ -1,22 +1,30 @@
 package VitalApp.service.service;
 
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.citaMedica.CrearCitaMedicaDTO;
 import VitalApp.dto.citaMedica.InformacionResultadoMedicoDTO;
 import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
 import VitalApp.dto.citaMedica.CrearResultadoMedicoDTO;
+import VitalApp.dto.citaMedica.FiltroCitasDTO;
+import VitalApp.model.enums.EstadoCita;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
 
 public interface CitaMedicaService {
     String agendarCita(CrearCitaMedicaDTO cita) throws Exception;
     String cancelarCita(String idCita) throws Exception;
-    List<ItemCitaMedicaDTO> listarCitasPorPaciente(String idPaciente);
-    List<ItemCitaMedicaDTO> listarCitasPorMedico(String idMedico);
+    List<ItemCitaMedicaDTO> listarCitasPorPaciente(String idPaciente, EstadoCita estado, LocalDate desde, LocalDate hasta);
+    List<ItemCitaMedicaDTO> listarCitasPorMedico(String idMedico, EstadoCita estado, LocalDate desde, LocalDate hasta);
+    List<ItemCitaMedicaDTO> listarProximasCitasPaciente(String idPaciente);
     String agregarResultadoMedico(String idCita, CrearResultadoMedicoDTO resultado) throws Exception;
     InformacionResultadoMedicoDTO obtenerResultadoMedico(String idCita) throws Exception;
     ItemCitaMedicaDTO obtenerCitaPorIdDTO(String id);
-    List<ItemCitaMedicaDTO> listarTodasLasCitas();
+    PaginaDTO<ItemCitaMedicaDTO> listarTodasLasCitas(EstadoCita estado, String cursor, int tamano);
     String actualizarResultadoMedico(String idCita, CrearResultadoMedicoDTO dto);
     Map<String, Long> obtenerEstadisticas();
+    long exportarCitas(FiltroCitasDTO filtro, OutputStream salida) throws IOException;
 }
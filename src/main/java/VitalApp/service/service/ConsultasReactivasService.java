@@ -0,0 +1,14 @@
+package VitalApp.service.service;
+
+import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
+import VitalApp.dto.medico.ItemHorarioDTO;
+import VitalApp.model.enums.EstadoCita;
+import reactor.core.publisher.Flux;
+
+import java.time.LocalDate;
+
+public interface ConsultasReactivasService {
+    Flux<ItemCitaMedicaDTO> listarCitasRecientes(EstadoCita estado, int limite);
+    Flux<ItemHorarioDTO> listarHorariosDisponibles(String idMedico, LocalDate fecha);
+    Flux<ItemCitaMedicaDTO> listarHistorialPaciente(String idPaciente);
+}
@@ -0,0 +1,14 @@
+package VitalApp.service.service;
+
+import VitalApp.dto.citaMedica.ReconciliacionContadoresDTO;
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.enums.EstadoCita;
+
+import java.util.Map;
+
+public interface ContadorCitasService {
+    void registrarNuevaCita(CitaMedica cita);
+    void registrarCambioEstado(CitaMedica cita, EstadoCita estadoAnterior);
+    Map<String, Long> obtenerEstadisticas();
+    ReconciliacionContadoresDTO reconciliarContadores();
+}
@@ -1,5 +1,6 @@
 package VitalApp.service.service;
 
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.medico.*;
 
 import java.time.LocalDate;
@@ -12,8 +13,13 @@ public interface MedicoService {
     String eliminarMedico(String id) throws Exception;
     InformacionMedicoDTO obtenerInformacionMedico(String id) throws Exception;
     List<ItemMedicoDTO> listarMedicos();
-    List<ItemMedicoDTO> buscarMedicosPorEspecialidad(String especialidad);
+    PaginaDTO<ItemMedicoDTO> listarMedicos(int pagina, int tamano, String cursor);
+    List<ItemMedicoDTO> buscarMedicosPorEspecialidad(String especialidad, int limite);
+    List<ItemMedicoDTO> buscarMedicosPorNombre(String nombre, int limite);
+    List<String> listarEspecialidades();
     String agregarHorario(String idMedico, CrearHorarioDTO horario) throws Exception;
+    ResultadoLoteHorariosDTO agregarHorarios(String idMedico, List<CrearHorarioDTO> horarios);
+    ResultadoPlantillaHorariosDTO generarHorarios(String idMedico, CrearPlantillaHorariosDTO plantilla);
     String eliminarHorario(String idMedico, LocalDate fecha, LocalTime horaInicio);
     List<ItemHorarioDTO> listarHorarios(String idMedico) throws Exception;
     List<ItemHorarioDTO> listarHorariosDisponibles(String idMedico);
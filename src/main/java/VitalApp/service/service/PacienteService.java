@@ -1,5 +1,6 @@
 package VitalApp.service.service;
 
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.paciente.CrearPacienteDTO;
 import VitalApp.dto.paciente.EditarPacienteDTO;
 import VitalApp.dto.paciente.ItemPacienteDTO;
@@ -11,7 +12,7 @@ public interface PacienteService {
     String editarPaciente(EditarPacienteDTO paciente) throws Exception;
     String eliminarPaciente(String id) throws Exception;
     ItemPacienteDTO obtenerInformacionPaciente(String id) throws Exception;
-    List<ItemPacienteDTO> listarPacientes();
-    List<ItemPacienteDTO> buscarPacientesPorNombre(String nombre);
+    PaginaDTO<ItemPacienteDTO> listarPacientes(int pagina, int tamano, String cursor);
+    List<ItemPacienteDTO> buscarPacientesPorNombre(String nombre, int limite);
     long contarPacientes();
 }
@@ -0,0 +1,144 @@
+package VitalApp.utils;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+/**
+ * Términos de búsqueda por prefijo de palabra ("edge n-grams"). Cada texto se normaliza (sin tildes,
+ * en minúsculas, solo letras y dígitos) y se parte en palabras; de cada palabra se guardan todos sus
+ * prefijos, así "María González" produce m, ma, mar, mari, maria, g, go, ... gonzalez. Guardados en
+ * un arreglo con índice multikey, una búsqueda "gonz mar" se resuelve con igualdades sobre el índice
+ * en lugar de una regex sin ancla que recorre la colección.
+ */
+public final class BusquedaTexto {
+
+    /** Los prefijos se cortan en esta longitud: palabras más largas se distinguen al puntuar. */
+    public static final int LONGITUD_MAXIMA_PREFIJO = 12;
+
+    // Se leen más candidatos que resultados para que el orden por puntaje tenga de dónde elegir. Las
+    // búsquedas por nombre los piden de nombre más corto primero (longitudNombre) y leen el nombre exacto
+    // aparte. Con prefijos comunes, o palabras que comparten sus primeras 12 letras, un nombre largo que
+    // coincide con palabras completas puede quedar fuera de la ventana
+    private static final int CANDIDATOS_POR_RESULTADO = 5;
+    private static final int MAXIMO_CANDIDATOS = 500;
+
+    private static final Pattern MARCAS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARADORES = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private BusquedaTexto() {
+    }
+
+    public static String normalizar(String texto) {
+        if (texto == null) {
+            return "";
+        }
+        String sinTildes = MARCAS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARADORES.matcher(sinTildes.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    /** Como {@link #normalizar(String)}, pero un nombre ausente sigue ausente: no ocupa la clave del índice único. */
+    public static String normalizarNombre(String nombre) {
+        return nombre == null ? null : normalizar(nombre);
+    }
+
+    public static int longitud(String texto) {
+        return normalizar(texto).length();
+    }
+
+    public static List<String> palabras(String texto) {
+        String normalizado = normalizar(texto);
+        return normalizado.isEmpty() ? List.of() : Arrays.asList(normalizado.split(" "));
+    }
+
+    /** Términos que se guardan con el documento: todos los prefijos de todas las palabras, sin repetir. */
+    public static List<String> terminos(String texto) {
+        TreeSet<String> terminos = new TreeSet<>();
+        for (String palabra : palabras(texto)) {
+            int hasta = Math.min(palabra.length(), LONGITUD_MAXIMA_PREFIJO);
+            for (int i = 1; i <= hasta; i++) {
+                terminos.add(palabra.substring(0, i));
+            }
+        }
+        return new ArrayList<>(terminos);
+    }
+
+    /**
+     * Términos de una consulta: cada palabra escrita, recortada como los prefijos guardados, del más
+     * largo al más corto. Mongo resuelve un $all con el índice del primer término, así que conviene
+     * que sea el más selectivo.
+     */
+    public static List<String> terminosConsulta(String consulta) {
+        return palabras(consulta).stream()
+                .map(palabra -> palabra.length() > LONGITUD_MAXIMA_PREFIJO
+                        ? palabra.substring(0, LONGITUD_MAXIMA_PREFIJO)
+                        : palabra)
+                .distinct()
+                .sorted(Comparator.comparingInt(String::length).reversed().thenComparing(Comparator.naturalOrder()))
+                .toList();
+    }
+
+    public static int candidatos(int limite) {
+        return Math.min(Math.max(limite, 1) * CANDIDATOS_POR_RESULTADO, MAXIMO_CANDIDATOS);
+    }
+
+    /**
+     * Puntaje de un texto para una consulta, o -1 si alguna palabra de la consulta no es prefijo de
+     * ninguna palabra del texto. Una palabra completa vale más que un prefijo, y que el texto empiece
+     * por la primera palabra buscada suma un punto más.
+     */
+    public static int puntuar(List<String> palabrasConsulta, String texto) {
+        List<String> palabrasTexto = palabras(texto);
+        int puntaje = 0;
+        for (String buscada : palabrasConsulta) {
+            int mejor = -1;
+            for (String palabra : palabrasTexto) {
+                if (palabra.equals(buscada)) {
+                    mejor = 2;
+                    break;
+                }
+                if (palabra.startsWith(buscada)) {
+                    mejor = 1;
+                }
+            }
+            if (mejor < 0) {
+                return -1;
+            }
+            puntaje += mejor;
+        }
+        if (!palabrasConsulta.isEmpty() && !palabrasTexto.isEmpty()
+                && palabrasTexto.get(0).startsWith(palabrasConsulta.get(0))) {
+            puntaje++;
+        }
+        return puntaje;
+    }
+
+    /**
+     * Ordena los candidatos por puntaje (descartando los que no coinciden), luego por texto más corto y
+     * luego alfabéticamente, y devuelve como máximo {@code limite}.
+     */
+    public static <T> List<T> ordenar(String consulta, Collection<T> candidatos, Function<T, String> texto, int limite) {
+        List<String> palabrasConsulta = palabras(consulta);
+        record Puntuado<T>(T valor, String texto, int puntaje) {}
+
+        return candidatos.stream()
+                .map(candidato -> {
+                    String valor = texto.apply(candidato);
+                    return new Puntuado<>(candidato, valor, puntuar(palabrasConsulta, valor));
+                })
+                .filter(puntuado -> puntuado.puntaje() >= 0)
+                .sorted(Comparator.<Puntuado<T>>comparingInt(Puntuado::puntaje).reversed()
+                        .thenComparingInt(puntuado -> puntuado.texto().length())
+                        .thenComparing(Puntuado::texto))
+                .limit(limite)
+                .map(Puntuado::valor)
+                .toList();
+    }
+}
@@ -0,0 +1,36 @@
+package VitalApp.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Codifica la posición de la última fila de una página en un token opaco (Base64 URL).
+ * El cliente solo lo devuelve tal cual para pedir la página siguiente.
+ */
+public final class CursorPaginacion {
+
+    private static final String SEPARADOR = "|";
+
+    private CursorPaginacion() {
+    }
+
+    public static String codificar(String... valores) {
+        String plano = String.join(SEPARADOR, valores);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(plano.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String[] decodificar(String cursor, int partes) {
+        String plano;
+        try {
+            plano = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Cursor de paginación inválido", e);
+        }
+
+        String[] valores = plano.split("\\" + SEPARADOR, -1);
+        if (valores.length != partes) {
+            throw new IllegalArgumentException("Cursor de paginación inválido");
+        }
+        return valores;
+    }
+}
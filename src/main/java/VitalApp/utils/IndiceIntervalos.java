@@ -0,0 +1,44 @@
+package VitalApp.utils;
+
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Intervalos horarios de un día ordenados por hora de inicio, semiabiertos [inicio, fin) como en el resto
+ * de la aplicación: dos horarios contiguos (uno termina cuando empieza el otro) no se solapan.
+ * Supone que los intervalos guardados no se solapan, de modo que el que empieza más tarde antes de un
+ * instante es también el que termina más tarde: cada consulta de solapamiento es una sola búsqueda
+ * O(log n). Es seguro para uso concurrente: las escrituras se serializan y las consultas no bloquean.
+ */
+public final class IndiceIntervalos {
+
+    private final ConcurrentSkipListMap<LocalTime, LocalTime> intervalos = new ConcurrentSkipListMap<>();
+
+    public boolean seSolapa(LocalTime horaInicio, LocalTime horaFin) {
+        // El último que empieza antes de horaFin; un intervalo que empieza justo en horaFin no se solapa
+        Map.Entry<LocalTime, LocalTime> anterior = intervalos.lowerEntry(horaFin);
+        return anterior != null && anterior.getValue().isAfter(horaInicio);
+    }
+
+    /** Agrega el intervalo solo si no se solapa con ninguno; dos llamadas simultáneas no pueden aceptar ambas. */
+    public synchronized boolean agregarSiLibre(LocalTime horaInicio, LocalTime horaFin) {
+        if (seSolapa(horaInicio, horaFin)) {
+            return false;
+        }
+        intervalos.put(horaInicio, horaFin);
+        return true;
+    }
+
+    public synchronized void agregar(LocalTime horaInicio, LocalTime horaFin) {
+        intervalos.put(horaInicio, horaFin);
+    }
+
+    public void quitar(LocalTime horaInicio) {
+        intervalos.remove(horaInicio);
+    }
+
+    public int tamano() {
+        return intervalos.size();
+    }
+}
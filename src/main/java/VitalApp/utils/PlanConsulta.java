@@ -0,0 +1,91 @@
+package VitalApp.utils;
+
+import org.bson.Document;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Resumen de la salida de {@code explain} (verbosity executionStats) de una consulta: si alguna etapa
+ * recorre la colección completa, qué índices usa y cuántos documentos examina frente a los que devuelve.
+ * Recorre el documento completo en lugar de seguir rutas fijas, porque la forma del explain cambia
+ * entre find, aggregate y update y entre versiones del servidor (motor clásico y SBE).
+ */
+public record PlanConsulta(
+        boolean recorreColeccion,
+        Set<String> indices,
+        long docsExaminados,
+        long clavesExaminadas,
+        long docsDevueltos
+) {
+
+    public static PlanConsulta de(Document explicacion) {
+        Acumulador acumulador = new Acumulador();
+        acumulador.visitar(explicacion);
+        return new PlanConsulta(
+                acumulador.recorreColeccion,
+                acumulador.indices,
+                acumulador.docsExaminados,
+                acumulador.clavesExaminadas,
+                acumulador.docsDevueltos
+        );
+    }
+
+    /** Documentos examinados por documento devuelto; una consulta sin resultados cuenta como si devolviera uno. */
+    public double proporcionExaminados() {
+        return (double) docsExaminados / Math.max(1, docsDevueltos);
+    }
+
+    public boolean usaIndice() {
+        return !recorreColeccion && !indices.isEmpty();
+    }
+
+    private static final class Acumulador {
+
+        private boolean recorreColeccion;
+        private final Set<String> indices = new TreeSet<>();
+        private long docsExaminados;
+        private long clavesExaminadas;
+        private long docsDevueltos;
+
+        void visitar(Object valor) {
+            if (valor instanceof Map<?, ?> documento) {
+                visitarDocumento(documento);
+            } else if (valor instanceof List<?> lista) {
+                lista.forEach(this::visitar);
+            }
+        }
+
+        private void visitarDocumento(Map<?, ?> documento) {
+            if ("COLLSCAN".equals(documento.get("stage"))) {
+                recorreColeccion = true;
+            }
+            if (documento.get("indexName") instanceof String indice) {
+                indices.add(indice);
+            }
+
+            for (Map.Entry<?, ?> campo : documento.entrySet()) {
+                Object clave = campo.getKey();
+                // Los planes descartados no se ejecutan: no deben marcar COLLSCAN ni sumar índices
+                if ("rejectedPlans".equals(clave) || "allPlansExecution".equals(clave)) {
+                    continue;
+                }
+                if ("executionStats".equals(clave) && campo.getValue() instanceof Map<?, ?> estadisticas) {
+                    // En aggregate cada etapa $cursor trae sus propias estadísticas; se suman
+                    docsExaminados += numero(estadisticas.get("totalDocsExamined"));
+                    clavesExaminadas += numero(estadisticas.get("totalKeysExamined"));
+                    docsDevueltos += numero(estadisticas.get("nReturned"));
+                    visitar(estadisticas.get("executionStages"));
+                    continue;
+                }
+                visitar(campo.getValue());
+            }
+        }
+
+        private static long numero(Object valor) {
+            return valor instanceof Number n ? n.longValue() : 0L;
+        }
+    }
+}
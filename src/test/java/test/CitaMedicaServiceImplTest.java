@@ -3,14 +3,21 @@ package test;
 import VitalApp.dto.citaMedica.*;
 import VitalApp.dto.medico.ItemHorarioDTO;
 import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.documents.Horario;
 import VitalApp.model.documents.Medico;
 import VitalApp.model.documents.Paciente;
 import VitalApp.model.enums.EstadoCita;
 import VitalApp.model.vo.HorarioMedico;
 import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.ContadorCitasRepository;
+import VitalApp.repository.HorarioRepository;
 import VitalApp.repository.MedicoRepository;
 import VitalApp.repository.PacienteRepository;
 import VitalApp.service.service.CitaMedicaService;
+import VitalApp.service.service.ContadorCitasService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,7 +29,14 @@ import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -43,23 +57,35 @@ public class CitaMedicaServiceImplTest {
     @Autowired
     private PacienteRepository pacienteRepo;
 
+    @Autowired
+    private HorarioRepository horarioRepo;
+
+    @Autowired
+    private ContadorCitasService contadorService;
+
+    @Autowired
+    private ContadorCitasRepository contadorRepo;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Test
     void agendarCita_HorarioDisponible() throws Exception {
         // Arrange - Crear y guardar médico y paciente reales
         Medico medico = new Medico();
-        medico.setNombre("Dr. Prueba");
-        medico.setHorariosDisponibles(new ArrayList<>());
-        HorarioMedico horario = new HorarioMedico(
-                LocalDate.now().plusDays(1),
-                LocalTime.of(9, 0),
-                LocalTime.of(10, 0),
-                false
-        );
-        medico.getHorariosDisponibles().add(horario);
+        medico.setNombre("Dr. Prueba " + new ObjectId());
         medicoRepo.save(medico);
 
+        Horario horario = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(LocalDate.now().plusDays(1))
+                .horaInicio(LocalTime.of(9, 0))
+                .horaFin(LocalTime.of(10, 0))
+                .reservado(false)
+                .build());
+
         Paciente paciente = new Paciente();
-        paciente.setNombre("Paciente Prueba");
+        paciente.setNombre("Paciente Prueba " + new ObjectId());
         pacienteRepo.save(paciente);
 
         CrearCitaMedicaDTO dto = new CrearCitaMedicaDTO(
@@ -84,28 +110,35 @@ public class CitaMedicaServiceImplTest {
         assertTrue(citaGuardada.isPresent());
         assertEquals(EstadoCita.PENDIENTE, citaGuardada.get().getEstado());
 
-        // Verificar que el médico se actualizó
-        Optional<Medico> medicoActualizado = medicoRepo.findById(medico.getId());
-        assertTrue(medicoActualizado.get().getHorariosDisponibles().get(0).isReservado());
+        // Verificar que el horario quedó reservado
+        Optional<Horario> horarioActualizado = horarioRepo.findById(horario.getId());
+        assertTrue(horarioActualizado.get().isReservado());
     }
 
     @Test
     void cancelarCita_CitaPendiente_CanceladaCorrectamente() throws Exception {
         // Arrange - Crear y guardar médico
         Medico medico = new Medico();
-        medico.setNombre("Dr. Test Cancelar");
+        medico.setNombre("Dr. Test Cancelar " + new ObjectId());
+        medicoRepo.save(medico);
+
         HorarioMedico horario = new HorarioMedico(
                 LocalDate.now(),
                 LocalTime.of(9, 0),
                 LocalTime.of(10, 0),
                 true
         );
-        medico.setHorariosDisponibles(new ArrayList<>(List.of(horario)));
-        medicoRepo.save(medico);
+        Horario horarioMedico = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(horario.getFecha())
+                .horaInicio(horario.getHoraInicio())
+                .horaFin(horario.getHoraFin())
+                .reservado(true)
+                .build());
 
         // Crear y guardar paciente
         Paciente paciente = new Paciente();
-        paciente.setNombre("Paciente Test Cancelar");
+        paciente.setNombre("Paciente Test Cancelar " + new ObjectId());
         pacienteRepo.save(paciente);
 
         // Crear y guardar cita pendiente
@@ -126,9 +159,9 @@ public class CitaMedicaServiceImplTest {
         assertEquals(EstadoCita.CANCELADA, citaCancelada.get().getEstado());
 
         // Verificar horario liberado
-        Optional<Medico> medicoActualizado = medicoRepo.findById(medico.getId());
-        assertTrue(medicoActualizado.isPresent());
-        assertFalse(medicoActualizado.get().getHorariosDisponibles().get(0).isReservado());
+        Optional<Horario> horarioActualizado = horarioRepo.findById(horarioMedico.getId());
+        assertTrue(horarioActualizado.isPresent());
+        assertFalse(horarioActualizado.get().isReservado());
 
         // Verificar retorno correcto
         assertEquals(cita.getId(), resultado);
@@ -138,12 +171,12 @@ public class CitaMedicaServiceImplTest {
     void agregarResultadoMedico_CitaPendiente_ResultadoAgregado() throws Exception {
         // Arrange - Crear y guardar médico
         Medico medico = new Medico();
-        medico.setNombre("Dr. Test Resultado");
+        medico.setNombre("Dr. Test Resultado " + new ObjectId());
         medicoRepo.save(medico);
 
         // Crear y guardar paciente
         Paciente paciente = new Paciente();
-        paciente.setNombre("Paciente Test Resultado");
+        paciente.setNombre("Paciente Test Resultado " + new ObjectId());
         pacienteRepo.save(paciente);
 
         // Crear y guardar cita pendiente
@@ -181,4 +214,306 @@ public class CitaMedicaServiceImplTest {
         // Verificar retorno correcto
         assertEquals(cita.getId(), resultado);
     }
-}
\ No newline at end of file
+
+    @Test
+    void listarCitasPorMedico_FiltroEstadoYFecha_SoloCitasCoincidentes() {
+        // Arrange - Citas del mismo médico en distintos días y estados
+        ObjectId idMedico = new ObjectId();
+        LocalDate dia = LocalDate.now().plusDays(3);
+        CitaMedica buscada = citaRepo.save(citaDePrueba(idMedico, dia, LocalTime.of(9, 0), EstadoCita.PENDIENTE));
+        citaRepo.save(citaDePrueba(idMedico, dia, LocalTime.of(10, 0), EstadoCita.CANCELADA));
+        citaRepo.save(citaDePrueba(idMedico, dia.plusDays(1), LocalTime.of(9, 0), EstadoCita.PENDIENTE));
+        citaRepo.save(citaDePrueba(new ObjectId(), dia, LocalTime.of(9, 0), EstadoCita.PENDIENTE));
+
+        // Act
+        List<ItemCitaMedicaDTO> citas = citaService.listarCitasPorMedico(idMedico.toHexString(), EstadoCita.PENDIENTE, dia, dia);
+
+        // Assert
+        assertEquals(1, citas.size());
+        assertEquals(buscada.getId(), citas.get(0).id());
+    }
+
+    @Test
+    void agendarCita_PacienteConCitaSolapada_LanzaExcepcion() {
+        // Arrange - El paciente ya tiene una cita activa que se solapa con el horario pedido
+        Medico medico = medicoRepo.save(Medico.builder().nombre("Dr. Solapado " + new ObjectId()).build());
+        Paciente paciente = new Paciente();
+        paciente.setNombre("Paciente Solapado " + new ObjectId());
+        pacienteRepo.save(paciente);
+
+        LocalDate dia = LocalDate.now().plusDays(2);
+        CitaMedica existente = citaDePrueba(new ObjectId(), dia, LocalTime.of(9, 30), EstadoCita.PENDIENTE);
+        existente.setIdCliente(new ObjectId(paciente.getId()));
+        citaRepo.save(existente);
+
+        // Una cita cancelada en el mismo horario no debe contar como conflicto
+        CitaMedica cancelada = citaDePrueba(new ObjectId(), dia, LocalTime.of(9, 0), EstadoCita.CANCELADA);
+        cancelada.setIdCliente(new ObjectId(paciente.getId()));
+        citaRepo.save(cancelada);
+
+        Horario horario = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(dia)
+                .horaInicio(LocalTime.of(9, 0))
+                .horaFin(LocalTime.of(10, 0))
+                .reservado(false)
+                .build());
+
+        CrearCitaMedicaDTO dto = new CrearCitaMedicaDTO(
+                paciente.getId(),
+                medico.getId(),
+                new ItemHorarioDTO(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), false)
+        );
+
+        // Act & Assert
+        assertThrows(IllegalStateException.class, () -> citaService.agendarCita(dto));
+        assertFalse(horarioRepo.findById(horario.getId()).get().isReservado());
+    }
+
+    @Test
+    void agendarCita_PacienteConCitaContigua_SeAgenda() throws Exception {
+        // Arrange - La cita existente (08:30-09:00) termina justo cuando empieza el horario pedido
+        Medico medico = medicoRepo.save(Medico.builder().nombre("Dr. Contiguo " + new ObjectId()).build());
+        Paciente paciente = pacienteRepo.save(Paciente.builder().nombre("Paciente Contiguo " + new ObjectId()).build());
+
+        LocalDate dia = LocalDate.now().plusDays(2);
+        CitaMedica existente = citaDePrueba(new ObjectId(), dia, LocalTime.of(8, 30), EstadoCita.PENDIENTE);
+        existente.setIdCliente(new ObjectId(paciente.getId()));
+        citaRepo.save(existente);
+
+        Horario horario = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(dia)
+                .horaInicio(LocalTime.of(9, 0))
+                .horaFin(LocalTime.of(10, 0))
+                .reservado(false)
+                .build());
+
+        // Act
+        String idCita = citaService.agendarCita(new CrearCitaMedicaDTO(paciente.getId(), medico.getId(),
+                new ItemHorarioDTO(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), false)));
+
+        // Assert - Intervalos semiabiertos, como los horarios del médico
+        assertNotNull(idCita);
+        assertTrue(horarioRepo.findById(horario.getId()).get().isReservado());
+    }
+
+    @Test
+    void agendarCita_HorarioYaReservado_CuentaResultadoDeReserva() throws Exception {
+        // Arrange - Un horario libre que dos pacientes intentan reservar uno detrás del otro
+        Medico medico = medicoRepo.save(Medico.builder().nombre("Dr. Métricas " + new ObjectId()).build());
+        Horario horario = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(LocalDate.now().plusDays(4))
+                .horaInicio(LocalTime.of(11, 0))
+                .horaFin(LocalTime.of(11, 30))
+                .reservado(false)
+                .build());
+
+        ItemHorarioDTO horarioDTO = new ItemHorarioDTO(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), false);
+        Paciente primero = pacienteRepo.save(Paciente.builder().nombre("Paciente Métricas 1 " + new ObjectId()).build());
+        Paciente segundo = pacienteRepo.save(Paciente.builder().nombre("Paciente Métricas 2 " + new ObjectId()).build());
+
+        double exitosAntes = contarReservas("exito");
+        double reservadosAntes = contarReservas("horario_reservado");
+        long agendarAntes = contarAgendar();
+
+        // Act
+        citaService.agendarCita(new CrearCitaMedicaDTO(primero.getId(), medico.getId(), horarioDTO));
+        assertThrows(IllegalStateException.class,
+                () -> citaService.agendarCita(new CrearCitaMedicaDTO(segundo.getId(), medico.getId(), horarioDTO)));
+
+        // Assert
+        assertEquals(exitosAntes + 1, contarReservas("exito"));
+        assertEquals(reservadosAntes + 1, contarReservas("horario_reservado"));
+        assertEquals(agendarAntes + 2, contarAgendar());
+    }
+
+    private double contarReservas(String resultado) {
+        return meterRegistry.get("vitalapp.citas.reservas").tag("resultado", resultado).counter().count();
+    }
+
+    // El timer de @Timed se crea en la primera llamada y lleva una serie por tipo de excepción
+    private long contarAgendar() {
+        return meterRegistry.find("vitalapp.servicio.citas").tag("method", "agendarCita").timers().stream()
+                .mapToLong(Timer::count)
+                .sum();
+    }
+
+    private CitaMedica citaDePrueba(ObjectId idMedico, LocalDate fecha, LocalTime horaInicio, EstadoCita estado) {
+        return CitaMedica.builder()
+                .idCliente(new ObjectId())
+                .idMedico(idMedico)
+                .horario(new HorarioMedico(fecha, horaInicio, horaInicio.plusMinutes(30), true))
+                .estado(estado)
+                .build();
+    }
+
+    @Test
+    void agendarCita_ReservasConcurrentes_SoloUnaExitosa() throws Exception {
+        // Arrange - Un único horario libre y muchos pacientes distintos compitiendo por él
+        Medico medico = new Medico();
+        medico.setNombre("Dr. Concurrencia " + new ObjectId());
+        medicoRepo.save(medico);
+
+        Horario horario = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(LocalDate.now().plusDays(2))
+                .horaInicio(LocalTime.of(11, 0))
+                .horaFin(LocalTime.of(12, 0))
+                .reservado(false)
+                .build());
+
+        int intentos = 300;
+        List<CrearCitaMedicaDTO> solicitudes = new ArrayList<>();
+        for (int i = 0; i < intentos; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setNombre("Paciente Concurrente " + i + " " + new ObjectId());
+            pacienteRepo.save(paciente);
+            solicitudes.add(new CrearCitaMedicaDTO(
+                    paciente.getId(),
+                    medico.getId(),
+                    new ItemHorarioDTO(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), false)
+            ));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(64);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitosas = new AtomicInteger();
+        AtomicInteger rechazadas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        // Act - Todas las reservas arrancan al mismo tiempo
+        for (CrearCitaMedicaDTO solicitud : solicitudes) {
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                try {
+                    citaService.agendarCita(solicitud);
+                    exitosas.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    rechazadas.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert
+        assertEquals(1, exitosas.get());
+        assertEquals(intentos - 1, rechazadas.get());
+        assertEquals(1, citaRepo.findByIdMedico(new ObjectId(medico.getId())).size());
+
+        Optional<Horario> horarioActualizado = horarioRepo.findById(horario.getId());
+        assertTrue(horarioActualizado.get().isReservado());
+    }
+
+    @Test
+    void reconciliarContadores_TrasOperacionesDelServicio_SinDesviacion() throws Exception {
+        // Arrange - Corregir lo que otras pruebas insertaron directo en el repositorio
+        contadorService.reconciliarContadores();
+
+        Medico medico = new Medico();
+        medico.setNombre("Dr. Contadores " + new ObjectId());
+        medicoRepo.save(medico);
+
+        Horario horario = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(LocalDate.now().plusDays(3))
+                .horaInicio(LocalTime.of(15, 0))
+                .horaFin(LocalTime.of(16, 0))
+                .reservado(false)
+                .build());
+
+        Paciente paciente = new Paciente();
+        paciente.setNombre("Paciente Contadores " + new ObjectId());
+        pacienteRepo.save(paciente);
+
+        long totalAntes = citaService.obtenerEstadisticas().get("total");
+        long canceladasAntes = citaService.obtenerEstadisticas().get("canceladas");
+
+        // Act
+        String idCita = citaService.agendarCita(new CrearCitaMedicaDTO(
+                paciente.getId(),
+                medico.getId(),
+                new ItemHorarioDTO(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), false)
+        ));
+        citaService.cancelarCita(idCita);
+
+        // Assert
+        assertEquals(totalAntes + 1, citaService.obtenerEstadisticas().get("total"));
+        assertEquals(canceladasAntes + 1, citaService.obtenerEstadisticas().get("canceladas"));
+        assertTrue(contadorService.reconciliarContadores().desviaciones().isEmpty());
+    }
+
+    @Test
+    void cancelarCita_CancelacionesConcurrentes_ContadoresSeMuevenUnaVez() throws Exception {
+        // Arrange - Una cita pendiente que varios hilos intentan cancelar a la vez
+        Medico medico = medicoRepo.save(Medico.builder().nombre("Dr. Cancelaciones " + new ObjectId()).build());
+        Horario horario = horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(LocalDate.now().plusDays(3))
+                .horaInicio(LocalTime.of(17, 0))
+                .horaFin(LocalTime.of(18, 0))
+                .reservado(false)
+                .build());
+        Paciente paciente = pacienteRepo.save(Paciente.builder().nombre("Paciente Cancelaciones " + new ObjectId()).build());
+        String idCita = citaService.agendarCita(new CrearCitaMedicaDTO(paciente.getId(), medico.getId(),
+                new ItemHorarioDTO(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), false)));
+
+        int hilos = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        AtomicInteger exitosas = new AtomicInteger();
+        List<Future<?>> tareas = new ArrayList<>();
+
+        // Act
+        for (int i = 0; i < hilos; i++) {
+            tareas.add(executor.submit(() -> {
+                salida.await();
+                try {
+                    citaService.cancelarCita(idCita);
+                    exitosas.incrementAndGet();
+                } catch (IllegalStateException e) {
+                    // La perdedora ve la cita ya cancelada, o pierde la actualización condicional
+                }
+                return null;
+            }));
+        }
+        salida.countDown();
+        for (Future<?> tarea : tareas) {
+            tarea.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        // Assert - Una sola cancelación aplicada: el contador del médico no queda con pendientes negativas
+        assertEquals(1, exitosas.get());
+        ContadorCitas delMedico = contadorRepo.findById(ContadorCitas.delMedico(new ObjectId(medico.getId())).getId()).orElseThrow();
+        assertEquals(1L, delMedico.getPorEstado().get(EstadoCita.CANCELADA));
+        assertEquals(0L, delMedico.getPorEstado().getOrDefault(EstadoCita.PENDIENTE, 0L));
+    }
+
+    @Test
+    void incrementarSiSinCambios_ContadorModificadoTrasLectura_NoCorrige() {
+        // Arrange - Un contador leído y luego modificado por otra escritura
+        ContadorCitas contador = ContadorCitas.delMedico(new ObjectId());
+        contadorRepo.incrementar(contador, 1, Map.of(EstadoCita.PENDIENTE, 1L));
+        ContadorCitas leido = contadorRepo.findById(contador.getId()).orElseThrow();
+        contadorRepo.incrementar(contador, 1, Map.of(EstadoCita.PENDIENTE, 1L));
+
+        // Act
+        boolean conLecturaVieja = contadorRepo.incrementarSiSinCambios(contador, leido, -1, Map.of(EstadoCita.PENDIENTE, -1L));
+        ContadorCitas vigente = contadorRepo.findById(contador.getId()).orElseThrow();
+        boolean conLecturaVigente = contadorRepo.incrementarSiSinCambios(contador, vigente, -1, Map.of(EstadoCita.PENDIENTE, -1L));
+
+        // Assert - La corrección basada en la lectura vieja no deshace la actualización concurrente
+        assertFalse(conLecturaVieja);
+        assertTrue(conLecturaVigente);
+        ContadorCitas resultado = contadorRepo.findById(contador.getId()).orElseThrow();
+        assertEquals(1, resultado.getTotal());
+        assertEquals(1, resultado.contar(EstadoCita.PENDIENTE));
+    }
+}
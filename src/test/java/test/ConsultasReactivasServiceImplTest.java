@@ -0,0 +1,121 @@
+package test;
+
+import VitalApp.dto.citaMedica.CrearCitaMedicaDTO;
+import VitalApp.dto.citaMedica.ItemCitaMedicaDTO;
+import VitalApp.dto.medico.ItemHorarioDTO;
+import VitalApp.exception.ResourceNotFoundException;
+import VitalApp.model.documents.Horario;
+import VitalApp.model.documents.Medico;
+import VitalApp.model.documents.Paciente;
+import VitalApp.repository.HorarioRepository;
+import VitalApp.repository.MedicoRepository;
+import VitalApp.repository.PacienteRepository;
+import VitalApp.service.service.CitaMedicaService;
+import VitalApp.service.service.ConsultasReactivasService;
+import VitalApp.service.service.MedicoService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Las lecturas reactivas deben devolver lo mismo, y en el mismo orden, que sus equivalentes MVC.
+ * Requieren Mongo: en el perfil memoria no existe el servicio reactivo.
+ */
+@SpringBootTest(classes = VitalApp.VitalAppApplication.class)
+public class ConsultasReactivasServiceImplTest {
+
+    @Autowired
+    private ConsultasReactivasService consultasReactivasService;
+
+    @Autowired
+    private MedicoService medicoService;
+
+    @Autowired
+    private CitaMedicaService citaService;
+
+    @Autowired
+    private MedicoRepository medicoRepo;
+
+    @Autowired
+    private PacienteRepository pacienteRepo;
+
+    @Autowired
+    private HorarioRepository horarioRepo;
+
+    @Test
+    void listarHorariosDisponibles_IgualQueMvc() {
+        // Arrange - Dos días con horarios libres y uno reservado
+        Medico medico = new Medico();
+        medico.setNombre("Dr. Reactivo " + new ObjectId());
+        medicoRepo.save(medico);
+
+        LocalDate manana = LocalDate.now().plusDays(1);
+        guardarHorario(medico, manana, LocalTime.of(10, 0), false);
+        guardarHorario(medico, manana, LocalTime.of(8, 0), false);
+        guardarHorario(medico, manana, LocalTime.of(9, 0), true);
+        guardarHorario(medico, manana.plusDays(1), LocalTime.of(8, 0), false);
+
+        // Act
+        List<ItemHorarioDTO> reactivos = consultasReactivasService
+                .listarHorariosDisponibles(medico.getId(), null).collectList().block();
+        List<ItemHorarioDTO> delDia = consultasReactivasService
+                .listarHorariosDisponibles(medico.getId(), manana).collectList().block();
+
+        // Assert
+        assertEquals(medicoService.listarHorariosDisponibles(medico.getId()), reactivos);
+        assertEquals(3, reactivos.size());
+        assertEquals(List.of(LocalTime.of(8, 0), LocalTime.of(10, 0)),
+                delDia.stream().map(ItemHorarioDTO::horaInicio).toList());
+    }
+
+    @Test
+    void listarHistorialPaciente_IgualQueMvc() throws Exception {
+        // Arrange - Un paciente con una cita agendada
+        Medico medico = new Medico();
+        medico.setNombre("Dr. Historial Reactivo " + new ObjectId());
+        medicoRepo.save(medico);
+        Horario horario = guardarHorario(medico, LocalDate.now().plusDays(2), LocalTime.of(11, 0), false);
+
+        Paciente paciente = new Paciente();
+        paciente.setNombre("Paciente Historial Reactivo " + new ObjectId());
+        pacienteRepo.save(paciente);
+
+        citaService.agendarCita(new CrearCitaMedicaDTO(paciente.getId(), medico.getId(),
+                new ItemHorarioDTO(horario.getFecha(), horario.getHoraInicio(), horario.getHoraFin(), false)));
+
+        // Act
+        List<ItemCitaMedicaDTO> reactivo = consultasReactivasService
+                .listarHistorialPaciente(paciente.getId()).collectList().block();
+
+        // Assert
+        assertEquals(citaService.listarCitasPorPaciente(paciente.getId(), null, null, null), reactivo);
+        assertEquals(1, reactivo.size());
+    }
+
+    @Test
+    void listarHistorialPaciente_PacienteInexistente_FallaSinElementos() {
+        // Arrange
+        String idInexistente = new ObjectId().toHexString();
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> consultasReactivasService
+                .listarHistorialPaciente(idInexistente).collectList().block());
+    }
+
+    private Horario guardarHorario(Medico medico, LocalDate fecha, LocalTime horaInicio, boolean reservado) {
+        return horarioRepo.save(Horario.builder()
+                .idMedico(new ObjectId(medico.getId()))
+                .fecha(fecha)
+                .horaInicio(horaInicio)
+                .horaFin(horaInicio.plusHours(1))
+                .reservado(reservado)
+                .build());
+    }
+}
@@ -0,0 +1,160 @@
+package test;
+
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.ContadorCitas;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.model.vo.ResultadoMedico;
+import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.service.service.CitaMedicaService;
+import VitalApp.service.service.ContadorCitasService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compara el cálculo anterior de estadísticas (findAll + streams) con la lectura de contadores
+ * materializados. Usa una base de datos aparte porque borra las colecciones en cada tamaño.
+ * Se ejecuta con: gradle pruebasVolumen
+ */
+@Tag("volumen")
+@SpringBootTest(
+        classes = VitalApp.VitalAppApplication.class,
+        properties = "spring.data.mongodb.uri=mongodb://localhost:27017/VitalAppBenchmark"
+)
+public class EstadisticasCitaBenchmarkTest {
+
+    private static final int LOTE = 10_000;
+    private static final int REPETICIONES = 5;
+
+    @Autowired
+    private CitaMedicaService citaService;
+
+    @Autowired
+    private ContadorCitasService contadorService;
+
+    @Autowired
+    private CitaMedicaRepository citaRepo;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @ParameterizedTest
+    @ValueSource(ints = {10_000, 100_000, 1_000_000})
+    void obtenerEstadisticas_ContadoresVsFindAll(int cantidad) {
+        // Arrange - Las citas se insertan directo, así que los contadores se reconstruyen después
+        mongoTemplate.dropCollection(CitaMedica.class);
+        mongoTemplate.dropCollection(ContadorCitas.class);
+        insertarCitas(cantidad);
+
+        long inicioReconstruccion = System.nanoTime();
+        contadorService.reconciliarContadores();
+        long msReconstruccion = (System.nanoTime() - inicioReconstruccion) / 1_000_000;
+
+        // Act
+        Map<String, Long> contadores = citaService.obtenerEstadisticas();
+        Map<String, Long> enMemoria = estadisticasEnMemoria();
+        long msContadores = medianaMs(citaService::obtenerEstadisticas);
+        long msEnMemoria = medianaMs(this::estadisticasEnMemoria);
+
+        System.out.printf("citas=%,d  findAll=%d ms  contadores=%d ms  reconstrucción=%d ms%n",
+                cantidad, msEnMemoria, msContadores, msReconstruccion);
+
+        // Assert - Ambos caminos deben contar lo mismo
+        assertEquals((long) cantidad, contadores.get("total"));
+        assertEquals(enMemoria, contadores);
+    }
+
+    // Implementación anterior de obtenerEstadisticas, conservada solo como referencia de medición
+    private Map<String, Long> estadisticasEnMemoria() {
+        List<CitaMedica> todasLasCitas = citaRepo.findAll();
+        Map<String, Long> estadisticas = new HashMap<>();
+
+        estadisticas.put("total", (long) todasLasCitas.size());
+        estadisticas.put("pendientes", todasLasCitas.stream()
+                .filter(c -> c.getEstado() == EstadoCita.PENDIENTE).count());
+        estadisticas.put("vistas", todasLasCitas.stream()
+                .filter(c -> c.getEstado() == EstadoCita.VISTA).count());
+        estadisticas.put("canceladas", todasLasCitas.stream()
+                .filter(c -> c.getEstado() == EstadoCita.CANCELADA).count());
+
+        LocalDate hoy = LocalDate.now();
+        estadisticas.put("citasHoy", todasLasCitas.stream()
+                .filter(c -> c.getHorario().getFecha().equals(hoy)).count());
+
+        LocalDateTime ahora = LocalDateTime.now();
+        estadisticas.put("citasFuturasPendientes", todasLasCitas.stream()
+                .filter(c -> c.getEstado() == EstadoCita.PENDIENTE)
+                .filter(c -> LocalDateTime.of(c.getHorario().getFecha(), c.getHorario().getHoraInicio()).isAfter(ahora))
+                .count());
+
+        return estadisticas;
+    }
+
+    private long medianaMs(Supplier<?> operacion) {
+        long[] tiempos = new long[REPETICIONES];
+        for (int i = 0; i < REPETICIONES; i++) {
+            long inicio = System.nanoTime();
+            operacion.get();
+            tiempos[i] = (System.nanoTime() - inicio) / 1_000_000;
+        }
+        Arrays.sort(tiempos);
+        return tiempos[REPETICIONES / 2];
+    }
+
+    private void insertarCitas(int cantidad) {
+        Random random = new Random(42);
+        EstadoCita[] estados = {EstadoCita.PENDIENTE, EstadoCita.VISTA, EstadoCita.CANCELADA};
+        LocalDate hoy = LocalDate.now();
+
+        for (int inicio = 0; inicio < cantidad; inicio += LOTE) {
+            List<CitaMedica> lote = new ArrayList<>(LOTE);
+            for (int i = inicio; i < Math.min(inicio + LOTE, cantidad); i++) {
+                EstadoCita estado = estados[random.nextInt(estados.length)];
+                LocalTime horaInicio = LocalTime.of(7 + random.nextInt(11), 0);
+                HorarioMedico horario = new HorarioMedico(
+                        hoy.plusDays(random.nextInt(365) - 180),
+                        horaInicio,
+                        horaInicio.plusMinutes(30),
+                        true
+                );
+
+                lote.add(CitaMedica.builder()
+                        .idCliente(new ObjectId())
+                        .idMedico(new ObjectId())
+                        .horario(horario)
+                        .estado(estado)
+                        .resultado(estado == EstadoCita.VISTA ? resultadoSintetico() : null)
+                        .build());
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CitaMedica.class).insert(lote).execute();
+        }
+    }
+
+    private ResultadoMedico resultadoSintetico() {
+        return ResultadoMedico.builder()
+                .descripcion("Descripción de control ".repeat(20))
+                .diagnostico("Diagnóstico sin hallazgos relevantes ".repeat(5))
+                .recomendaciones("Continuar tratamiento y control ".repeat(20))
+                .fechaRegistro(LocalDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,124 @@
+package test;
+
+import VitalApp.dto.citaMedica.FiltroCitasDTO;
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.model.vo.ResultadoMedico;
+import VitalApp.service.service.CitaMedicaService;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Exporta un millón de citas sintéticas con un heap de 192 MB: si la exportación acumulara
+ * las citas en memoria la prueba terminaría en OutOfMemoryError.
+ * Se ejecuta con: gradle pruebasExportacion
+ */
+@Tag("exportacion")
+@SpringBootTest(
+        classes = VitalApp.VitalAppApplication.class,
+        properties = "spring.data.mongodb.uri=mongodb://localhost:27017/VitalAppBenchmark"
+)
+public class ExportacionCitasVolumenTest {
+
+    private static final int CANTIDAD = 1_000_000;
+    private static final int LOTE = 5_000;
+    private static final long HEAP_MAXIMO = 256L * 1024 * 1024;
+
+    @Autowired
+    private CitaMedicaService citaService;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Test
+    void exportarCitas_UnMillon_MemoriaConstante() throws Exception {
+        assertTrue(Runtime.getRuntime().maxMemory() <= HEAP_MAXIMO,
+                "Esta prueba debe ejecutarse con un heap pequeño (gradle pruebasExportacion)");
+
+        // Arrange
+        mongoTemplate.dropCollection(CitaMedica.class);
+        insertarCitas();
+        ContadorSalida salida = new ContadorSalida();
+
+        // Act
+        long inicio = System.nanoTime();
+        long exportadas = citaService.exportarCitas(new FiltroCitasDTO(null, null, null, null, null), salida);
+        long ms = (System.nanoTime() - inicio) / 1_000_000;
+
+        System.out.printf("citas=%,d  bytes=%,d  tiempo=%d ms%n", exportadas, salida.bytes, ms);
+
+        // Assert
+        assertEquals(CANTIDAD, exportadas);
+        assertEquals(CANTIDAD, salida.lineas);
+    }
+
+    private void insertarCitas() {
+        Random random = new Random(7);
+        EstadoCita[] estados = {EstadoCita.PENDIENTE, EstadoCita.VISTA, EstadoCita.CANCELADA};
+        LocalDate hoy = LocalDate.now();
+
+        for (int inicio = 0; inicio < CANTIDAD; inicio += LOTE) {
+            List<CitaMedica> lote = new ArrayList<>(LOTE);
+            for (int i = inicio; i < Math.min(inicio + LOTE, CANTIDAD); i++) {
+                EstadoCita estado = estados[random.nextInt(estados.length)];
+                LocalTime horaInicio = LocalTime.of(7 + random.nextInt(11), 0);
+
+                lote.add(CitaMedica.builder()
+                        .idCliente(new ObjectId())
+                        .idMedico(new ObjectId())
+                        .horario(new HorarioMedico(hoy.plusDays(random.nextInt(365) - 180), horaInicio, horaInicio.plusMinutes(30), true))
+                        .estado(estado)
+                        .resultado(estado == EstadoCita.VISTA
+                                ? ResultadoMedico.builder()
+                                        .descripcion("Descripción de control ".repeat(20))
+                                        .diagnostico("Sin hallazgos relevantes")
+                                        .recomendaciones("Continuar tratamiento ".repeat(20))
+                                        .fechaRegistro(LocalDateTime.now())
+                                        .build()
+                                : null)
+                        .build());
+            }
+            mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CitaMedica.class).insert(lote).execute();
+        }
+    }
+
+    // Descarta lo escrito y solo cuenta bytes y líneas, para no retener la salida en memoria
+    private static class ContadorSalida extends OutputStream {
+        private long bytes;
+        private long lineas;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lineas++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lineas++;
+                }
+            }
+        }
+    }
+}
@@ -1,14 +1,27 @@
 package test;
 
 import VitalApp.dto.medico.*;
+import VitalApp.model.documents.Horario;
+import VitalApp.repository.HorarioRepository;
 import VitalApp.service.service.MedicoService;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -18,11 +31,14 @@ public class MedicoServiceImplTest {
     @Autowired
     private MedicoService medicoService;
 
+    @Autowired
+    private HorarioRepository horarioRepo;
+
     @Test
     void crearMedico_DatosValidos_RetornaId() throws Exception {
         // Arrange
         CrearMedicoDTO dto = new CrearMedicoDTO(
-                "Dr. Test",
+                "Dr. Test " + new ObjectId(),
                 "Cardiología",
                 List.of() // Lista vacía de horarios iniciales
         );
@@ -39,15 +55,16 @@ public class MedicoServiceImplTest {
     void editarMedico_DatosValidos_ActualizaCorrectamente() throws Exception {
         // Arrange
         CrearMedicoDTO crearDto = new CrearMedicoDTO(
-                "Dr. Original",
+                "Dr. Original " + new ObjectId(),
                 "Pediatría",
                 List.of()
         );
         String id = medicoService.crearMedico(crearDto);
 
+        String nombreEditado = "Dr. Editado " + new ObjectId();
         EditarMedicoDTO editarDto = new EditarMedicoDTO(
                 id,
-                "Dr. Editado",
+                nombreEditado,
                 "Neurología",
                 List.of()
         );
@@ -58,15 +75,32 @@ public class MedicoServiceImplTest {
         // Assert
         assertEquals(id, resultado);
         InformacionMedicoDTO actualizado = medicoService.obtenerInformacionMedico(id);
-        assertEquals("Dr. Editado", actualizado.nombre());
+        assertEquals(nombreEditado, actualizado.nombre());
         assertEquals("Neurología", actualizado.especialidad());
     }
 
+    @Test
+    void editarMedico_ConDatosEnCache_InvalidaCache() throws Exception {
+        // Arrange - Se cargan en caché el médico y las especialidades
+        String especialidad = "Especialidad " + System.nanoTime();
+        String nombre = "Dr. Cacheado " + System.nanoTime();
+        String id = medicoService.crearMedico(new CrearMedicoDTO(nombre, "Dermatología", List.of()));
+        medicoService.obtenerInformacionMedico(id);
+        medicoService.listarEspecialidades();
+
+        // Act
+        medicoService.editarMedico(new EditarMedicoDTO(id, nombre, especialidad, List.of()));
+
+        // Assert - Las lecturas posteriores ven el cambio, no la copia en caché
+        assertEquals(especialidad, medicoService.obtenerInformacionMedico(id).especialidad());
+        assertTrue(medicoService.listarEspecialidades().contains(especialidad));
+    }
+
     @Test
     void agregarHorario_HorarioValido_AgregaCorrectamente() throws Exception {
         // Arrange
         CrearMedicoDTO medicoDto = new CrearMedicoDTO(
-                "Dr. Horario",
+                "Dr. Horario " + new ObjectId(),
                 "Dermatología",
                 List.of()
         );
@@ -87,6 +121,153 @@ public class MedicoServiceImplTest {
         assertEquals(1, horarios.size());
     }
 
+    @Test
+    void agregarHorarios_LoteMixto_ResultadoPorHorario() throws Exception {
+        // Arrange - Un horario ya existente y un lote con casos válidos e inválidos
+        String id = medicoService.crearMedico(new CrearMedicoDTO("Dr. Lote " + System.nanoTime(), "Pediatría", List.of()));
+        LocalDate dia = LocalDate.now().plusDays(1);
+        medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(8, 0), LocalTime.of(9, 0)));
+
+        List<CrearHorarioDTO> lote = List.of(
+                new CrearHorarioDTO(dia, LocalTime.of(10, 0), LocalTime.of(11, 0)),                  // válido
+                new CrearHorarioDTO(dia, LocalTime.of(10, 30), LocalTime.of(11, 30)),                // se solapa con el anterior
+                new CrearHorarioDTO(dia, LocalTime.of(8, 30), LocalTime.of(9, 30)),                  // se solapa con el existente
+                new CrearHorarioDTO(dia.minusDays(3), LocalTime.of(10, 0), LocalTime.of(11, 0)),     // en el pasado
+                new CrearHorarioDTO(dia.plusDays(1), LocalTime.of(10, 0), LocalTime.of(11, 0))       // válido, otro día
+        );
+
+        // Act
+        ResultadoLoteHorariosDTO resultado = medicoService.agregarHorarios(id, lote);
+
+        // Assert
+        assertEquals(2, resultado.aceptados());
+        assertEquals(3, resultado.rechazados());
+        assertEquals(List.of(true, false, false, false, true),
+                resultado.resultados().stream().map(ResultadoHorarioDTO::aceptado).toList());
+        assertNotNull(resultado.resultados().get(1).motivo());
+        assertEquals(3, medicoService.listarHorarios(id).size());
+    }
+
+    @Test
+    void agregarHorario_HorariosContiguos_MismaReglaEnTodasLasRutas() throws Exception {
+        // Arrange - Un bloque de plantilla 09:00-10:00; los demás horarios empiezan o terminan justo en sus extremos
+        String id = medicoService.crearMedico(new CrearMedicoDTO("Dr. Contiguo " + new ObjectId(), "Pediatría", List.of()));
+        LocalDate dia = LocalDate.now().plusDays(2);
+        medicoService.generarHorarios(id, new CrearPlantillaHorariosDTO(
+                EnumSet.of(dia.getDayOfWeek()), LocalTime.of(9, 0), LocalTime.of(10, 0), 60, dia, dia));
+
+        // Act
+        medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(10, 0), LocalTime.of(11, 0)));
+        ResultadoLoteHorariosDTO lote = medicoService.agregarHorarios(id, List.of(
+                new CrearHorarioDTO(dia, LocalTime.of(8, 0), LocalTime.of(9, 0)),
+                new CrearHorarioDTO(dia, LocalTime.of(10, 59), LocalTime.of(11, 30))));
+
+        // Assert - Contiguos aceptados por la ruta individual y la de lotes; un minuto de solape se rechaza
+        assertEquals(List.of(true, false), lote.resultados().stream().map(ResultadoHorarioDTO::aceptado).toList());
+        assertEquals(3, medicoService.listarHorarios(id).size());
+    }
+
+    @Test
+    void generarHorarios_PlantillaSemanal_OmiteSolapados() throws Exception {
+        // Arrange - Cuatro semanas de lunes a viernes, 08:00-12:00 en bloques de 20 minutos
+        String id = medicoService.crearMedico(new CrearMedicoDTO("Dr. Plantilla " + System.nanoTime(), "Cardiología", List.of()));
+        LocalDate lunes = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+        medicoService.agregarHorario(id, new CrearHorarioDTO(lunes, LocalTime.of(9, 10), LocalTime.of(9, 30)));
+
+        CrearPlantillaHorariosDTO plantilla = new CrearPlantillaHorariosDTO(
+                EnumSet.range(DayOfWeek.MONDAY, DayOfWeek.FRIDAY),
+                LocalTime.of(8, 0),
+                LocalTime.of(12, 0),
+                20,
+                lunes,
+                lunes.plusWeeks(4).minusDays(1)
+        );
+
+        // Act
+        ResultadoPlantillaHorariosDTO resultado = medicoService.generarHorarios(id, plantilla);
+
+        // Assert - 20 días x 12 bloques; el horario existente choca con 09:00-09:20 y 09:20-09:40
+        assertEquals(240, resultado.generados());
+        assertEquals(238, resultado.creados());
+        assertEquals(2, resultado.omitidos());
+        assertEquals(239, medicoService.listarHorarios(id).size());
+    }
+
+    @Test
+    void agregarHorario_TrasEliminarSolapado_IndiceSincronizado() throws Exception {
+        // Arrange - Un horario registrado en el índice y luego eliminado
+        String id = medicoService.crearMedico(new CrearMedicoDTO("Dr. Indice " + System.nanoTime(), "Pediatría", List.of()));
+        LocalDate dia = LocalDate.now().plusDays(2);
+        medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(9, 0), LocalTime.of(10, 0)));
+        assertThrows(IllegalStateException.class,
+                () -> medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(9, 30), LocalTime.of(10, 30))));
+        medicoService.eliminarHorario(id, dia, LocalTime.of(9, 0));
+
+        // Act
+        medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(9, 30), LocalTime.of(10, 30)));
+
+        // Assert
+        assertEquals(1, medicoService.listarHorarios(id).size());
+    }
+
+    @Test
+    void agregarHorario_MismoInicioEscritoFueraDelIndice_RechazaYRecargaElDia() throws Exception {
+        // Arrange - El índice del día ya está cargado y otra instancia escribe un horario sin pasar por él
+        String id = medicoService.crearMedico(new CrearMedicoDTO("Dr. Otra Instancia " + System.nanoTime(), "Pediatría", List.of()));
+        LocalDate dia = LocalDate.now().plusDays(2);
+        medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(8, 0), LocalTime.of(9, 0)));
+        horarioRepo.insert(Horario.builder()
+                .idMedico(new ObjectId(id))
+                .fecha(dia)
+                .horaInicio(LocalTime.of(10, 0))
+                .horaFin(LocalTime.of(11, 0))
+                .reservado(false)
+                .build());
+
+        // Act & Assert - El índice no lo ve, pero el índice único rechaza la misma hora de inicio al insertar;
+        // el día se recarga y el siguiente solape ya lo rechaza el índice
+        assertThrows(IllegalStateException.class,
+                () -> medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(10, 0), LocalTime.of(10, 30))));
+        assertThrows(IllegalStateException.class,
+                () -> medicoService.agregarHorario(id, new CrearHorarioDTO(dia, LocalTime.of(10, 30), LocalTime.of(11, 30))));
+        assertEquals(2, medicoService.listarHorarios(id).size());
+    }
+
+    @Test
+    void agregarHorario_ConcurrentesSolapadosDistintoInicio_SoloUnoSeAcepta() throws Exception {
+        // Arrange - Horarios que se solapan entre sí pero con distinta hora de inicio: el índice único no los separa
+        String id = medicoService.crearMedico(new CrearMedicoDTO("Dr. Concurrente " + new ObjectId(), "Pediatría", List.of()));
+        LocalDate dia = LocalDate.now().plusDays(2);
+        int hilos = 8;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<String>> intentos = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            LocalTime inicio = LocalTime.of(9, i * 5);
+            intentos.add(ejecutor.submit(() -> {
+                salida.await();
+                return medicoService.agregarHorario(id, new CrearHorarioDTO(dia, inicio, inicio.plusHours(1)));
+            }));
+        }
+
+        // Act
+        salida.countDown();
+        int aceptados = 0;
+        for (Future<String> intento : intentos) {
+            try {
+                intento.get(30, TimeUnit.SECONDS);
+                aceptados++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+        ejecutor.shutdown();
+
+        // Assert - Comprobar y apartar en el índice del día es atómico
+        assertEquals(1, aceptados);
+        assertEquals(1, medicoService.listarHorarios(id).size());
+    }
+
     @Test
     void listarMedicos_ConDatos_RetornaLista() {
         // Act
@@ -100,7 +281,7 @@ public class MedicoServiceImplTest {
     void eliminarMedico_Existente_EliminaCorrectamente() throws Exception {
         // Arrange
         CrearMedicoDTO dto = new CrearMedicoDTO(
-                "Dr. Eliminar",
+                "Dr. Eliminar " + new ObjectId(),
                 "Oftalmología",
                 List.of()
         );
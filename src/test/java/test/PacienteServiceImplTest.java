@@ -1,15 +1,26 @@
 package test;
 
+import VitalApp.dto.Autentication.PaginaDTO;
 import VitalApp.dto.paciente.*;
 import VitalApp.model.documents.Paciente;
 import VitalApp.repository.PacienteRepository;
 import VitalApp.service.service.PacienteService;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -25,7 +36,8 @@ public class PacienteServiceImplTest {
     @Test
     void crearPaciente_NombreValido_PersisteEnBD() throws Exception {
         // Arrange
-        CrearPacienteDTO dto = new CrearPacienteDTO("Juan Pérez");
+        String nombre = "Juan Pérez " + new ObjectId();
+        CrearPacienteDTO dto = new CrearPacienteDTO(nombre);
 
         // Act
         String pacienteId = pacienteService.crearPaciente(dto);
@@ -33,14 +45,14 @@ public class PacienteServiceImplTest {
         // Assert - Verificar en BD
         Optional<Paciente> pacienteGuardado = pacienteRepo.findById(pacienteId);
         assertTrue(pacienteGuardado.isPresent());
-        assertEquals("Juan Pérez", pacienteGuardado.get().getNombre());
+        assertEquals(nombre, pacienteGuardado.get().getNombre());
         assertNotNull(pacienteGuardado.get().getId());
     }
 
     @Test
     void crearPaciente_NombreRepetido_LanzaExcepcion() throws Exception {
         // Arrange
-        CrearPacienteDTO dto = new CrearPacienteDTO("Nombre Repetido");
+        CrearPacienteDTO dto = new CrearPacienteDTO("Nombre Repetido " + new ObjectId());
         pacienteService.crearPaciente(dto); // Primer registro
 
         // Act & Assert
@@ -49,6 +61,56 @@ public class PacienteServiceImplTest {
         });
     }
 
+    @Test
+    void crearPaciente_ConcurrenteMismoNombre_SoloUnoSeGuarda() throws Exception {
+        // Arrange - Variantes que normalizan al mismo nombre, enviadas a la vez desde varios hilos
+        String marca = marca();
+        List<String> variantes = List.of("José Núñez " + marca, "jose nunez " + marca, "JOSÉ  NÚÑEZ " + marca);
+        int hilos = 12;
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+        CountDownLatch salida = new CountDownLatch(1);
+        List<Future<String>> intentos = new ArrayList<>();
+        for (int i = 0; i < hilos; i++) {
+            String nombre = variantes.get(i % variantes.size());
+            intentos.add(ejecutor.submit(() -> {
+                salida.await();
+                return pacienteService.crearPaciente(new CrearPacienteDTO(nombre));
+            }));
+        }
+
+        // Act
+        salida.countDown();
+        int creados = 0;
+        for (Future<String> intento : intentos) {
+            try {
+                intento.get(30, TimeUnit.SECONDS);
+                creados++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+            }
+        }
+        ejecutor.shutdown();
+
+        // Assert - Un solo documento, sin importar cuántos pasaron la validación a la vez
+        assertEquals(1, creados);
+        assertEquals(1, pacienteService.buscarPacientesPorNombre(marca, 10).size());
+    }
+
+    @Test
+    void guardarPaciente_SinNombre_NoOcupaElIndiceUnico() {
+        // Arrange
+        Paciente primero = new Paciente();
+        Paciente segundo = new Paciente();
+
+        // Act
+        pacienteRepo.save(primero);
+        pacienteRepo.save(segundo);
+
+        // Assert - Sin nombre no hay clave normalizada, así que ninguno choca con el otro
+        assertNull(pacienteRepo.findById(primero.getId()).get().getNombreNormalizado());
+        assertTrue(pacienteRepo.existsById(segundo.getId()));
+    }
+
     @Test
     void editarPaciente_IdInexistente_LanzaExcepcion() {
         // Arrange
@@ -67,12 +129,13 @@ public class PacienteServiceImplTest {
     void editarPaciente_DatosValidos_ActualizaEnBD() throws Exception {
         // Arrange - Crear paciente inicial
         Paciente paciente = new Paciente();
-        paciente.setNombre("Nombre Original");
+        paciente.setNombre("Nombre Original " + new ObjectId());
         pacienteRepo.save(paciente);
 
+        String nombreNuevo = "Nombre Actualizado " + new ObjectId();
         EditarPacienteDTO dto = new EditarPacienteDTO(
                 paciente.getId(),
-                "Nombre Actualizado"
+                nombreNuevo
         );
 
         // Act
@@ -81,7 +144,7 @@ public class PacienteServiceImplTest {
         // Assert - Verificar en BD
         Optional<Paciente> pacienteActualizado = pacienteRepo.findById(paciente.getId());
         assertTrue(pacienteActualizado.isPresent());
-        assertEquals("Nombre Actualizado", pacienteActualizado.get().getNombre());
+        assertEquals(nombreNuevo, pacienteActualizado.get().getNombre());
         assertEquals(paciente.getId(), resultado);
     }
 
@@ -89,7 +152,7 @@ public class PacienteServiceImplTest {
     void eliminarPaciente_Existente_EliminaDeBD() throws Exception {
         // Arrange - Crear paciente
         Paciente paciente = new Paciente();
-        paciente.setNombre("Paciente a Eliminar");
+        paciente.setNombre("Paciente a Eliminar " + new ObjectId());
         pacienteRepo.save(paciente);
 
         // Act
@@ -105,7 +168,7 @@ public class PacienteServiceImplTest {
     void obtenerInformacionPaciente_Existente_RetornaDTO() throws Exception {
         // Arrange - Crear paciente
         Paciente paciente = new Paciente();
-        paciente.setNombre("Paciente Info");
+        paciente.setNombre("Paciente Info " + new ObjectId());
         pacienteRepo.save(paciente);
 
         // Act
@@ -113,6 +176,69 @@ public class PacienteServiceImplTest {
 
         // Assert
         assertEquals(paciente.getId(), resultado.id());
-        assertEquals("Paciente Info", resultado.nombre());
+        assertEquals(paciente.getNombre(), resultado.nombre());
+    }
+
+    @Test
+    void buscarPacientesPorNombre_SinTildes_EncuentraPorPrefijoYOrdena() throws Exception {
+        // Arrange - Una marca única evita coincidir con los pacientes de otras pruebas
+        String marca = marca();
+        String exacto = pacienteService.crearPaciente(new CrearPacienteDTO("María González " + marca));
+        String porPrefijo = pacienteService.crearPaciente(new CrearPacienteDTO("Mariana Gonzalo Pérez " + marca));
+        pacienteService.crearPaciente(new CrearPacienteDTO("Pedro López " + marca));
+
+        // Act
+        List<ItemPacienteDTO> encontrados = pacienteService.buscarPacientesPorNombre("maria GONZ " + marca, 10);
+
+        // Assert - Los dos coinciden por prefijo; la palabra completa "maria" pone primero al exacto
+        assertEquals(List.of(exacto, porPrefijo), encontrados.stream().map(ItemPacienteDTO::id).toList());
+    }
+
+    @Test
+    void buscarPacientesPorNombre_MasCoincidenciasQueCandidatos_IncluyeElExacto() throws Exception {
+        // Arrange - Con límite 1 se leen 5 candidatos. Palabras con las mismas 12 primeras letras comparten
+        // términos y, con la misma longitud, empatan; las 8 que no son la buscada se crean antes
+        for (int i = 0; i < 8; i++) {
+            pacienteService.crearPaciente(new CrearPacienteDTO("Lucía Constantinop" + marca()));
+        }
+        String buscado = "Lucía Constantinop" + marca();
+        String exacto = pacienteService.crearPaciente(new CrearPacienteDTO(buscado));
+
+        // Act
+        List<ItemPacienteDTO> encontrados = pacienteService.buscarPacientesPorNombre(buscado, 1);
+
+        // Assert
+        assertEquals(List.of(exacto), encontrados.stream().map(ItemPacienteDTO::id).toList());
+    }
+
+    @Test
+    void listarPacientes_ConCursor_RecorreTodosSinRepetir() throws Exception {
+        // Arrange
+        List<String> creados = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Paciente paciente = new Paciente();
+            paciente.setNombre("Paciente Paginado " + i + " " + System.nanoTime());
+            creados.add(pacienteRepo.save(paciente).getId());
+        }
+
+        // Act - Recorrer todas las páginas siguiendo el cursor
+        List<String> vistos = new ArrayList<>();
+        PaginaDTO<ItemPacienteDTO> pagina = pacienteService.listarPacientes(0, 2, null);
+        pagina.contenido().forEach(p -> vistos.add(p.id()));
+        while (pagina.siguienteCursor() != null) {
+            pagina = pacienteService.listarPacientes(0, 2, pagina.siguienteCursor());
+            assertTrue(pagina.contenido().size() <= 2);
+            pagina.contenido().forEach(p -> vistos.add(p.id()));
+        }
+
+        // Assert
+        assertEquals(vistos.size(), new HashSet<>(vistos).size());
+        assertTrue(vistos.containsAll(creados));
+    }
+
+    // Ocho letras, siempre las mismas: por debajo de las 12 la marca se guarda entera como término, así que
+    // solo coincide con los nombres de la prueba
+    private static String marca() {
+        return "m" + Long.toString(ThreadLocalRandom.current().nextLong(2_176_782_336L, 78_364_164_096L), 36);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,195 @@
+package test;
+
+import VitalApp.config.GuardiaPlanesConsulta;
+import VitalApp.config.GuardiaPlanesConsulta.ResultadoPlan;
+import VitalApp.model.documents.CitaMedica;
+import VitalApp.model.documents.Horario;
+import VitalApp.model.documents.Medico;
+import VitalApp.model.documents.Paciente;
+import VitalApp.model.enums.EstadoCita;
+import VitalApp.model.vo.HorarioMedico;
+import VitalApp.repository.CitaMedicaRepository;
+import VitalApp.repository.FiltroCitas;
+import VitalApp.repository.HorarioRepository;
+import VitalApp.repository.MedicoRepository;
+import VitalApp.repository.PacienteRepository;
+import VitalApp.utils.BusquedaTexto;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.MongoPersistentEntityIndexResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifica con explain que las consultas de los caminos frecuentes (reserva, agenda del médico, citas
+ * del paciente, paginación) siguen usando un índice. Si un cambio de consulta o de índices las deja
+ * recorriendo la colección, esta suite falla con la forma de la consulta afectada.
+ * Se ejecuta con: gradle pruebasPlanes
+ */
+@Tag("planes")
+@SpringBootTest(
+        classes = VitalApp.VitalAppApplication.class,
+        properties = {
+                "spring.data.mongodb.uri=mongodb://localhost:27017/VitalAppBenchmark",
+                "vitalapp.mongodb.planes.verificar=true"
+        }
+)
+public class PlanesConsultaTest {
+
+    private static final int MEDICOS = 50;
+    private static final int CITAS = 20_000;
+    private static final double PROPORCION_MAXIMA = 10;
+
+    @Autowired
+    private GuardiaPlanesConsulta guardia;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoMappingContext mappingContext;
+
+    @Autowired
+    private CitaMedicaRepository citaRepo;
+
+    @Autowired
+    private HorarioRepository horarioRepo;
+
+    @Autowired
+    private MedicoRepository medicoRepo;
+
+    @Autowired
+    private PacienteRepository pacienteRepo;
+
+    private final List<ObjectId> medicos = new ArrayList<>();
+    private final List<ObjectId> pacientes = new ArrayList<>();
+    private final LocalDate hoy = LocalDate.now();
+
+    @BeforeEach
+    void prepararDatos() {
+        // Con pocos documentos el planificador puede preferir un recorrido aunque exista el índice
+        for (Class<?> clase : List.of(CitaMedica.class, Horario.class, Medico.class, Paciente.class)) {
+            mongoTemplate.dropCollection(clase);
+            new MongoPersistentEntityIndexResolver(mappingContext).resolveIndexFor(clase)
+                    .forEach(indice -> mongoTemplate.indexOps(clase).ensureIndex(indice));
+        }
+
+        Random random = new Random(42);
+        medicos.clear();
+        pacientes.clear();
+        for (int i = 0; i < MEDICOS; i++) {
+            medicos.add(new ObjectId(medicoRepo.save(Medico.builder()
+                    .nombre("Dr. Plan " + i)
+                    .especialidad(i % 2 == 0 ? "Cardiología" : "Pediatría")
+                    .build()).getId()));
+        }
+        for (int i = 0; i < MEDICOS * 20; i++) {
+            pacientes.add(new ObjectId(pacienteRepo.save(Paciente.builder().nombre("Paciente Plan " + i).build()).getId()));
+        }
+
+        List<CitaMedica> citas = new ArrayList<>();
+        List<Horario> horarios = new ArrayList<>();
+        EstadoCita[] estados = EstadoCita.values();
+        for (int i = 0; i < CITAS; i++) {
+            ObjectId idMedico = medicos.get(i % MEDICOS);
+            LocalDate fecha = hoy.plusDays((i / MEDICOS) / 16 - 100);
+            LocalTime inicio = LocalTime.of(8, 0).plusMinutes(30L * ((i / MEDICOS) % 16));
+            citas.add(CitaMedica.builder()
+                    .idCliente(pacientes.get(random.nextInt(pacientes.size())))
+                    .idMedico(idMedico)
+                    .horario(new HorarioMedico(fecha, inicio, inicio.plusMinutes(30), true))
+                    .estado(estados[random.nextInt(estados.length)])
+                    .build());
+            horarios.add(Horario.builder()
+                    .idMedico(idMedico)
+                    .fecha(fecha)
+                    .horaInicio(inicio)
+                    .horaFin(inicio.plusMinutes(30))
+                    .reservado(random.nextBoolean())
+                    .build());
+        }
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, CitaMedica.class).insert(citas).execute();
+        mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Horario.class).insert(horarios).execute();
+
+        guardia.reiniciar();
+    }
+
+    @Test
+    void consultasFrecuentes_UsanIndice() throws Exception {
+        // Arrange
+        ObjectId idMedico = medicos.get(7);
+        ObjectId idPaciente = pacientes.get(3);
+
+        // Act - Las mismas consultas que ejecutan los servicios en cada petición
+        citaRepo.buscarCitas(new FiltroCitas(EstadoCita.PENDIENTE, idMedico, null, hoy.minusDays(30), hoy));
+        citaRepo.buscarCitas(new FiltroCitas(null, null, idPaciente, null, null));
+        citaRepo.buscarPaginaRecientes(EstadoCita.VISTA, null, 51);
+        citaRepo.buscarPaginaRecientes(null, null, 51);
+        citaRepo.buscarProximasCitasPaciente(idPaciente, EstadoCita.PENDIENTE, hoy, LocalTime.NOON);
+        citaRepo.existeCitaSolapadaPaciente(idPaciente, hoy, EnumSet.of(EstadoCita.PENDIENTE, EstadoCita.VISTA),
+                LocalTime.of(9, 0), LocalTime.of(9, 30));
+        horarioRepo.findByIdMedicoAndReservadoFalseAndFechaGreaterThanEqualOrderByFechaAscHoraInicioAsc(idMedico, hoy.minusDays(50));
+        horarioRepo.findByIdMedicoAndFecha(idMedico, hoy.minusDays(50));
+        horarioRepo.reservarHorario(idMedico, hoy.minusDays(50), LocalTime.of(8, 0), LocalTime.of(8, 30));
+        horarioRepo.liberarHorario(idMedico, hoy.minusDays(50), LocalTime.of(8, 0), LocalTime.of(8, 30));
+
+        // Assert
+        Collection<ResultadoPlan> planes = explicados();
+        assertFalse(planes.isEmpty(), "La guardia no observó ninguna consulta");
+
+        String sinIndice = planes.stream()
+                .filter(resultado -> !resultado.plan().usaIndice()
+                        || resultado.plan().proporcionExaminados() > PROPORCION_MAXIMA)
+                .map(this::describir)
+                .collect(Collectors.joining("\n"));
+        assertTrue(sinIndice.isEmpty(), "Consultas frecuentes sin un índice adecuado:\n" + sinIndice);
+    }
+
+    @Test
+    void busquedasPorTexto_UsanIndiceDePrefijos() throws Exception {
+        // Act - Los mismos términos y el mismo tope de candidatos que usan los servicios de búsqueda
+        medicoRepo.buscarPorTerminosEspecialidad(BusquedaTexto.terminosConsulta("cardio"),
+                PageRequest.of(0, BusquedaTexto.candidatos(20)));
+        pacienteRepo.buscarCandidatosPorNombre(BusquedaTexto.terminosConsulta("plan 17"),
+                BusquedaTexto.normalizar("plan 17"), BusquedaTexto.candidatos(20));
+
+        // Assert - Especialidad, prefijos del nombre y nombre exacto
+        Collection<ResultadoPlan> planes = explicados();
+        assertEquals(3, planes.size());
+        planes.forEach(resultado -> {
+            assertTrue(resultado.plan().usaIndice(), describir(resultado));
+            assertTrue(resultado.plan().proporcionExaminados() <= PROPORCION_MAXIMA, describir(resultado));
+        });
+    }
+
+    private Collection<ResultadoPlan> explicados() throws InterruptedException {
+        assertTrue(guardia.esperar(Duration.ofSeconds(30)), "Los explain no terminaron a tiempo");
+        Collection<ResultadoPlan> planes = guardia.resultados();
+        planes.forEach(resultado -> System.out.println(describir(resultado)));
+        return planes;
+    }
+
+    private String describir(ResultadoPlan resultado) {
+        return String.format("%s.%s indices=%s examinados=%d devueltos=%d forma=%s",
+                resultado.coleccion(), resultado.comando(), resultado.plan().indices(),
+                resultado.plan().docsExaminados(), resultado.plan().docsDevueltos(), resultado.forma());
+    }
+}